@@ -0,0 +1,105 @@
+package com.hft.lockfree.benchmark;
+
+import com.hft.lockfree.engine.LockFreePriceEngine;
+import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.handler.AggregationHandler;
+import com.hft.lockfree.handler.DistributionHandler;
+import com.hft.lockfree.handler.SequenceGapHandler;
+import com.hft.lockfree.handler.ValidationHandler;
+import com.hft.lockfree.util.PriceDataGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 热路径分配基准测试
+ *
+ * 稳态下 发布 -> 序列检查 -> 验证 -> 聚合 -> 分发 整条路径不应分配对象。
+ * 配合GC分析器运行（-prof gc），gc.alloc.rate.norm应为0 B/op；
+ * AllocationCheck会自动运行本基准测试并在超过阈值时失败（./gradlew allocationCheck）。
+ *
+ * 行情中包含1%的无效事件，覆盖验证失败路径（日志限流后稳态不分配）。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class AllocationBenchmark {
+
+    private static final int TICK_BUFFER_SIZE = 1 << 14;
+    private static final int TICK_BUFFER_MASK = TICK_BUFFER_SIZE - 1;
+    private static final int INVALID_EVERY = 100;
+
+    private final String[] symbols = new String[TICK_BUFFER_SIZE];
+    private final double[] bidPrices = new double[TICK_BUFFER_SIZE];
+    private final double[] askPrices = new double[TICK_BUFFER_SIZE];
+
+    private SequenceGapHandler sequenceGapHandler;
+    private ValidationHandler validationHandler;
+    private AggregationHandler aggregationHandler;
+    private DistributionHandler distributionHandler;
+    private final PriceEvent event = new PriceEvent();
+
+    private LockFreePriceEngine engine;
+    private int cursor;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        PriceDataGenerator.createSimulator(42L).fill(symbols, bidPrices, askPrices, 0, TICK_BUFFER_SIZE);
+        for (int i = 0; i < TICK_BUFFER_SIZE; i += INVALID_EVERY) {
+            // 买卖价倒挂
+            double bid = bidPrices[i];
+            bidPrices[i] = askPrices[i];
+            askPrices[i] = bid;
+        }
+
+        sequenceGapHandler = new SequenceGapHandler();
+        validationHandler = new ValidationHandler();
+        aggregationHandler = new AggregationHandler();
+        distributionHandler = new DistributionHandler();
+        distributionHandler.subscribe((e, seq) -> { });
+
+        engine = new LockFreePriceEngine();
+        engine.subscribe((e, seq) -> { });
+        engine.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        engine.shutdown();
+    }
+
+    /**
+     * 处理链在当前线程内串行执行，分配全部计入本线程
+     */
+    @Benchmark
+    public void handlerChain(Blackhole bh) throws Exception {
+        int index = cursor++ & TICK_BUFFER_MASK;
+        long seq = sequence++;
+
+        event.setPriceData(symbols[index], bidPrices[index], askPrices[index], System.nanoTime());
+        event.setSource(1, seq + 1);
+        event.setSequence(seq);
+        event.setFlags(0);
+        event.setProcessed(false);
+
+        sequenceGapHandler.onEvent(event, seq, true);
+        validationHandler.onEvent(event, seq, true);
+        aggregationHandler.onEvent(event, seq, true);
+        distributionHandler.onEvent(event, seq, true);
+        bh.consume(event.isProcessed());
+    }
+
+    /**
+     * 经由真实引擎发布（处理器线程上的分配同样计入gc.alloc.rate）
+     */
+    @Benchmark
+    public boolean enginePublish() {
+        int index = cursor++ & TICK_BUFFER_MASK;
+        return engine.publishPrice(symbols[index], bidPrices[index], askPrices[index]);
+    }
+}
@@ -0,0 +1,65 @@
+package com.hft.lockfree.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 热路径零分配检查
+ *
+ * 带GC分析器运行AllocationBenchmark，任一基准测试的gc.alloc.rate.norm超过阈值即以非0退出，
+ * 用于在CI中捕获分配回归：./gradlew allocationCheck
+ *
+ * 阈值不是严格的0：GC分析器按全部线程统计，JMH自身和日志限流的偶发分配会摊到每次操作上，
+ * 通常在10⁻³ B/op量级；真正的回归（装箱、lambda、格式化）至少是每次操作十几个字节。
+ */
+public final class AllocationCheck {
+
+    private static final double MAX_BYTES_PER_OP = 0.5;
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    private AllocationCheck() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AllocationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(3)
+                .measurementTime(TimeValue.seconds(1))
+                .forks(1)
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        List<String> failures = new ArrayList<>();
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            Result<?> allocation = result.getSecondaryResults().get(ALLOCATION_METRIC);
+            if (allocation == null) {
+                failures.add(benchmark + ": " + ALLOCATION_METRIC + " not reported");
+            } else if (allocation.getScore() > MAX_BYTES_PER_OP) {
+                failures.add(String.format("%s: %.3f B/op (limit %.1f B/op)",
+                        benchmark, allocation.getScore(), MAX_BYTES_PER_OP));
+            } else {
+                System.out.printf("OK   %s: %.4f B/op%n", benchmark, allocation.getScore());
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            failures.forEach(failure -> System.err.println("FAIL " + failure));
+            System.exit(1);
+        }
+    }
+}
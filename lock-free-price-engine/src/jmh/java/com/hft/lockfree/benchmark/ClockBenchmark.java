@@ -0,0 +1,76 @@
+package com.hft.lockfree.benchmark;
+
+import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.handler.ValidationHandler;
+import com.hft.lockfree.util.NanoClock;
+import com.hft.lockfree.util.UpdatingNanoClock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 处理器时钟基准测试
+ *
+ * - read：单次读取时间的开销（System.nanoTime()、批次缓存字段读、共享volatile读）
+ * - validation：验证处理器在不同时钟下处理事件的开销，每batchSize个事件一个endOfBatch
+ *   （批次缓存时钟每个批次刷新一次）
+ *
+ * updating使用自旋的更新线程，需要一个空闲核心，否则会与基准线程争抢CPU。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class ClockBenchmark {
+
+    private static final int OPS_PER_INVOCATION = 256;
+
+    @Param({"system", "batchCached", "updating"})
+    public String clock;
+
+    @Param({"16"})
+    public int batchSize;
+
+    private NanoClock nanoClock;
+    private UpdatingNanoClock updatingClock;
+    private ValidationHandler validationHandler;
+    private final PriceEvent template = new PriceEvent();
+    private final PriceEvent event = new PriceEvent();
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        switch (clock) {
+            case "system" -> nanoClock = NanoClock.system();
+            case "batchCached" -> nanoClock = NanoClock.batchCached();
+            case "updating" -> nanoClock = updatingClock = new UpdatingNanoClock(0L).start();
+            default -> throw new IllegalArgumentException("Unknown clock: " + clock);
+        }
+        validationHandler = new ValidationHandler();
+        validationHandler.setClock(nanoClock);
+        template.setPriceData("EURUSD", 1.0999, 1.1001, System.nanoTime());
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        if (updatingClock != null) {
+            updatingClock.close();
+        }
+    }
+
+    @Benchmark
+    public long read() {
+        return nanoClock.nanoTime();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS_PER_INVOCATION)
+    public void validation() throws Exception {
+        for (int i = 0; i < OPS_PER_INVOCATION; i++) {
+            event.copyFrom(template);
+            validationHandler.onEvent(event, sequence++, (i + 1) % batchSize == 0);
+        }
+    }
+}
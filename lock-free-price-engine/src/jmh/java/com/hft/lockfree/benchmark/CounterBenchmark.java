@@ -0,0 +1,94 @@
+package com.hft.lockfree.benchmark;
+
+import com.hft.lockfree.util.SingleWriterCounter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 计数器基准测试
+ *
+ * 测试目标：
+ * - 每个事件在处理链上的计数开销（验证2次 + 聚合2次 + 分发2次）
+ * - AtomicLong.incrementAndGet()（lock前缀指令）与单写者release写入的对比
+ * - 监控线程并发读取时写者的开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class CounterBenchmark {
+
+    @State(Scope.Group)
+    public static class AtomicCounters {
+        final AtomicLong totalEvents = new AtomicLong();
+        final AtomicLong validEvents = new AtomicLong();
+        final AtomicLong processedEvents = new AtomicLong();
+        final AtomicLong priceUpdates = new AtomicLong();
+        final AtomicLong distributedEvents = new AtomicLong();
+        final AtomicLong totalLatency = new AtomicLong();
+    }
+
+    @State(Scope.Group)
+    public static class SingleWriterCounters {
+        final SingleWriterCounter totalEvents = new SingleWriterCounter();
+        final SingleWriterCounter validEvents = new SingleWriterCounter();
+        final SingleWriterCounter processedEvents = new SingleWriterCounter();
+        final SingleWriterCounter priceUpdates = new SingleWriterCounter();
+        final SingleWriterCounter distributedEvents = new SingleWriterCounter();
+        final SingleWriterCounter totalLatency = new SingleWriterCounter();
+    }
+
+    /**
+     * 每事件计数：AtomicLong
+     */
+    @Benchmark
+    @Group("atomicLong")
+    @GroupThreads(1)
+    public long atomicPerEvent(AtomicCounters c) {
+        c.totalEvents.incrementAndGet();
+        c.validEvents.incrementAndGet();
+        c.processedEvents.incrementAndGet();
+        c.priceUpdates.incrementAndGet();
+        c.distributedEvents.incrementAndGet();
+        return c.totalLatency.addAndGet(42);
+    }
+
+    /**
+     * 监控线程读取AtomicLong
+     */
+    @Benchmark
+    @Group("atomicLong")
+    @GroupThreads(1)
+    public long atomicMonitor(AtomicCounters c) {
+        return c.totalEvents.get() + c.distributedEvents.get();
+    }
+
+    /**
+     * 每事件计数：单写者计数器
+     */
+    @Benchmark
+    @Group("singleWriter")
+    @GroupThreads(1)
+    public long singleWriterPerEvent(SingleWriterCounters c) {
+        c.totalEvents.increment();
+        c.validEvents.increment();
+        c.processedEvents.increment();
+        c.priceUpdates.increment();
+        c.distributedEvents.increment();
+        c.totalLatency.add(42);
+        return c.totalLatency.get();
+    }
+
+    /**
+     * 监控线程读取单写者计数器
+     */
+    @Benchmark
+    @Group("singleWriter")
+    @GroupThreads(1)
+    public long singleWriterMonitor(SingleWriterCounters c) {
+        return c.totalEvents.get() + c.distributedEvents.get();
+    }
+}
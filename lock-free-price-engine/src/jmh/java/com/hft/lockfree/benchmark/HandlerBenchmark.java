@@ -0,0 +1,225 @@
+package com.hft.lockfree.benchmark;
+
+import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.event.TickScale;
+import com.hft.lockfree.handler.AggregationHandler;
+import com.hft.lockfree.handler.ChangeSuppression;
+import com.hft.lockfree.handler.DistributionHandler;
+import com.hft.lockfree.handler.SequenceGapHandler;
+import com.hft.lockfree.handler.ValidationHandler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单处理器基准测试
+ *
+ * 不经过Disruptor，直接在当前线程调用各处理器的onEvent，定位处理链中最昂贵的阶段。
+ * 每次调用处理OPS_PER_INVOCATION个事件：从预生成的模板数组复制到工作事件
+ * （模拟环形缓冲区槽位被生产者覆盖），再交给处理器。
+ * copyOnly是只做复制的基线，各处理器的结果减去基线即为处理器本身的开销。
+ *
+ * 参数：
+ * - symbolCount：品种数量，影响价格簿大小和缓存命中
+ * - invalidRatio：无效事件比例，覆盖验证失败路径
+ * - batchSize：每多少个事件一个endOfBatch，模拟不同的批次形态
+ * - fixedPoint：模板是否携带定点价格（FLAG_FIXED_POINT），对比double与价位数两条验证/聚合路径
+ *
+ * validateAndAggregate是验证加聚合（开启变化抑制）的热循环，
+ * 定点与double的差异主要体现在这里：价差检查和变化抑制的比较方式不同。
+ *
+ * 每个事件的分配量用GC分析器查看：./gradlew handlerBenchmark（-prof gc，看gc.alloc.rate.norm）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class HandlerBenchmark {
+
+    private static final int OPS_PER_INVOCATION = 256;
+    private static final int TEMPLATE_COUNT = 1 << 14;
+    private static final int TEMPLATE_MASK = TEMPLATE_COUNT - 1;
+    private static final double TICK_SIZE = 0.00001;
+
+    @Param({"1", "10", "1000"})
+    public int symbolCount;
+
+    @Param({"0.0", "0.1"})
+    public double invalidRatio;
+
+    @Param({"1", "16", "256"})
+    public int batchSize;
+
+    @Param({"false", "true"})
+    public boolean fixedPoint;
+
+    private final PriceEvent[] templates = new PriceEvent[TEMPLATE_COUNT];
+    private final PriceEvent[] working = new PriceEvent[OPS_PER_INVOCATION];
+
+    private SequenceGapHandler sequenceGapHandler;
+    private ValidationHandler validationHandler;
+    private AggregationHandler aggregationHandler;
+    private AggregationHandler suppressingAggregationHandler;
+    private DistributionHandler distributionHandler;
+
+    private int cursor;
+    private long sequence;
+    private long sourceSequence;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42L);
+
+        String[] symbols = new String[symbolCount];
+        double[] basePrices = new double[symbolCount];
+        for (int i = 0; i < symbolCount; i++) {
+            symbols[i] = String.format("SYM%04d", i);
+            basePrices[i] = 1.0 + random.nextDouble() * 100.0;
+        }
+
+        long timestamp = System.nanoTime();
+        for (int i = 0; i < TEMPLATE_COUNT; i++) {
+            int index = random.nextInt(symbolCount);
+            double mid = basePrices[index] * (1.0 + (random.nextDouble() - 0.5) * 0.001);
+            double spread = basePrices[index] * 0.0001;
+
+            PriceEvent event = new PriceEvent();
+            if (random.nextDouble() < invalidRatio) {
+                // 买卖价倒挂，验证失败
+                event.setPriceData(symbols[index], mid + spread, mid - spread, timestamp);
+            } else {
+                event.setPriceData(symbols[index], mid - spread, mid + spread, timestamp);
+                // 聚合与分发只处理已验证的事件，模板中直接标记
+                event.setProcessed(true);
+            }
+            if (fixedPoint) {
+                event.setFixedPoint(TickScale.toTicks(event.getBidPrice(), TICK_SIZE),
+                        TickScale.toTicks(event.getAskPrice(), TICK_SIZE), TICK_SIZE);
+            }
+            templates[i] = event;
+        }
+        for (int i = 0; i < OPS_PER_INVOCATION; i++) {
+            working[i] = new PriceEvent();
+        }
+
+        sequenceGapHandler = new SequenceGapHandler();
+        validationHandler = new ValidationHandler();
+        aggregationHandler = new AggregationHandler();
+        distributionHandler = new DistributionHandler();
+        suppressingAggregationHandler = new AggregationHandler(symbolCount);
+        suppressingAggregationHandler.setChangeSuppression(new ChangeSuppression(TICK_SIZE, 1));
+    }
+
+    /**
+     * 填充下一个工作事件
+     */
+    private PriceEvent next(int i) {
+        PriceEvent event = working[i];
+        event.copyFrom(templates[(cursor + i) & TEMPLATE_MASK]);
+        event.setSequence(sequence + i);
+        return event;
+    }
+
+    private boolean endOfBatch(int i) {
+        return (i + 1) % batchSize == 0;
+    }
+
+    private void advance() {
+        cursor += OPS_PER_INVOCATION;
+        sequence += OPS_PER_INVOCATION;
+    }
+
+    /**
+     * 基线：只复制模板
+     */
+    @Benchmark
+    @OperationsPerInvocation(OPS_PER_INVOCATION)
+    public void copyOnly(Blackhole bh) {
+        for (int i = 0; i < OPS_PER_INVOCATION; i++) {
+            bh.consume(next(i));
+        }
+        advance();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS_PER_INVOCATION)
+    public void sequenceGapHandler() throws Exception {
+        for (int i = 0; i < OPS_PER_INVOCATION; i++) {
+            PriceEvent event = next(i);
+            // 单一数据源，序列号连续
+            event.setSource(1, ++sourceSequence);
+            sequenceGapHandler.onEvent(event, sequence + i, endOfBatch(i));
+        }
+        advance();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS_PER_INVOCATION)
+    public void validationHandler() throws Exception {
+        for (int i = 0; i < OPS_PER_INVOCATION; i++) {
+            PriceEvent event = next(i);
+            event.setProcessed(false);
+            validationHandler.onEvent(event, sequence + i, endOfBatch(i));
+        }
+        advance();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS_PER_INVOCATION)
+    public void aggregationHandler() throws Exception {
+        for (int i = 0; i < OPS_PER_INVOCATION; i++) {
+            aggregationHandler.onEvent(next(i), sequence + i, endOfBatch(i));
+        }
+        advance();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS_PER_INVOCATION)
+    public void distributionHandler() throws Exception {
+        for (int i = 0; i < OPS_PER_INVOCATION; i++) {
+            distributionHandler.onEvent(next(i), sequence + i, endOfBatch(i));
+        }
+        advance();
+    }
+
+    /**
+     * 验证 + 聚合（开启变化抑制）
+     */
+    @Benchmark
+    @OperationsPerInvocation(OPS_PER_INVOCATION)
+    public void validateAndAggregate() throws Exception {
+        for (int i = 0; i < OPS_PER_INVOCATION; i++) {
+            PriceEvent event = next(i);
+            event.setProcessed(false);
+            long seq = sequence + i;
+            boolean endOfBatch = endOfBatch(i);
+            validationHandler.onEvent(event, seq, endOfBatch);
+            suppressingAggregationHandler.onEvent(event, seq, endOfBatch);
+        }
+        advance();
+    }
+
+    /**
+     * 完整处理链在同一线程中串行执行（无线程间交接），与各阶段之和对照
+     */
+    @Benchmark
+    @OperationsPerInvocation(OPS_PER_INVOCATION)
+    public void fullChainInline() throws Exception {
+        for (int i = 0; i < OPS_PER_INVOCATION; i++) {
+            PriceEvent event = next(i);
+            event.setProcessed(false);
+            event.setSource(1, ++sourceSequence);
+            long seq = sequence + i;
+            boolean endOfBatch = endOfBatch(i);
+            sequenceGapHandler.onEvent(event, seq, endOfBatch);
+            validationHandler.onEvent(event, seq, endOfBatch);
+            aggregationHandler.onEvent(event, seq, endOfBatch);
+            distributionHandler.onEvent(event, seq, endOfBatch);
+        }
+        advance();
+    }
+}
@@ -0,0 +1,87 @@
+package com.hft.lockfree.benchmark;
+
+import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.handler.DistributionHandler;
+import com.hft.lockfree.handler.MailboxSubscriber;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 邮箱订阅者基准测试
+ *
+ * 不经过Disruptor，直接调用DistributionHandler.onEvent，测量分发线程向大量
+ * 邮箱订阅者投递一个事件的开销。每个订阅者在自己的虚拟线程中消费，
+ * sinkDelayMicros模拟订阅者的阻塞处理时间（0表示立即返回）。
+ *
+ * 分发线程不等待订阅者：订阅者跟不上时邮箱溢出，溢出数量在每轮结束时打印，
+ * 用于判断容量和订阅者数量是否匹配。
+ *
+ * 运行：./gradlew mailboxBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class MailboxBenchmark {
+
+    @Param({"1000", "10000"})
+    public int subscriberCount;
+
+    @Param({"0", "100"})
+    public int sinkDelayMicros;
+
+    @Param({"256"})
+    public int mailboxCapacity;
+
+    private DistributionHandler distributionHandler;
+    private final List<MailboxSubscriber> mailboxes = new ArrayList<>();
+    private final PriceEvent event = new PriceEvent();
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        distributionHandler = new DistributionHandler();
+        long delayNanos = TimeUnit.MICROSECONDS.toNanos(sinkDelayMicros);
+        for (int i = 0; i < subscriberCount; i++) {
+            mailboxes.add(distributionHandler.subscribeAsync((e, seq) -> {
+                if (delayNanos > 0) {
+                    LockSupport.parkNanos(delayNanos);
+                }
+            }, mailboxCapacity));
+        }
+        event.setPriceData("EURUSD", 1.1000, 1.1002, System.nanoTime());
+        event.setProcessed(true);
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        long delivered = 0;
+        long overflow = 0;
+        for (MailboxSubscriber mailbox : mailboxes) {
+            delivered += mailbox.getDeliveredCount();
+            overflow += mailbox.getOverflowCount();
+        }
+        System.out.printf("%n  mailboxes=%d delivered=%,d overflow=%,d%n", mailboxes.size(), delivered, overflow);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        distributionHandler.shutdown();
+        mailboxes.clear();
+    }
+
+    /**
+     * 分发一个事件到全部邮箱订阅者
+     */
+    @Benchmark
+    public void distributeToMailboxes() throws Exception {
+        distributionHandler.onEvent(event, sequence, true);
+        sequence++;
+    }
+}
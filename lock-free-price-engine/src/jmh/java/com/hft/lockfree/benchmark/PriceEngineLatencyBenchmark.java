@@ -1,10 +1,10 @@
 package com.hft.lockfree.benchmark;
 
 import com.hft.lockfree.engine.LockFreePriceEngine;
+import com.hft.lockfree.util.PriceDataGenerator;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
 
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -23,9 +23,15 @@ import java.util.concurrent.TimeUnit;
 @State(Scope.Benchmark)
 public class PriceEngineLatencyBenchmark {
     
+    // 预生成的行情缓冲区（2的幂，按下标循环读取）
+    private static final int TICK_BUFFER_SIZE = 1 << 16;
+    private static final int TICK_BUFFER_MASK = TICK_BUFFER_SIZE - 1;
+    
     private LockFreePriceEngine engine;
-    private String[] symbols;
-    private double[] basePrices;
+    private final String[] symbols = new String[TICK_BUFFER_SIZE];
+    private final double[] bidPrices = new double[TICK_BUFFER_SIZE];
+    private final double[] askPrices = new double[TICK_BUFFER_SIZE];
+    private int cursor;
     
     @Setup(Level.Trial)
     public void setupTrial() {
@@ -34,12 +40,7 @@ public class PriceEngineLatencyBenchmark {
         engine.start();
         
         // 预生成测试数据
-        symbols = new String[]{"EURUSD", "GBPUSD", "USDJPY", "AUDUSD", "USDCAD"};
-        basePrices = new double[symbols.length];
-        
-        for (int i = 0; i < symbols.length; i++) {
-            basePrices[i] = 1.0 + ThreadLocalRandom.current().nextDouble() * 0.5;
-        }
+        PriceDataGenerator.createSimulator(42L).fill(symbols, bidPrices, askPrices, 0, TICK_BUFFER_SIZE);
         
         // 预热引擎
         warmupEngine();
@@ -53,21 +54,10 @@ public class PriceEngineLatencyBenchmark {
     }
     
     /**
-     * 预热引擎，确保JIT编译和缓存预热
+     * 预热引擎：内置预热跑到JIT编译稳定，预热事件不进入价格簿和统计
      */
     private void warmupEngine() {
-        for (int i = 0; i < 10000; i++) {
-            int index = i % symbols.length;
-            double basePrice = basePrices[index];
-            engine.publishPrice(symbols[index], basePrice - 0.0001, basePrice + 0.0001);
-        }
-        
-        // 等待处理完成
-        try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        engine.warmUp();
     }
     
     /**
@@ -75,12 +65,9 @@ public class PriceEngineLatencyBenchmark {
      */
     @Benchmark
     public void singlePricePublish(Blackhole bh) {
-        int index = ThreadLocalRandom.current().nextInt(symbols.length);
-        double basePrice = basePrices[index];
-        double bidPrice = basePrice - 0.0001;
-        double askPrice = basePrice + 0.0001;
+        int index = cursor++ & TICK_BUFFER_MASK;
         
-        boolean result = engine.publishPrice(symbols[index], bidPrice, askPrice);
+        boolean result = engine.publishPrice(symbols[index], bidPrices[index], askPrices[index]);
         bh.consume(result);
     }
     
@@ -91,12 +78,9 @@ public class PriceEngineLatencyBenchmark {
     @OperationsPerInvocation(10)
     public void batchPricePublish(Blackhole bh) {
         for (int i = 0; i < 10; i++) {
-            int index = i % symbols.length;
-            double basePrice = basePrices[index];
-            double bidPrice = basePrice - 0.0001;
-            double askPrice = basePrice + 0.0001;
+            int index = cursor++ & TICK_BUFFER_MASK;
             
-            boolean result = engine.publishPrice(symbols[index], bidPrice, askPrice);
+            boolean result = engine.publishPrice(symbols[index], bidPrices[index], askPrices[index]);
             bh.consume(result);
         }
     }
@@ -106,13 +90,10 @@ public class PriceEngineLatencyBenchmark {
      */
     @Benchmark
     public void pricePublishWithTimestamp(Blackhole bh) {
-        int index = ThreadLocalRandom.current().nextInt(symbols.length);
-        double basePrice = basePrices[index];
-        double bidPrice = basePrice - 0.0001;
-        double askPrice = basePrice + 0.0001;
+        int index = cursor++ & TICK_BUFFER_MASK;
         long timestamp = System.nanoTime();
         
-        boolean result = engine.publishPrice(symbols[index], bidPrice, askPrice, timestamp);
+        boolean result = engine.publishPrice(symbols[index], bidPrices[index], askPrices[index], timestamp);
         bh.consume(result);
     }
     
@@ -121,7 +102,7 @@ public class PriceEngineLatencyBenchmark {
      */
     @Benchmark
     public void priceQuery(Blackhole bh) {
-        String symbol = symbols[ThreadLocalRandom.current().nextInt(symbols.length)];
+        String symbol = symbols[cursor++ & TICK_BUFFER_MASK];
         var snapshot = engine.getAggregationHandler().getLatestPrice(symbol);
         bh.consume(snapshot);
     }
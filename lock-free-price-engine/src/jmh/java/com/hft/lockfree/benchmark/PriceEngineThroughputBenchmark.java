@@ -1,6 +1,7 @@
 package com.hft.lockfree.benchmark;
 
 import com.hft.lockfree.engine.LockFreePriceEngine;
+import com.hft.lockfree.util.PriceDataGenerator;
 import com.lmax.disruptor.BlockingWaitStrategy;
 import com.lmax.disruptor.BusySpinWaitStrategy;
 import com.lmax.disruptor.SleepingWaitStrategy;
@@ -8,7 +9,6 @@ import com.lmax.disruptor.YieldingWaitStrategy;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
 
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -18,6 +18,9 @@ import java.util.concurrent.TimeUnit;
  * - 不同等待策略的吞吐量对比
  * - 不同RingBuffer大小的影响
  * - 持续负载下的性能表现
+ *
+ * 行情由MarketSimulator预先生成（固定种子），测量循环中只做数组读取，
+ * 不包含随机数和对象分配的开销。
  */
 @BenchmarkMode(Mode.Throughput)
 @OutputTimeUnit(TimeUnit.SECONDS)
@@ -33,9 +36,15 @@ public class PriceEngineThroughputBenchmark {
     @Param({"16384", "65536", "262144"})  // 16K, 64K, 256K
     public int ringBufferSize;
     
+    // 预生成的行情缓冲区（2的幂，按下标循环读取）
+    private static final int TICK_BUFFER_SIZE = 1 << 16;
+    private static final int TICK_BUFFER_MASK = TICK_BUFFER_SIZE - 1;
+    
     private LockFreePriceEngine engine;
-    private String[] symbols;
-    private double[] basePrices;
+    private final String[] symbols = new String[TICK_BUFFER_SIZE];
+    private final double[] bidPrices = new double[TICK_BUFFER_SIZE];
+    private final double[] askPrices = new double[TICK_BUFFER_SIZE];
+    private int cursor;
     
     @Setup(Level.Trial)
     public void setupTrial() {
@@ -53,13 +62,7 @@ public class PriceEngineThroughputBenchmark {
         engine.start();
         
         // 准备测试数据
-        symbols = new String[]{"EURUSD", "GBPUSD", "USDJPY", "AUDUSD", "USDCAD", 
-                              "EURGBP", "EURJPY", "GBPJPY", "XAUUSD", "USOIL"};
-        basePrices = new double[symbols.length];
-        
-        for (int i = 0; i < symbols.length; i++) {
-            basePrices[i] = 1.0 + ThreadLocalRandom.current().nextDouble() * 0.5;
-        }
+        PriceDataGenerator.createSimulator(42L).fill(symbols, bidPrices, askPrices, 0, TICK_BUFFER_SIZE);
         
         // 预热
         warmupEngine();
@@ -74,9 +77,7 @@ public class PriceEngineThroughputBenchmark {
     
     private void warmupEngine() {
         for (int i = 0; i < 50000; i++) {
-            int index = i % symbols.length;
-            double basePrice = basePrices[index];
-            engine.publishPrice(symbols[index], basePrice - 0.0001, basePrice + 0.0001);
+            publishNext();
         }
         
         try {
@@ -94,14 +95,15 @@ public class PriceEngineThroughputBenchmark {
      */
     @Benchmark
     public void continuousPricePublish(Blackhole bh) {
-        int index = ThreadLocalRandom.current().nextInt(symbols.length);
-        double basePrice = basePrices[index];
-        double spread = 0.0001 + ThreadLocalRandom.current().nextDouble() * 0.0005;
-        double bidPrice = basePrice - spread / 2;
-        double askPrice = basePrice + spread / 2;
-        
-        boolean result = engine.publishPrice(symbols[index], bidPrice, askPrice);
-        bh.consume(result);
+        bh.consume(publishNext());
+    }
+    
+    /**
+     * 发布缓冲区中的下一条行情
+     */
+    private boolean publishNext() {
+        int index = cursor++ & TICK_BUFFER_MASK;
+        return engine.publishPrice(symbols[index], bidPrices[index], askPrices[index]);
     }
     
     /**
@@ -112,18 +114,11 @@ public class PriceEngineThroughputBenchmark {
     public void mixedOperations(Blackhole bh) {
         for (int i = 0; i < 10; i++) {
             if (i == 9) { // 10%的查询操作
-                String symbol = symbols[ThreadLocalRandom.current().nextInt(symbols.length)];
+                String symbol = symbols[cursor & TICK_BUFFER_MASK];
                 var snapshot = engine.getAggregationHandler().getLatestPrice(symbol);
                 bh.consume(snapshot);
             } else { // 90%的写入操作
-                int index = ThreadLocalRandom.current().nextInt(symbols.length);
-                double basePrice = basePrices[index];
-                double spread = 0.0001 + ThreadLocalRandom.current().nextDouble() * 0.0005;
-                double bidPrice = basePrice - spread / 2;
-                double askPrice = basePrice + spread / 2;
-                
-                boolean result = engine.publishPrice(symbols[index], bidPrice, askPrice);
-                bh.consume(result);
+                bh.consume(publishNext());
             }
         }
     }
@@ -135,17 +130,7 @@ public class PriceEngineThroughputBenchmark {
     @OperationsPerInvocation(50)
     public void batchPriceUpdates(Blackhole bh) {
         for (int i = 0; i < 50; i++) {
-            int index = i % symbols.length;
-            double basePrice = basePrices[index];
-            
-            // 模拟价格波动
-            double volatility = ThreadLocalRandom.current().nextGaussian() * 0.001;
-            double newPrice = basePrice + volatility;
-            double spread = 0.0001;
-            
-            boolean result = engine.publishPrice(symbols[index], 
-                    newPrice - spread, newPrice + spread);
-            bh.consume(result);
+            bh.consume(publishNext());
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+package com.hft.lockfree.benchmark;
+
+import com.hft.lockfree.engine.LockFreePriceEngine;
+import com.hft.lockfree.replay.TickFileConverter;
+import com.hft.lockfree.replay.TickFileReader;
+import com.hft.lockfree.util.MarketSimulator;
+import com.hft.lockfree.util.PriceDataGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 历史行情回放基准测试
+ *
+ * 从内存映射的二进制行情文件读取数据发布到引擎，测量的是引擎而不是CSV解析。
+ * 通过 -p tickFile=/path/to/ticks.bin 指定真实行情（由TickFileConverter转换）；
+ * 未指定时用MarketSimulator生成一份合成行情。
+ *
+ * 对比逐条publishPrice与批量publishPrices（next(n)/publish(lo, hi)）。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 3, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReplayBenchmark {
+
+    private static final int SYNTHETIC_TICKS = 1_000_000;
+    private static final int BATCH_SIZE = 64;
+
+    @Param({""})
+    public String tickFile;
+
+    private LockFreePriceEngine engine;
+    private TickFileReader reader;
+    private Path syntheticFile;
+    private int cursor;
+
+    // 批量发布的复用缓冲区
+    private final String[] batchSymbols = new String[BATCH_SIZE];
+    private final double[] batchBids = new double[BATCH_SIZE];
+    private final double[] batchAsks = new double[BATCH_SIZE];
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Path path;
+        if (tickFile.isEmpty()) {
+            syntheticFile = generateSyntheticFile();
+            path = syntheticFile;
+        } else {
+            path = Paths.get(tickFile);
+        }
+        reader = new TickFileReader(path);
+
+        engine = new LockFreePriceEngine();
+        engine.start();
+
+        // 预热：完整回放一遍，顺便让映射页面进入页缓存
+        reader.replay(engine, BATCH_SIZE);
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        engine.resetStatistics();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+        if (engine != null) {
+            engine.shutdown();
+        }
+        if (reader != null) {
+            reader.close();
+        }
+        if (syntheticFile != null) {
+            Files.deleteIfExists(syntheticFile);
+        }
+    }
+
+    /**
+     * 逐条回放
+     */
+    @Benchmark
+    public void replaySingle(Blackhole bh) {
+        int index = nextIndex(1);
+        boolean result = engine.publishPrice(reader.getSymbol(reader.getSymbolId(index)),
+                reader.getBidPrice(index), reader.getAskPrice(index));
+        bh.consume(result);
+    }
+
+    /**
+     * 批量回放
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void replayBatch(Blackhole bh) {
+        int from = nextIndex(BATCH_SIZE);
+        int n = reader.read(from, batchSymbols, batchBids, batchAsks, null, BATCH_SIZE);
+        bh.consume(engine.publishPrices(batchSymbols, batchBids, batchAsks, null, 0, n));
+    }
+
+    /**
+     * 循环读取文件，文件末尾不足一批时从头开始
+     */
+    private int nextIndex(int count) {
+        if (cursor + count > reader.getTickCount()) {
+            cursor = 0;
+        }
+        int index = cursor;
+        cursor += count;
+        return index;
+    }
+
+    private static Path generateSyntheticFile() throws IOException {
+        Path csv = Files.createTempFile("ticks", ".csv");
+        Path bin = Files.createTempFile("ticks", ".bin");
+        MarketSimulator simulator = PriceDataGenerator.createSimulator(42L);
+        long timestamp = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(csv)) {
+            writer.write("timestamp,symbol,bid,ask\n");
+            for (int i = 0; i < SYNTHETIC_TICKS; i++) {
+                simulator.nextTick();
+                timestamp += simulator.getLastIntervalNanos();
+                writer.write(timestamp + "," + simulator.getLastSymbol() + ","
+                        + simulator.getLastBid() + "," + simulator.getLastAsk() + "\n");
+            }
+        }
+        TickFileConverter.convert(csv, bin);
+        Files.delete(csv);
+        return bin;
+    }
+}
@@ -0,0 +1,60 @@
+package com.hft.lockfree.deadletter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 死信落盘：追加写入CSV文件
+ *
+ * 列顺序为 timestamp,symbol,bid,ask,reason,sequence,sourceId,sourceSequence，
+ * 前四列与TickFileConverter的输入格式一致，被拒绝的行情可以直接转换后回放复现。
+ */
+public class CsvDeadLetterSink implements DeadLetterSink, Closeable {
+
+    private final BufferedWriter writer;
+
+    public CsvDeadLetterSink(Path file) throws IOException {
+        boolean writeHeader = !Files.exists(file) || Files.size(file) == 0;
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (writeHeader) {
+            writer.write("timestamp,symbol,bid,ask,reason,sequence,sourceId,sourceSequence");
+            writer.newLine();
+        }
+    }
+
+    @Override
+    public void onDeadLetter(DeadLetter letter) throws IOException {
+        writer.write(Long.toString(letter.getTimestamp()));
+        writer.write(',');
+        writer.write(String.valueOf(letter.getSymbol()));
+        writer.write(',');
+        writer.write(Double.toString(letter.getBidPrice()));
+        writer.write(',');
+        writer.write(Double.toString(letter.getAskPrice()));
+        writer.write(',');
+        writer.write(letter.getReason().name());
+        writer.write(',');
+        writer.write(Long.toString(letter.getSequence()));
+        writer.write(',');
+        writer.write(Integer.toString(letter.getSourceId()));
+        writer.write(',');
+        writer.write(Long.toString(letter.getSourceSequence()));
+        writer.newLine();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,70 @@
+package com.hft.lockfree.deadletter;
+
+import com.hft.lockfree.event.PriceEvent;
+
+/**
+ * 死信记录
+ *
+ * DeadLetterRing中预分配的槽位，保存被拒绝事件的原始字段和拒绝原因。
+ * 槽位会被复用：DeadLetterSink只能在回调期间读取，需要保留时自行复制。
+ */
+public final class DeadLetter {
+
+    private long sequence;
+    private RejectReason reason;
+    private long rejectedAt;
+
+    // 原始事件字段
+    private String symbol;
+    private double bidPrice;
+    private double askPrice;
+    private double volume;
+    private long timestamp;
+    private int sourceId;
+    private long sourceSequence;
+    private int eventType;
+    private int flags;
+
+    DeadLetter() {
+    }
+
+    /**
+     * 从事件复制字段（在事件被重置之前调用）
+     */
+    void capture(PriceEvent event, long sequence, RejectReason reason, long rejectedAt) {
+        this.sequence = sequence;
+        this.reason = reason;
+        this.rejectedAt = rejectedAt;
+        this.symbol = event.getSymbol();
+        this.bidPrice = event.getBidPrice();
+        this.askPrice = event.getAskPrice();
+        this.volume = event.getVolume();
+        this.timestamp = event.getTimestamp();
+        this.sourceId = event.getSourceId();
+        this.sourceSequence = event.getSourceSequence();
+        this.eventType = event.getEventType();
+        this.flags = event.getFlags();
+    }
+
+    /** 环形缓冲区序列号 */
+    public long getSequence() { return sequence; }
+    public RejectReason getReason() { return reason; }
+    /** 被拒绝时的System.nanoTime() */
+    public long getRejectedAt() { return rejectedAt; }
+    public String getSymbol() { return symbol; }
+    public double getBidPrice() { return bidPrice; }
+    public double getAskPrice() { return askPrice; }
+    public double getVolume() { return volume; }
+    public long getTimestamp() { return timestamp; }
+    public int getSourceId() { return sourceId; }
+    public long getSourceSequence() { return sourceSequence; }
+    public int getEventType() { return eventType; }
+    public int getFlags() { return flags; }
+
+    @Override
+    public String toString() {
+        return "DeadLetter{seq=" + sequence + ", reason=" + reason + ", symbol='" + symbol
+                + "', bid=" + bidPrice + ", ask=" + askPrice + ", ts=" + timestamp
+                + ", source=" + sourceId + "/" + sourceSequence + '}';
+    }
+}
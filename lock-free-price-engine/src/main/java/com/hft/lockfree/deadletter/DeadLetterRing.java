@@ -0,0 +1,204 @@
+package com.hft.lockfree.deadletter;
+
+import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.util.SingleWriterCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 死信环形缓冲区
+ *
+ * 设计要点：
+ * 1. 单生产者（处理器线程）单消费者（后台排空线程），槽位预分配，offer不分配对象、不加锁
+ * 2. 生产者只复制字段并发布位置（release写），拒绝事件的开销是纳秒级
+ * 3. 有界：缓冲区满时丢弃新死信并计数，绝不阻塞处理链
+ * 4. 后台线程把死信交给DeadLetterSink做日志或落盘，行情异常引发的日志风暴不再影响延迟
+ */
+public class DeadLetterRing {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterRing.class);
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private static final int DRAIN_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final DeadLetter[] slots;
+    private final int mask;
+    private final DeadLetterSink sink;
+    private final String name;
+
+    // 生产者位置（生产者写），消费者位置（消费者写）
+    private final SingleWriterCounter producerPosition = new SingleWriterCounter();
+    private final SingleWriterCounter consumerPosition = new SingleWriterCounter();
+    private final SingleWriterCounter overflowCount = new SingleWriterCounter();
+    private final SingleWriterCounter sinkErrors = new SingleWriterCounter();
+
+    // 生产者本地缓存的消费者位置，减少跨核读取
+    private long cachedConsumerPosition;
+
+    private volatile boolean running;
+    private Thread drainThread;
+
+    /**
+     * @param name 名称（用于线程名和日志）
+     * @param capacity 容量（必须是2的幂）
+     * @param sink 死信消费者
+     */
+    public DeadLetterRing(String name, int capacity, DeadLetterSink sink) {
+        if (capacity < 1 || (capacity & (capacity - 1)) != 0) {
+            throw new IllegalArgumentException("Dead letter capacity must be a power of 2");
+        }
+        this.name = name;
+        this.sink = sink;
+        this.mask = capacity - 1;
+        this.slots = new DeadLetter[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new DeadLetter();
+        }
+    }
+
+    /**
+     * 默认的死信消费者：在后台线程逐条记录warn日志
+     */
+    public static DeadLetterSink loggingSink() {
+        return letter -> logger.warn("Rejected price event: {}", letter);
+    }
+
+    /**
+     * 记录被拒绝的事件（仅生产者线程调用，必须在事件被重置之前）
+     * @return false表示缓冲区已满，死信被丢弃
+     */
+    public boolean offer(PriceEvent event, long sequence, RejectReason reason) {
+        long position = producerPosition.get();
+        if (position - cachedConsumerPosition >= slots.length) {
+            cachedConsumerPosition = consumerPosition.get();
+            if (position - cachedConsumerPosition >= slots.length) {
+                overflowCount.increment();
+                return false;
+            }
+        }
+        slots[(int) position & mask].capture(event, sequence, reason, System.nanoTime());
+        producerPosition.set(position + 1);
+        return true;
+    }
+
+    /**
+     * 排空死信（仅消费者线程调用；后台线程已启动时不要直接调用）
+     * @param maxLetters 最多处理的数量
+     * @return 实际处理的数量
+     */
+    public int drain(int maxLetters) {
+        long position = consumerPosition.get();
+        long available = Math.min(producerPosition.get() - position, maxLetters);
+        for (long i = 0; i < available; i++) {
+            try {
+                sink.onDeadLetter(slots[(int) (position + i) & mask]);
+            } catch (Exception e) {
+                sinkErrors.increment();
+                logger.error("Dead letter sink {} failed: {}", name, e.getMessage(), e);
+            }
+        }
+        if (available > 0) {
+            // 处理完成后再释放槽位给生产者
+            consumerPosition.set(position + available);
+            try {
+                sink.flush();
+            } catch (Exception e) {
+                sinkErrors.increment();
+                logger.error("Dead letter sink {} flush failed: {}", name, e.getMessage(), e);
+            }
+        }
+        return (int) available;
+    }
+
+    /**
+     * 启动后台排空线程
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        drainThread = new Thread(this::drainLoop, "PriceEngine-DeadLetter-" + name);
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+
+    /**
+     * 停止后台线程，并在调用线程中排空剩余死信
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(drainThread);
+        try {
+            drainThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drainThread = null;
+        while (drain(DRAIN_BATCH) > 0) {
+            // 继续排空
+        }
+    }
+
+    private void drainLoop() {
+        while (running) {
+            if (drain(DRAIN_BATCH) == 0) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * 已写入缓冲区的死信总数
+     */
+    public long getOfferedCount() {
+        return producerPosition.get();
+    }
+
+    /**
+     * 已交给DeadLetterSink的死信总数
+     */
+    public long getDrainedCount() {
+        return consumerPosition.get();
+    }
+
+    /**
+     * 等待排空的死信数量
+     */
+    public long getPendingCount() {
+        return producerPosition.get() - consumerPosition.get();
+    }
+
+    /**
+     * 因缓冲区满被丢弃的死信数量
+     */
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    public long getSinkErrorCount() {
+        return sinkErrors.get();
+    }
+
+    public String getStatistics() {
+        return String.format("DeadLetterRing[%s, capacity=%d, offered=%d, drained=%d, pending=%d, overflow=%d, sinkErrors=%d]",
+                name, slots.length, getOfferedCount(), getDrainedCount(), getPendingCount(),
+                getOverflowCount(), getSinkErrorCount());
+    }
+}
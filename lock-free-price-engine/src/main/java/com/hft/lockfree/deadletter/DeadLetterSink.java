@@ -0,0 +1,23 @@
+package com.hft.lockfree.deadletter;
+
+/**
+ * 死信消费者
+ *
+ * 在DeadLetterRing的后台线程中回调，可以执行日志、落盘等耗时操作，
+ * 不会影响处理链。letter对象在回调返回后会被复用。
+ */
+@FunctionalInterface
+public interface DeadLetterSink {
+
+    /**
+     * 处理一条死信
+     */
+    void onDeadLetter(DeadLetter letter) throws Exception;
+
+    /**
+     * 一批死信处理完成后调用（用于刷新缓冲）
+     */
+    default void flush() throws Exception {
+        // 默认空实现
+    }
+}
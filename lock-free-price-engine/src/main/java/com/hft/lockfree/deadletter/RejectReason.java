@@ -0,0 +1,31 @@
+package com.hft.lockfree.deadletter;
+
+/**
+ * 事件被拒绝的原因
+ */
+public enum RejectReason {
+
+    /** 基础数据无效（品种为空、价格非正、买卖价倒挂） */
+    INVALID_DATA,
+
+    /** 价格超出允许范围 */
+    PRICE_OUT_OF_RANGE,
+
+    /** 价差相对中间价过大 */
+    SPREAD_TOO_WIDE,
+
+    /** 成交量非正（成交事件） */
+    INVALID_VOLUME,
+
+    /** 品种未在SymbolRegistry中注册或已移除 */
+    UNKNOWN_SYMBOL,
+
+    /** 未知的事件类型 */
+    UNKNOWN_EVENT_TYPE,
+
+    /** 时间戳晚于当前时间 */
+    FUTURE_TIMESTAMP,
+
+    /** 验证过程中抛出异常 */
+    EXCEPTION
+}
@@ -1,17 +1,36 @@
 package com.hft.lockfree.engine;
 
+import com.hft.lockfree.deadletter.DeadLetterRing;
+import com.hft.lockfree.deadletter.DeadLetterSink;
+import com.hft.lockfree.event.OffHeapPriceRing;
 import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.event.SymbolRegistry;
+import com.hft.lockfree.event.TickScale;
 import com.hft.lockfree.handler.*;
+import com.hft.lockfree.ipc.SharedPriceTableWriter;
+import com.hft.lockfree.monitor.PipelineTelemetrySampler;
+import com.hft.lockfree.util.MarketSimulator;
+import com.hft.lockfree.util.NanoClock;
+import com.hft.lockfree.util.PriceDataGenerator;
+import com.hft.lockfree.util.SingleWriterCounter;
 import com.lmax.disruptor.*;
 import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.dsl.ProducerType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * 无锁价格引擎
@@ -19,8 +38,16 @@ import java.util.concurrent.atomic.AtomicLong;
  * 核心特性：
  * 1. 基于LMAX Disruptor的无锁架构
  * 2. 单写多读模式，避免锁竞争
- * 3. 事件处理链模式：验证 -> 聚合 -> 分发
+ * 3. 事件处理链模式：序列检查 -> 验证 -> 聚合 -> 分发
  * 4. 高性能：支持100万TPS，延迟<10μs
+ * 5. 可选堆外环形缓冲区：槽位为direct内存中的定长记录，适合超大缓冲区
+ * 6. 按序列号抽样记录各阶段时间戳，分阶段延迟见DistributionHandler.getStageLatencies
+ * 7. 内置JIT预热：合成事件带FLAG_WARMUP走完整处理链，只更新影子状态，不分发
+ * 8. 可选启动预触碰：固定品种集合时预先分配价格簿快照，逐页触碰环形缓冲区和映射文件
+ * 9. 可选定点价格：发布时换算为价位数，验证、变化抑制按整数比较，double只在发布和查询边界使用
+ * 10. 报价和成交共用一个环形缓冲区，按事件类型在处理器内分支
+ * 11. 可替换的处理器时钟：批次缓存或专用线程刷新，处理器读时间只是一次内存读
+ * 12. 可选品种注册表：运行中增删品种，发布时写入品种编号，聚合按编号索引预分配的快照
  */
 public class LockFreePriceEngine {
     
@@ -30,18 +57,61 @@ public class LockFreePriceEngine {
     private static final int DEFAULT_RING_BUFFER_SIZE = 64 * 1024; // 64K，必须是2的幂
     private static final WaitStrategy DEFAULT_WAIT_STRATEGY = new YieldingWaitStrategy();
     
-    // 核心组件
-    private final Disruptor<PriceEvent> disruptor;
-    private final RingBuffer<PriceEvent> ringBuffer;
+    // 阶段时间戳抽样：每1024个事件一个，每个抽样事件多4次nanoTime
+    public static final int DEFAULT_STAGE_TIMING_INTERVAL = 1024;
+    
+    // JIT预热：每轮事件数、最多轮数、连续多少轮没有新的编译耗时视为稳定
+    public static final int DEFAULT_WARM_UP_EVENTS_PER_ROUND = 20_000;
+    public static final int DEFAULT_WARM_UP_MAX_ROUNDS = 100;
+    private static final int WARM_UP_SETTLED_ROUNDS = 3;
+    private static final int WARM_UP_BATCH_SIZE = 64;
+    private static final int WARM_UP_SOURCE_ID = 1;
+    
+    // 核心组件：堆内模式使用Disruptor DSL，堆外模式直接在Sequencer上创建处理器
+    private final Disruptor<PriceEvent> disruptor;              // 堆外模式为null
+    private final OffHeapPriceRing offHeapRing;                 // 堆内模式为null
+    private final List<BatchEventProcessor<PriceEvent>> offHeapProcessors;
+    private final Map<PriceEventHandler, Sequence> offHeapSequences = new IdentityHashMap<>();
+    private final List<Thread> offHeapThreads = new ArrayList<>();
+    private final ThreadFactory threadFactory;
+    
+    // 生产者视图：RingBuffer或Sequencer，以及用于写入事件的DataProvider
+    private final Sequenced sequenced;
+    private final Cursored cursored;
+    private final DataProvider<PriceEvent> producerView;
     
     // 事件处理器
+    private final SequenceGapHandler sequenceGapHandler;
     private final ValidationHandler validationHandler;
     private final AggregationHandler aggregationHandler;
     private final DistributionHandler distributionHandler;
     
+    // 处理链拓扑
+    private final PipelineTopology topology;
+    
+    // 遥测采样器（可选）
+    private volatile PipelineTelemetrySampler telemetrySampler;
+    
     // 状态管理
     private final AtomicBoolean running = new AtomicBoolean(false);
-    private final AtomicLong publishedEvents = new AtomicLong(0);
+    private final SingleWriterCounter publishedEvents = new SingleWriterCounter(); // 单生产者写入
+    
+    // 阶段时间戳抽样（0表示关闭）
+    private final int stageTimingInterval;
+    private final long stageTimingMask;
+    
+    // 启动后是否立即预热，预热事件的数据源序列号（生产者线程访问）
+    private final boolean warmUpOnStart;
+    private long warmUpSourceSequence;
+    
+    // 启动预触碰的品种集合（null表示不预触碰）
+    private final String[] preTouchSymbols;
+    
+    // 定点价格刻度（null表示只使用double价格）
+    private final TickScale tickScale;
+    
+    // 品种注册表（null表示品种在首个报价时隐式加入）
+    private final SymbolRegistry symbolRegistry;
     
     /**
      * 构造函数 - 使用默认配置
@@ -56,41 +126,103 @@ public class LockFreePriceEngine {
      * @param waitStrategy 等待策略
      */
     public LockFreePriceEngine(int ringBufferSize, WaitStrategy waitStrategy) {
+        this(builder().ringBufferSize(ringBufferSize).waitStrategy(waitStrategy));
+    }
+    
+    /**
+     * 构造函数 - 由Builder创建
+     */
+    private LockFreePriceEngine(Builder builder) {
+        int ringBufferSize = builder.ringBufferSize;
+        WaitStrategy waitStrategy = builder.waitStrategy;
+        
         // 验证ringBufferSize是2的幂
         if ((ringBufferSize & (ringBufferSize - 1)) != 0) {
             throw new IllegalArgumentException("Ring buffer size must be a power of 2");
         }
+        if (builder.stageTimingInterval < 0 || (builder.stageTimingInterval & (builder.stageTimingInterval - 1)) != 0) {
+            throw new IllegalArgumentException("Stage timing interval must be 0 or a power of 2");
+        }
+        this.stageTimingInterval = builder.stageTimingInterval;
+        this.stageTimingMask = stageTimingInterval - 1L;
+        this.warmUpOnStart = builder.warmUpOnStart;
+        this.preTouchSymbols = builder.preTouchSymbols;
+        this.tickScale = builder.tickScale;
+        this.symbolRegistry = builder.symbolRegistry;
         
         // 创建事件处理器
-        this.validationHandler = new ValidationHandler();
-        this.aggregationHandler = new AggregationHandler();
+        this.sequenceGapHandler = new SequenceGapHandler();
+        this.validationHandler = new ValidationHandler(new DeadLetterRing("validation",
+                builder.deadLetterCapacity, builder.deadLetterSink));
+        validationHandler.setClock(builder.clock.get());
+        this.aggregationHandler = preTouchSymbols != null
+                ? new AggregationHandler(Math.max(16, preTouchSymbols.length * 2)) : new AggregationHandler();
+        aggregationHandler.setChangeSuppression(builder.changeSuppression);
+        aggregationHandler.setSharedPriceTable(builder.sharedPriceTable);
+        if (preTouchSymbols != null) {
+            aggregationHandler.reserveSymbols(preTouchSymbols);
+        }
+        if (symbolRegistry != null) {
+            validationHandler.setSymbolRegistry(symbolRegistry);
+            aggregationHandler.setSymbolRegistry(symbolRegistry);
+        }
         this.distributionHandler = new DistributionHandler();
+        distributionHandler.setClock(builder.clock.get());
         
-        // 创建线程工厂
-        ThreadFactory threadFactory = new PriceEngineThreadFactory();
-        
-        // 创建Disruptor
-        this.disruptor = new Disruptor<>(
-                PriceEvent::new,           // 事件工厂
-                ringBufferSize,            // 缓冲区大小
-                threadFactory,             // 线程工厂
-                ProducerType.SINGLE,       // 单生产者模式
-                waitStrategy               // 等待策略
-        );
-        
-        // 配置事件处理链：验证 -> 聚合 -> 分发
-        disruptor.handleEventsWith(validationHandler)
-                .then(aggregationHandler)
-                .then(distributionHandler);
+        // 构建处理链拓扑：序列检查 -> 验证 -> 聚合 -> 分发，再叠加自定义阶段
+        this.topology = builder.buildTopology(
+                sequenceGapHandler, validationHandler, aggregationHandler, distributionHandler);
         
-        // 配置异常处理器
-        disruptor.setDefaultExceptionHandler(new PriceEngineExceptionHandler());
+        // 创建线程工厂
+        this.threadFactory = new PriceEngineThreadFactory();
         
-        // 获取RingBuffer引用
-        this.ringBuffer = disruptor.getRingBuffer();
+        if (builder.offHeap) {
+            // 堆外模式：定长记录 + 每个处理器独立的享元
+            this.disruptor = null;
+            this.offHeapRing = new OffHeapPriceRing(ringBufferSize, waitStrategy);
+            Sequencer sequencer = offHeapRing.getSequencer();
+            this.offHeapProcessors = topology.createProcessors(
+                    sequencer, offHeapRing::newDataProvider, new PriceEngineExceptionHandler());
+            for (int i = 0; i < offHeapProcessors.size(); i++) {
+                offHeapSequences.put(topology.getStages().get(i).handler(), offHeapProcessors.get(i).getSequence());
+            }
+            this.sequenced = sequencer;
+            this.cursored = sequencer;
+            this.producerView = offHeapRing.newDataProvider();
+        } else {
+            // 创建Disruptor
+            this.disruptor = new Disruptor<>(
+                    PriceEvent::new,           // 事件工厂
+                    ringBufferSize,            // 缓冲区大小
+                    threadFactory,             // 线程工厂
+                    ProducerType.SINGLE,       // 单生产者模式
+                    waitStrategy               // 等待策略
+            );
+            
+            // 按拓扑注册处理器组
+            topology.wire(disruptor);
+            
+            // 配置异常处理器
+            disruptor.setDefaultExceptionHandler(new PriceEngineExceptionHandler());
+            
+            // 获取RingBuffer引用
+            RingBuffer<PriceEvent> ringBuffer = disruptor.getRingBuffer();
+            this.offHeapRing = null;
+            this.offHeapProcessors = List.of();
+            this.sequenced = ringBuffer;
+            this.cursored = ringBuffer;
+            this.producerView = ringBuffer;
+        }
         
-        logger.info("LockFreePriceEngine created with ringBufferSize={}, waitStrategy={}", 
-                ringBufferSize, waitStrategy.getClass().getSimpleName());
+        logger.info("LockFreePriceEngine created with ringBufferSize={}, waitStrategy={}, offHeap={}, topology={}", 
+                ringBufferSize, waitStrategy.getClass().getSimpleName(), builder.offHeap, topology);
+    }
+    
+    /**
+     * 创建引擎构建器
+     */
+    public static Builder builder() {
+        return new Builder();
     }
     
     /**
@@ -101,19 +233,60 @@ public class LockFreePriceEngine {
             logger.info("Starting LockFreePriceEngine...");
             
             // 初始化处理器
-            validationHandler.initialize();
-            aggregationHandler.initialize();
-            distributionHandler.initialize();
+            for (PipelineTopology.Stage stage : topology.getStages()) {
+                stage.handler().initialize();
+            }
+            
+            // 处理器线程启动前预触碰，此时没有任何线程访问槽位
+            if (preTouchSymbols != null) {
+                preTouch();
+            }
             
-            // 启动Disruptor
-            disruptor.start();
+            // 启动Disruptor（堆外模式直接启动处理器线程）
+            if (disruptor != null) {
+                disruptor.start();
+            } else {
+                for (BatchEventProcessor<PriceEvent> processor : offHeapProcessors) {
+                    Thread thread = threadFactory.newThread(processor);
+                    offHeapThreads.add(thread);
+                    thread.start();
+                }
+            }
             
             logger.info("LockFreePriceEngine started successfully");
+            
+            if (warmUpOnStart) {
+                warmUp();
+            }
         } else {
             logger.warn("LockFreePriceEngine is already running");
         }
     }
     
+    /**
+     * 预触碰环形缓冲区的全部槽位和共享内存价格表，首批行情不再承担缺页和缓存未命中
+     */
+    private void preTouch() {
+        long startTime = System.nanoTime();
+        long pages = 0;
+        if (offHeapRing != null) {
+            pages += offHeapRing.preTouch(preTouchSymbols);
+        } else {
+            // 堆内槽位在构造时已分配，逐个写一遍使其进入缓存和TLB
+            RingBuffer<PriceEvent> ringBuffer = disruptor.getRingBuffer();
+            for (int i = 0; i < ringBuffer.getBufferSize(); i++) {
+                ringBuffer.get(i).reset();
+            }
+        }
+        SharedPriceTableWriter sharedPriceTable = aggregationHandler.getSharedPriceTable();
+        if (sharedPriceTable != null) {
+            pages += sharedPriceTable.preTouch();
+        }
+        logger.info("Pre-touched {} ring slots, {} mapped pages and {} symbols in {}ms",
+                sequenced.getBufferSize(), pages, preTouchSymbols.length,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    }
+    
     /**
      * 停止价格引擎
      */
@@ -122,13 +295,26 @@ public class LockFreePriceEngine {
             logger.info("Shutting down LockFreePriceEngine...");
             
             try {
-                // 停止Disruptor
-                disruptor.shutdown();
+                // 停止遥测采样
+                stopTelemetry();
+                
+                // 停止Disruptor（等待积压事件处理完毕）
+                if (disruptor != null) {
+                    // Disruptor.shutdown()只检查已经运行的处理器，刚启动时线程可能尚未运行，
+                    // 积压会被直接丢弃；先等末端处理器追上游标
+                    RingBuffer<PriceEvent> ringBuffer = disruptor.getRingBuffer();
+                    while (ringBuffer.getMinimumGatingSequence() < ringBuffer.getCursor()) {
+                        Thread.yield();
+                    }
+                    disruptor.shutdown();
+                } else {
+                    shutdownOffHeapProcessors();
+                }
                 
                 // 关闭处理器
-                validationHandler.shutdown();
-                aggregationHandler.shutdown();
-                distributionHandler.shutdown();
+                for (PipelineTopology.Stage stage : topology.getStages()) {
+                    stage.handler().shutdown();
+                }
                 
                 logger.info("LockFreePriceEngine shutdown completed");
             } catch (Exception e) {
@@ -139,6 +325,23 @@ public class LockFreePriceEngine {
         }
     }
     
+    /**
+     * 堆外模式停止：等待末端处理器追上游标，然后停止全部处理器线程
+     */
+    private void shutdownOffHeapProcessors() throws InterruptedException {
+        Sequencer sequencer = offHeapRing.getSequencer();
+        while (sequencer.getMinimumSequence() < sequencer.getCursor()) {
+            Thread.yield();
+        }
+        for (BatchEventProcessor<PriceEvent> processor : offHeapProcessors) {
+            processor.halt();
+        }
+        for (Thread thread : offHeapThreads) {
+            thread.join(1000);
+        }
+        offHeapThreads.clear();
+    }
+    
     /**
      * 发布价格事件
      * @param symbol 交易品种
@@ -159,6 +362,21 @@ public class LockFreePriceEngine {
      * @return true表示发布成功
      */
     public boolean publishPrice(String symbol, double bidPrice, double askPrice, long timestamp) {
+        return publishPrice(symbol, bidPrice, askPrice, timestamp, 0, 0L);
+    }
+    
+    /**
+     * 发布价格事件（带数据源序列号）
+     * @param symbol 交易品种
+     * @param bidPrice 买入价
+     * @param askPrice 卖出价
+     * @param timestamp 时间戳
+     * @param sourceId 数据源ID
+     * @param sourceSequence 数据源自身序列号（0表示不做序列检查）
+     * @return true表示发布成功
+     */
+    public boolean publishPrice(String symbol, double bidPrice, double askPrice, long timestamp,
+                                int sourceId, long sourceSequence) {
         if (!running.get()) {
             logger.warn("Cannot publish price: engine is not running");
             return false;
@@ -166,21 +384,143 @@ public class LockFreePriceEngine {
         
         try {
             // 获取下一个序列号
-            long sequence = ringBuffer.next();
+            long sequence = sequenced.next();
             
             try {
                 // 获取事件对象
-                PriceEvent event = ringBuffer.get(sequence);
+                PriceEvent event = producerView.get(sequence);
                 
                 // 设置事件数据
                 event.setPriceData(symbol, bidPrice, askPrice, timestamp);
+                event.setSymbolId(symbolIdOf(symbol));
+                event.setSource(sourceId, sourceSequence);
                 event.setSequence(sequence);
+                event.setFlags(0);
+                if (tickScale != null) {
+                    setFixedPoint(event, symbol, bidPrice, askPrice);
+                }
+                if (isTimingSample(sequence)) {
+                    event.startTiming(System.nanoTime());
+                }
                 
-                publishedEvents.incrementAndGet();
+                publishedEvents.increment();
                 
             } finally {
                 // 发布事件
-                ringBuffer.publish(sequence);
+                sequenced.publish(sequence);
+            }
+            
+            return true;
+            
+        } catch (Exception e) {
+            logger.error("Error publishing price for {}: {}", symbol, e.getMessage(), e);
+            return false;
+        }
+    }
+    
+    /**
+     * 发布成交事件
+     * @param symbol 交易品种
+     * @param price 成交价
+     * @param volume 成交量
+     * @return true表示发布成功
+     */
+    public boolean publishTrade(String symbol, double price, double volume) {
+        return publishTrade(symbol, price, volume, System.nanoTime(), 0, 0L);
+    }
+    
+    /**
+     * 发布成交事件（带数据源序列号）
+     * 
+     * 成交与报价共用数据源序列号空间，同一数据源的报价和成交一起做序列检查。
+     * 成交只更新价格簿的成交统计，不改变买卖价，总是分发给订阅者。
+     * 
+     * @param symbol 交易品种
+     * @param price 成交价
+     * @param volume 成交量
+     * @param timestamp 时间戳
+     * @param sourceId 数据源ID
+     * @param sourceSequence 数据源自身序列号（0表示不做序列检查）
+     * @return true表示发布成功
+     */
+    public boolean publishTrade(String symbol, double price, double volume, long timestamp,
+                                int sourceId, long sourceSequence) {
+        if (!running.get()) {
+            logger.warn("Cannot publish trade: engine is not running");
+            return false;
+        }
+        
+        try {
+            long sequence = sequenced.next();
+            try {
+                PriceEvent event = producerView.get(sequence);
+                event.setTradeData(symbol, price, volume, timestamp);
+                event.setSymbolId(symbolIdOf(symbol));
+                event.setSource(sourceId, sourceSequence);
+                event.setSequence(sequence);
+                event.setFlags(0);
+                if (tickScale != null) {
+                    setFixedPoint(event, symbol, price, price);
+                }
+                if (isTimingSample(sequence)) {
+                    event.startTiming(System.nanoTime());
+                }
+                
+                publishedEvents.increment();
+            } finally {
+                sequenced.publish(sequence);
+            }
+            
+            return true;
+            
+        } catch (Exception e) {
+            logger.error("Error publishing trade for {}: {}", symbol, e.getMessage(), e);
+            return false;
+        }
+    }
+    
+    /**
+     * 发布定点价格事件（需要配置TickScale）
+     * 
+     * 价位数原样进入处理链，double价格按品种最小变动价位换算一次，供查询和订阅者使用。
+     * @param symbol 交易品种
+     * @param bidTicks 买入价价位数
+     * @param askTicks 卖出价价位数
+     * @param timestamp 时间戳
+     * @param sourceId 数据源ID
+     * @param sourceSequence 数据源自身序列号（0表示不做序列检查）
+     * @return true表示发布成功
+     * @throws IllegalStateException 引擎没有配置定点价格
+     */
+    public boolean publishPriceTicks(String symbol, long bidTicks, long askTicks, long timestamp,
+                                     int sourceId, long sourceSequence) {
+        if (tickScale == null) {
+            throw new IllegalStateException("Fixed-point prices are not enabled");
+        }
+        if (!running.get()) {
+            logger.warn("Cannot publish price: engine is not running");
+            return false;
+        }
+        
+        try {
+            long sequence = sequenced.next();
+            try {
+                PriceEvent event = producerView.get(sequence);
+                double tickSize = tickScale.getTickSize(symbol);
+                event.setPriceData(symbol, TickScale.toPrice(bidTicks, tickSize),
+                        TickScale.toPrice(askTicks, tickSize), timestamp);
+                event.setSymbolId(symbolIdOf(symbol));
+                event.setSource(sourceId, sourceSequence);
+                event.setSequence(sequence);
+                event.setFlags(0);
+                event.setFixedPoint(bidTicks, askTicks, tickSize);
+                if (isTimingSample(sequence)) {
+                    event.startTiming(System.nanoTime());
+                }
+                
+                publishedEvents.increment();
+            } finally {
+                sequenced.publish(sequence);
             }
             
             return true;
@@ -191,6 +531,201 @@ public class LockFreePriceEngine {
         }
     }
     
+    /**
+     * 品种编号（发布边界查询一次注册表，无锁）
+     */
+    private int symbolIdOf(String symbol) {
+        return symbolRegistry != null ? symbolRegistry.idOf(symbol) : SymbolRegistry.NO_SYMBOL;
+    }
+    
+    /**
+     * double价格换算为价位数（发布边界，每个事件一次）
+     * 
+     * 不在价位上的价格四舍五入到最近的价位，double价格同时改写为价位对应的价格，
+     * 处理链、价格簿和订阅者看到的double与价位数始终一致（一个价位内交叉的报价按价位数验证）。
+     */
+    private void setFixedPoint(PriceEvent event, String symbol, double bidPrice, double askPrice) {
+        double tickSize = tickScale.getTickSize(symbol);
+        long bidTicks = TickScale.toTicks(bidPrice, tickSize);
+        long askTicks = TickScale.toTicks(askPrice, tickSize);
+        event.setBidPrice(TickScale.toPrice(bidTicks, tickSize));
+        event.setAskPrice(TickScale.toPrice(askTicks, tickSize));
+        event.setFixedPoint(bidTicks, askTicks, tickSize);
+    }
+    
+    /**
+     * 按序列号抽样：与发布方式无关，抽样事件在环形缓冲区中均匀分布
+     */
+    private boolean isTimingSample(long sequence) {
+        return stageTimingInterval > 0 && (sequence & stageTimingMask) == 0;
+    }
+    
+    /**
+     * 批量发布价格事件
+     * 
+     * 一次申请一段连续序列号（next(n)），填充后一次发布（publish(lo, hi)），
+     * 分摊每个事件的序列申请和发布开销。超过缓冲区大小的批次自动拆分。
+     * 
+     * @param symbols 交易品种
+     * @param bidPrices 买入价
+     * @param askPrices 卖出价
+     * @param timestamps 时间戳（null表示使用每个分段发布时的当前时间）
+     * @param offset 数组起始下标
+     * @param length 事件数量
+     * @return 实际发布的事件数量
+     */
+    public int publishPrices(String[] symbols, double[] bidPrices, double[] askPrices, long[] timestamps,
+                             int offset, int length) {
+        if (!running.get()) {
+            logger.warn("Cannot publish prices: engine is not running");
+            return 0;
+        }
+        return publishBatch(symbols, bidPrices, askPrices, timestamps, offset, length, false);
+    }
+    
+    /**
+     * 批量发布（正式事件或预热事件）
+     * @param warmUp true表示预热事件：带FLAG_WARMUP和预热数据源序列号，不计入发布数，不抽样计时
+     */
+    private int publishBatch(String[] symbols, double[] bidPrices, double[] askPrices, long[] timestamps,
+                             int offset, int length, boolean warmUp) {
+        int published = 0;
+        int maxBatch = sequenced.getBufferSize();
+        try {
+            while (published < length) {
+                int n = Math.min(length - published, maxBatch);
+                long hi = sequenced.next(n);
+                long lo = hi - n + 1;
+                long now = timestamps == null ? System.nanoTime() : 0L;
+                
+                try {
+                    for (long sequence = lo; sequence <= hi; sequence++) {
+                        int i = offset + published + (int) (sequence - lo);
+                        PriceEvent event = producerView.get(sequence);
+                        event.setPriceData(symbols[i], bidPrices[i], askPrices[i],
+                                timestamps == null ? now : timestamps[i]);
+                        event.setSymbolId(symbolIdOf(symbols[i]));
+                        event.setSequence(sequence);
+                        if (warmUp) {
+                            event.setSource(WARM_UP_SOURCE_ID, ++warmUpSourceSequence);
+                            event.setFlags(PriceEvent.FLAG_WARMUP);
+                        } else {
+                            event.setSource(0, 0L);
+                            event.setFlags(0);
+                            if (isTimingSample(sequence)) {
+                                event.startTiming(System.nanoTime());
+                            }
+                        }
+                        if (tickScale != null) {
+                            setFixedPoint(event, symbols[i], bidPrices[i], askPrices[i]);
+                        }
+                    }
+                    if (!warmUp) {
+                        publishedEvents.add(n);
+                    }
+                } finally {
+                    sequenced.publish(lo, hi);
+                }
+                published += n;
+            }
+        } catch (Exception e) {
+            logger.error("Error publishing price batch: {}", e.getMessage(), e);
+        }
+        return published;
+    }
+    
+    /**
+     * 使用默认参数预热
+     * @see #warmUp(int, int)
+     */
+    public WarmUpReport warmUp() {
+        return warmUp(DEFAULT_WARM_UP_EVENTS_PER_ROUND, DEFAULT_WARM_UP_MAX_ROUNDS);
+    }
+    
+    /**
+     * JIT预热：按轮发布合成行情，直到热点方法的编译稳定
+     * 
+     * 预热事件带FLAG_WARMUP，与正式事件走同一条发布路径和处理器代码，但只更新
+     * 各处理器的影子状态：不进入价格簿、不计入统计、不写死信；分发处理器对空订阅者数组
+     * 执行分发和批次提交，订阅者收不到预热事件。
+     * 每轮结束后等待处理链排空，再读取JIT累计编译耗时；连续几轮没有新增编译
+     * 即认为C2编译已稳定。
+     * 
+     * 与publishPrice一样只能由生产者线程调用（单生产者），一般在开盘前调用一次。
+     * 
+     * @param eventsPerRound 每轮预热事件数
+     * @param maxRounds 最多轮数（编译一直未稳定时到此为止）
+     * @return 预热结果
+     */
+    public WarmUpReport warmUp(int eventsPerRound, int maxRounds) {
+        if (!running.get()) {
+            throw new IllegalStateException("Engine is not running");
+        }
+        if (eventsPerRound <= 0 || maxRounds <= 0) {
+            throw new IllegalArgumentException("Warm-up events per round and rounds must be positive");
+        }
+        
+        CompilationMXBean compilation = ManagementFactory.getCompilationMXBean();
+        boolean monitored = compilation != null && compilation.isCompilationTimeMonitoringSupported();
+        long compilationStart = monitored ? compilation.getTotalCompilationTime() : -1;
+        long startTime = System.nanoTime();
+        
+        MarketSimulator simulator = PriceDataGenerator.createSimulator(System.nanoTime());
+        String[] symbols = new String[WARM_UP_BATCH_SIZE];
+        double[] bidPrices = new double[WARM_UP_BATCH_SIZE];
+        double[] askPrices = new double[WARM_UP_BATCH_SIZE];
+        
+        long events = 0;
+        int rounds = 0;
+        int quietRounds = 0;
+        long lastCompilation = compilationStart;
+        while (rounds < maxRounds && quietRounds < WARM_UP_SETTLED_ROUNDS && running.get()) {
+            for (int remaining = eventsPerRound; remaining > 0; remaining -= WARM_UP_BATCH_SIZE) {
+                int n = Math.min(remaining, WARM_UP_BATCH_SIZE);
+                simulator.fill(symbols, bidPrices, askPrices, 0, n);
+                events += publishBatch(symbols, bidPrices, askPrices, null, 0, n, true);
+            }
+            awaitDrained();
+            rounds++;
+            
+            if (monitored) {
+                long total = compilation.getTotalCompilationTime();
+                quietRounds = total == lastCompilation ? quietRounds + 1 : 0;
+                lastCompilation = total;
+            }
+        }
+        
+        WarmUpReport report = new WarmUpReport(events, rounds,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime),
+                monitored ? lastCompilation - compilationStart : -1,
+                quietRounds >= WARM_UP_SETTLED_ROUNDS);
+        if (report.settled()) {
+            logger.info("JIT warm-up settled: {}", report);
+        } else {
+            logger.warn("JIT warm-up finished without settling: {}", report);
+        }
+        return report;
+    }
+    
+    /**
+     * 等待所有处理器处理完已发布的事件
+     */
+    private void awaitDrained() {
+        long cursor = cursored.getCursor();
+        for (PipelineTopology.Stage stage : topology.getStages()) {
+            while (getHandlerSequence(stage.handler()) < cursor && running.get()) {
+                Thread.yield();
+            }
+        }
+    }
+    
+    /**
+     * 获取序列检查处理器（用于查询缺口统计、设置缺口监听器）
+     */
+    public SequenceGapHandler getSequenceGapHandler() {
+        return sequenceGapHandler;
+    }
+    
     /**
      * 获取聚合处理器（用于查询价格）
      */
@@ -198,6 +733,84 @@ public class LockFreePriceEngine {
         return aggregationHandler;
     }
     
+    /**
+     * 获取品种注册表（未配置时为null），运行中通过它增删品种
+     */
+    public SymbolRegistry getSymbolRegistry() {
+        return symbolRegistry;
+    }
+    
+    /**
+     * 获取处理器当前已处理到的序列号
+     */
+    public long getHandlerSequence(PriceEventHandler handler) {
+        if (disruptor != null) {
+            return disruptor.getSequenceValueFor(handler);
+        }
+        Sequence sequence = offHeapSequences.get(handler);
+        if (sequence == null) {
+            throw new IllegalArgumentException("Handler is not part of this engine: " + handler.getHandlerName());
+        }
+        return sequence.get();
+    }
+    
+    /**
+     * 是否使用堆外环形缓冲区
+     */
+    public boolean isOffHeap() {
+        return offHeapRing != null;
+    }
+    
+    /**
+     * 获取分发处理器（用于查询分发统计）
+     */
+    public DistributionHandler getDistributionHandler() {
+        return distributionHandler;
+    }
+    
+    /**
+     * 订阅价格更新（回调在分发线程中执行）
+     */
+    public void subscribe(PriceSubscriber subscriber) {
+        distributionHandler.subscribe(subscriber);
+    }
+    
+    /**
+     * 以邮箱模式订阅：回调在订阅者自己的虚拟线程中执行，可以阻塞，不拖慢分发线程
+     * @param capacity 邮箱容量（2的幂），邮箱满时丢弃新事件并计入溢出
+     * @return 邮箱订阅者（用于查询投递统计和取消订阅）
+     */
+    public MailboxSubscriber subscribeAsync(PriceSubscriber subscriber, int capacity) {
+        return distributionHandler.subscribeAsync(subscriber, capacity);
+    }
+    
+    /**
+     * 中途加入：先收到与序列号对齐的完整价格簿快照，再从快照之后的事件起接收增量
+     * 
+     * 快照在聚合线程处理完下一个批次时生成；引擎空闲时等到下一个事件到达。
+     */
+    public void subscribeWithSnapshot(SnapshotSubscriber subscriber) {
+        if (subscriber == null) {
+            throw new IllegalArgumentException("Subscriber must not be null");
+        }
+        aggregationHandler.requestSnapshot(snapshot -> distributionHandler.addLateJoiner(subscriber, snapshot));
+    }
+    
+    /**
+     * 取消订阅
+     * @return true表示订阅者存在并已移除
+     */
+    public boolean unsubscribe(PriceSubscriber subscriber) {
+        return distributionHandler.unsubscribe(subscriber);
+    }
+    
+    /**
+     * 获取处理链拓扑
+     */
+    public PipelineTopology getTopology() {
+        return topology;
+    }
+    
     /**
      * 检查引擎是否运行中
      */
@@ -216,8 +829,8 @@ public class LockFreePriceEngine {
      * 获取RingBuffer使用情况
      */
     public String getRingBufferStatus() {
-        long remainingCapacity = ringBuffer.remainingCapacity();
-        long bufferSize = ringBuffer.getBufferSize();
+        long remainingCapacity = sequenced.remainingCapacity();
+        long bufferSize = sequenced.getBufferSize();
         long usedCapacity = bufferSize - remainingCapacity;
         double usagePercentage = (double) usedCapacity / bufferSize * 100;
         
@@ -225,27 +838,266 @@ public class LockFreePriceEngine {
                 bufferSize, usedCapacity, usagePercentage, remainingCapacity);
     }
     
+    /**
+     * 启动处理链遥测采样（游标、各阶段序列号与lag），并通过JMX暴露
+     * @param interval 采样间隔
+     * @param unit 时间单位
+     * @return 遥测采样器
+     */
+    public synchronized PipelineTelemetrySampler startTelemetry(long interval, TimeUnit unit) {
+        stopTelemetry();
+        
+        List<PipelineTelemetrySampler.Stage> stages = new ArrayList<>();
+        for (PipelineTopology.Stage stage : topology.getStages()) {
+            int[] upstream = stage.dependencies().stream().mapToInt(topology::indexOf).toArray();
+            PriceEventHandler handler = stage.handler();
+            stages.add(new PipelineTelemetrySampler.Stage(stage.name(),
+                    () -> getHandlerSequence(handler), upstream));
+        }
+        
+        PipelineTelemetrySampler sampler = new PipelineTelemetrySampler(
+                "PriceEngine@" + Integer.toHexString(System.identityHashCode(this)),
+                cursored::getCursor, sequenced.getBufferSize(), stages, interval, unit);
+        sampler.start();
+        this.telemetrySampler = sampler;
+        return sampler;
+    }
+    
+    /**
+     * 停止遥测采样
+     */
+    public synchronized void stopTelemetry() {
+        PipelineTelemetrySampler sampler = telemetrySampler;
+        if (sampler != null) {
+            sampler.stop();
+            telemetrySampler = null;
+        }
+    }
+    
+    /**
+     * 获取遥测采样器（未启动时返回null）
+     */
+    public PipelineTelemetrySampler getTelemetrySampler() {
+        return telemetrySampler;
+    }
+    
     /**
      * 获取引擎统计信息
      */
     public String getStatistics() {
-        return String.format("LockFreePriceEngine[running=%s, published=%d]\n%s\n%s\n%s\n%s", 
-                running.get(), 
-                publishedEvents.get(),
-                validationHandler.getStatistics(),
-                aggregationHandler.getStatistics(),
-                distributionHandler.getStatistics(),
-                getRingBufferStatus());
+        StringBuilder sb = new StringBuilder(512);
+        sb.append(String.format("LockFreePriceEngine[running=%s, published=%d]", 
+                running.get(), publishedEvents.get()));
+        for (PipelineTopology.Stage stage : topology.getStages()) {
+            sb.append('\n').append(stage.handler().getStatistics());
+        }
+        sb.append('\n').append(distributionHandler.getStageLatencies().getStatistics());
+        sb.append('\n').append(getDeadLetterRing().getStatistics());
+        sb.append('\n').append(getRingBufferStatus());
+        return sb.toString();
+    }
+    
+    /**
+     * 获取验证失败事件的死信缓冲区
+     */
+    public DeadLetterRing getDeadLetterRing() {
+        return validationHandler.getDeadLetterRing();
     }
     
     /**
      * 重置统计信息
      */
     public void resetStatistics() {
-        publishedEvents.set(0);
-        validationHandler.resetStatistics();
-        aggregationHandler.resetStatistics();
-        distributionHandler.resetStatistics();
+        publishedEvents.reset();
+        for (PipelineTopology.Stage stage : topology.getStages()) {
+            stage.handler().resetStatistics();
+        }
+    }
+    
+    /**
+     * 引擎构建器
+     * 
+     * 内置阶段固定为 sequencing -> validation -> aggregation -> distribution，
+     * 可以追加自定义阶段（并行兄弟），或为已有阶段追加依赖形成汇合点：
+     * <pre>
+     * LockFreePriceEngine engine = LockFreePriceEngine.builder()
+     *         .stage("journal", journalHandler, PipelineTopology.VALIDATION)
+     *         .stage("analytics", analyticsHandler, PipelineTopology.VALIDATION)
+     *         .dependsOn(PipelineTopology.DISTRIBUTION, "journal")
+     *         .build();
+     * </pre>
+     */
+    public static final class Builder {
+        private int ringBufferSize = DEFAULT_RING_BUFFER_SIZE;
+        private WaitStrategy waitStrategy = DEFAULT_WAIT_STRATEGY;
+        private boolean offHeap = false;
+        private int deadLetterCapacity = DeadLetterRing.DEFAULT_CAPACITY;
+        private DeadLetterSink deadLetterSink = DeadLetterRing.loggingSink();
+        private ChangeSuppression changeSuppression;
+        private SharedPriceTableWriter sharedPriceTable;
+        private int stageTimingInterval = DEFAULT_STAGE_TIMING_INTERVAL;
+        private boolean warmUpOnStart = false;
+        private String[] preTouchSymbols;
+        private TickScale tickScale;
+        private Supplier<NanoClock> clock = NanoClock::system;
+        private SymbolRegistry symbolRegistry;
+        private final List<PipelineTopology.Stage> extraStages = new ArrayList<>();
+        private final List<String[]> extraDependencies = new ArrayList<>();
+        
+        private Builder() {
+        }
+        
+        /**
+         * 环形缓冲区大小（必须是2的幂）
+         */
+        public Builder ringBufferSize(int ringBufferSize) {
+            this.ringBufferSize = ringBufferSize;
+            return this;
+        }
+        
+        /**
+         * 等待策略
+         */
+        public Builder waitStrategy(WaitStrategy waitStrategy) {
+            this.waitStrategy = waitStrategy;
+            return this;
+        }
+        
+        /**
+         * 是否使用堆外环形缓冲区（槽位为direct内存中的定长记录，适合超大缓冲区）
+         */
+        public Builder offHeap(boolean offHeap) {
+            this.offHeap = offHeap;
+            return this;
+        }
+        
+        /**
+         * 死信缓冲区容量（必须是2的幂），满时丢弃新的死信并计数
+         */
+        public Builder deadLetterCapacity(int deadLetterCapacity) {
+            this.deadLetterCapacity = deadLetterCapacity;
+            return this;
+        }
+        
+        /**
+         * 死信消费者（在后台线程调用），默认记录warn日志
+         */
+        public Builder deadLetterSink(DeadLetterSink deadLetterSink) {
+            this.deadLetterSink = deadLetterSink;
+            return this;
+        }
+        
+        /**
+         * 最优报价变化抑制：变化不足的事件不再分发给订阅者，默认关闭
+         */
+        public Builder changeSuppression(ChangeSuppression changeSuppression) {
+            this.changeSuppression = changeSuppression;
+            return this;
+        }
+        
+        /**
+         * 把价格簿镜像到共享内存最新价格表（文件由调用方创建和关闭），默认不镜像
+         */
+        public Builder sharedPriceTable(SharedPriceTableWriter sharedPriceTable) {
+            this.sharedPriceTable = sharedPriceTable;
+            return this;
+        }
+        
+        /**
+         * 阶段时间戳抽样间隔（2的幂，0表示关闭）：每interval个事件记录一次各阶段时间戳
+         */
+        public Builder stageTimingInterval(int stageTimingInterval) {
+            this.stageTimingInterval = stageTimingInterval;
+            return this;
+        }
+        
+        /**
+         * start()返回前在调用线程中执行warmUp()（该线程随后应作为唯一的生产者），默认关闭
+         */
+        public Builder warmUpOnStart(boolean warmUpOnStart) {
+            this.warmUpOnStart = warmUpOnStart;
+            return this;
+        }
+        
+        /**
+         * 启动时预触碰：预先分配给定品种的价格簿快照（和共享内存槽位），
+         * start()中在处理器线程启动前逐个触碰环形缓冲区槽位和映射文件页面，默认关闭
+         * @param symbols 固定的品种集合（可以为空，只触碰内存）
+         */
+        public Builder preTouch(String... symbols) {
+            this.preTouchSymbols = symbols.clone();
+            return this;
+        }
+        
+        /**
+         * 定点价格：发布时按品种最小变动价位换算为价位数（四舍五入），
+         * 验证和变化抑制按价位数比较；也可以用publishPriceTicks直接发布价位数。默认关闭
+         */
+        public Builder fixedPoint(TickScale tickScale) {
+            this.tickScale = tickScale;
+            return this;
+        }
+        
+        /**
+         * 处理器时钟：每个内置处理器调用一次supplier，默认System.nanoTime()。
+         * NanoClock::batchCached为每个处理器创建批次缓存时钟；
+         * 共享的UpdatingNanoClock由调用方启动和关闭（() -> clock）
+         */
+        public Builder clock(Supplier<NanoClock> clock) {
+            this.clock = clock;
+            return this;
+        }
+        
+        /**
+         * 品种注册表：品种在注册时预分配价格簿快照，运行中通过注册表增删，
+         * 未注册的品种被验证处理器拒绝。默认关闭（品种在首个报价时隐式加入）
+         */
+        public Builder symbolRegistry(SymbolRegistry symbolRegistry) {
+            this.symbolRegistry = symbolRegistry;
+            return this;
+        }
+        
+        /**
+         * 追加自定义处理阶段
+         * @param name 阶段名称
+         * @param handler 处理器
+         * @param dependsOn 上游阶段（可使用PipelineTopology中的内置阶段名称）
+         */
+        public Builder stage(String name, PriceEventHandler handler, String... dependsOn) {
+            extraStages.add(new PipelineTopology.Stage(name, handler, List.of(dependsOn)));
+            return this;
+        }
+        
+        /**
+         * 为阶段（内置或自定义）追加依赖
+         */
+        public Builder dependsOn(String stage, String... dependsOn) {
+            String[] entry = new String[dependsOn.length + 1];
+            entry[0] = stage;
+            System.arraycopy(dependsOn, 0, entry, 1, dependsOn.length);
+            extraDependencies.add(entry);
+            return this;
+        }
+        
+        public LockFreePriceEngine build() {
+            return new LockFreePriceEngine(this);
+        }
+        
+        private PipelineTopology buildTopology(SequenceGapHandler sequencing, ValidationHandler validation,
+                                               AggregationHandler aggregation, DistributionHandler distribution) {
+            PipelineTopology.Builder topology = PipelineTopology.builder()
+                    .stage(PipelineTopology.SEQUENCING, sequencing)
+                    .stage(PipelineTopology.VALIDATION, validation, PipelineTopology.SEQUENCING)
+                    .stage(PipelineTopology.AGGREGATION, aggregation, PipelineTopology.VALIDATION)
+                    .stage(PipelineTopology.DISTRIBUTION, distribution, PipelineTopology.AGGREGATION);
+            for (PipelineTopology.Stage stage : extraStages) {
+                topology.stage(stage.name(), stage.handler(), stage.dependencies().toArray(new String[0]));
+            }
+            for (String[] entry : extraDependencies) {
+                topology.dependsOn(entry[0], Arrays.copyOfRange(entry, 1, entry.length));
+            }
+            return topology.build();
+        }
     }
     
     /**
@@ -0,0 +1,259 @@
+package com.hft.lockfree.engine;
+
+import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.handler.PriceEventHandler;
+import com.lmax.disruptor.*;
+import com.lmax.disruptor.dsl.Disruptor;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * 处理链拓扑
+ *
+ * 以有向无环图（DAG）描述处理阶段及其依赖关系，支持：
+ * 1. 串行链：A -> B -> C
+ * 2. 并行兄弟：验证之后聚合、日志、分析同时消费
+ * 3. 汇合点（菱形）：某阶段等待多个上游全部完成
+ *
+ * 拓扑在build()时校验（名称重复、依赖缺失、环），
+ * 并按拓扑顺序映射为Disruptor的处理器组：依赖集合相同的阶段注册为同一组。
+ */
+public final class PipelineTopology {
+
+    // 引擎内置阶段名称
+    public static final String SEQUENCING = "sequencing";
+    public static final String VALIDATION = "validation";
+    public static final String AGGREGATION = "aggregation";
+    public static final String DISTRIBUTION = "distribution";
+
+    private final List<Stage> stages;
+    private final Map<String, Stage> stagesByName;
+
+    /**
+     * 处理阶段
+     * @param name 阶段名称
+     * @param handler 处理器
+     * @param dependencies 上游阶段名称（空表示直接消费生产者发布的事件）
+     */
+    public record Stage(String name, PriceEventHandler handler, List<String> dependencies) {
+    }
+
+    private PipelineTopology(List<Stage> stages) {
+        this.stages = List.copyOf(stages);
+        Map<String, Stage> byName = new LinkedHashMap<>();
+        for (Stage stage : stages) {
+            byName.put(stage.name(), stage);
+        }
+        this.stagesByName = Collections.unmodifiableMap(byName);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 按拓扑顺序返回所有阶段
+     */
+    public List<Stage> getStages() {
+        return stages;
+    }
+
+    /**
+     * 按名称查找阶段
+     */
+    public Stage getStage(String name) {
+        return stagesByName.get(name);
+    }
+
+    /**
+     * 阶段在拓扑顺序中的下标
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < stages.size(); i++) {
+            if (stages.get(i).name().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 将拓扑注册到Disruptor
+     *
+     * 按层推进：每一层中所有依赖已就绪的阶段，按依赖集合分组，
+     * 每组通过一次after(...).handleEventsWith(...)注册，组内阶段并行消费。
+     */
+    @SuppressWarnings("unchecked")
+    void wire(Disruptor<PriceEvent> disruptor) {
+        Set<String> wired = new HashSet<>();
+        while (wired.size() < stages.size()) {
+            Map<Set<String>, List<Stage>> groups = new LinkedHashMap<>();
+            for (Stage stage : stages) {
+                if (!wired.contains(stage.name()) && wired.containsAll(stage.dependencies())) {
+                    groups.computeIfAbsent(new HashSet<>(stage.dependencies()), k -> new ArrayList<>()).add(stage);
+                }
+            }
+            for (Map.Entry<Set<String>, List<Stage>> group : groups.entrySet()) {
+                EventHandler<PriceEvent>[] handlers = group.getValue().stream()
+                        .map(Stage::handler)
+                        .toArray(EventHandler[]::new);
+                if (group.getKey().isEmpty()) {
+                    disruptor.handleEventsWith(handlers);
+                } else {
+                    EventHandler<PriceEvent>[] barrier = group.getKey().stream()
+                            .map(name -> stagesByName.get(name).handler())
+                            .toArray(EventHandler[]::new);
+                    disruptor.after(barrier).handleEventsWith(handlers);
+                }
+                for (Stage stage : group.getValue()) {
+                    wired.add(stage.name());
+                }
+            }
+        }
+    }
+
+    /**
+     * 不经过Disruptor DSL，直接在Sequencer上按拓扑创建BatchEventProcessor
+     *
+     * 用于堆外环形缓冲区：每个处理器使用dataProviders提供的独立数据视图（享元）。
+     * 每个阶段的屏障由其上游阶段的序列组成，末端阶段的序列注册为生产者的门控序列。
+     *
+     * @param sequencer 序列协调器
+     * @param dataProviders 为每个处理器创建独立的DataProvider
+     * @param exceptionHandler 异常处理器
+     * @return 与getStages()顺序一致的处理器列表
+     */
+    List<BatchEventProcessor<PriceEvent>> createProcessors(Sequencer sequencer,
+                                                           Supplier<DataProvider<PriceEvent>> dataProviders,
+                                                           ExceptionHandler<? super PriceEvent> exceptionHandler) {
+        Map<String, Sequence> sequences = new HashMap<>();
+        Set<String> upstreamStages = new HashSet<>();
+        List<BatchEventProcessor<PriceEvent>> processors = new ArrayList<>(stages.size());
+
+        for (Stage stage : stages) {
+            Sequence[] barrierSequences = stage.dependencies().stream()
+                    .map(sequences::get)
+                    .toArray(Sequence[]::new);
+            BatchEventProcessor<PriceEvent> processor = new BatchEventProcessor<>(
+                    dataProviders.get(), sequencer.newBarrier(barrierSequences), stage.handler());
+            processor.setExceptionHandler(exceptionHandler);
+            sequences.put(stage.name(), processor.getSequence());
+            upstreamStages.addAll(stage.dependencies());
+            processors.add(processor);
+        }
+
+        for (Stage stage : stages) {
+            if (!upstreamStages.contains(stage.name())) {
+                sequencer.addGatingSequences(sequences.get(stage.name()));
+            }
+        }
+        return processors;
+    }
+
+    /**
+     * 拓扑描述，如 sequencing -> validation -> {aggregation, journal}
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("PipelineTopology[");
+        for (int i = 0; i < stages.size(); i++) {
+            Stage stage = stages.get(i);
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(stage.name());
+            if (!stage.dependencies().isEmpty()) {
+                sb.append(" <- ").append(stage.dependencies());
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * 拓扑构建器
+     */
+    public static final class Builder {
+
+        private final Map<String, PriceEventHandler> handlers = new LinkedHashMap<>();
+        private final Map<String, LinkedHashSet<String>> dependencies = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * 声明处理阶段
+         * @param name 阶段名称（唯一）
+         * @param handler 处理器（同一处理器只能出现一次）
+         * @param dependsOn 上游阶段名称
+         */
+        public Builder stage(String name, PriceEventHandler handler, String... dependsOn) {
+            Objects.requireNonNull(name, "name");
+            Objects.requireNonNull(handler, "handler");
+            if (handlers.containsKey(name)) {
+                throw new IllegalArgumentException("Duplicate stage name: " + name);
+            }
+            for (Map.Entry<String, PriceEventHandler> entry : handlers.entrySet()) {
+                if (entry.getValue() == handler) {
+                    throw new IllegalArgumentException(
+                            "Handler already registered as stage '" + entry.getKey() + "': " + name);
+                }
+            }
+            handlers.put(name, handler);
+            dependencies.put(name, new LinkedHashSet<>(Arrays.asList(dependsOn)));
+            return this;
+        }
+
+        /**
+         * 为已声明的阶段追加依赖（用于构造汇合点）
+         */
+        public Builder dependsOn(String name, String... dependsOn) {
+            LinkedHashSet<String> existing = dependencies.get(name);
+            if (existing == null) {
+                throw new IllegalArgumentException("Unknown stage: " + name);
+            }
+            existing.addAll(Arrays.asList(dependsOn));
+            return this;
+        }
+
+        /**
+         * 校验并生成拓扑（Kahn算法，保持声明顺序）
+         */
+        public PipelineTopology build() {
+            if (handlers.isEmpty()) {
+                throw new IllegalStateException("Topology has no stages");
+            }
+            for (Map.Entry<String, LinkedHashSet<String>> entry : dependencies.entrySet()) {
+                for (String dependency : entry.getValue()) {
+                    if (!handlers.containsKey(dependency)) {
+                        throw new IllegalStateException(
+                                "Stage '" + entry.getKey() + "' depends on unknown stage '" + dependency + "'");
+                    }
+                    if (dependency.equals(entry.getKey())) {
+                        throw new IllegalStateException("Stage '" + dependency + "' depends on itself");
+                    }
+                }
+            }
+
+            List<Stage> ordered = new ArrayList<>(handlers.size());
+            Set<String> done = new HashSet<>();
+            while (ordered.size() < handlers.size()) {
+                boolean progressed = false;
+                for (Map.Entry<String, PriceEventHandler> entry : handlers.entrySet()) {
+                    String name = entry.getKey();
+                    if (!done.contains(name) && done.containsAll(dependencies.get(name))) {
+                        ordered.add(new Stage(name, entry.getValue(), List.copyOf(dependencies.get(name))));
+                        done.add(name);
+                        progressed = true;
+                    }
+                }
+                if (!progressed) {
+                    Set<String> cyclic = new LinkedHashSet<>(handlers.keySet());
+                    cyclic.removeAll(done);
+                    throw new IllegalStateException("Topology contains a cycle among stages " + cyclic);
+                }
+            }
+            return new PipelineTopology(ordered);
+        }
+    }
+}
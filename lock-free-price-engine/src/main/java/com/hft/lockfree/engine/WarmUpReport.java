@@ -0,0 +1,19 @@
+package com.hft.lockfree.engine;
+
+/**
+ * JIT预热结果
+ *
+ * @param events 发布的预热事件数
+ * @param rounds 预热轮数
+ * @param elapsedMillis 预热总耗时（毫秒）
+ * @param compilationMillis 预热期间JIT编译耗时（毫秒，JVM不支持编译时间监控时为-1）
+ * @param settled 是否观察到编译已稳定（连续若干轮没有新的编译耗时）
+ */
+public record WarmUpReport(long events, int rounds, long elapsedMillis, long compilationMillis, boolean settled) {
+
+    @Override
+    public String toString() {
+        return String.format("WarmUpReport[events=%d, rounds=%d, elapsed=%dms, compilation=%dms, settled=%s]",
+                events, rounds, elapsedMillis, compilationMillis, settled);
+    }
+}
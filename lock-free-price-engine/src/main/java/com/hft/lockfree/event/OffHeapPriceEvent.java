@@ -0,0 +1,183 @@
+package com.hft.lockfree.event;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 堆外价格事件享元
+ *
+ * 不持有数据，只指向OffHeapPriceRing中某个槽位的定长记录，
+ * 所有访问器直接读写堆外内存。每个线程（生产者、各处理器）使用自己的享元实例，
+ * 通过wrap(sequence)定位到槽位。
+ *
+ * 记录布局（RECORD_SIZE = 128字节，两个缓存行）：
+ * <pre>
+ *   0  long   sequence
+ *   8  long   sourceSequence
+ *  16  long   timestamp
+ *  24  double bidPrice
+ *  32  double askPrice
+ *  40  double volume
+ *  48  int    symbolRef（环形缓冲区内部的品种字符串编号，-1表示null）
+ *  52  int    sourceId
+ *  56  int    eventType
+ *  60  int    flags
+ *  64  int    processed
+ *  68  int    symbolId（SymbolRegistry编号）
+ *  72  long   ingressTime
+ *  80  long   validatedTime
+ *  88  long   aggregatedTime
+ *  96  long   distributedTime
+ * 104  long   bidTicks
+ * 112  long   askTicks
+ * 120  double tickSize
+ * </pre>
+ */
+public final class OffHeapPriceEvent extends PriceEvent {
+
+    public static final int RECORD_SIZE = 128;
+
+    static final int SEQUENCE_OFFSET = 0;
+    static final int SOURCE_SEQUENCE_OFFSET = 8;
+    static final int TIMESTAMP_OFFSET = 16;
+    static final int BID_OFFSET = 24;
+    static final int ASK_OFFSET = 32;
+    static final int VOLUME_OFFSET = 40;
+    static final int SYMBOL_REF_OFFSET = 48;
+    static final int SOURCE_ID_OFFSET = 52;
+    static final int EVENT_TYPE_OFFSET = 56;
+    static final int FLAGS_OFFSET = 60;
+    static final int PROCESSED_OFFSET = 64;
+    static final int SYMBOL_ID_OFFSET = 68;
+    static final int INGRESS_TIME_OFFSET = 72;
+    static final int VALIDATED_TIME_OFFSET = 80;
+    static final int AGGREGATED_TIME_OFFSET = 88;
+    static final int DISTRIBUTED_TIME_OFFSET = 96;
+    static final int BID_TICKS_OFFSET = 104;
+    static final int ASK_TICKS_OFFSET = 112;
+    static final int TICK_SIZE_OFFSET = 120;
+
+    private final ByteBuffer buffer;
+    private final OffHeapPriceRing.SymbolTable symbolTable;
+    private final int indexMask;
+    private int offset;
+
+    OffHeapPriceEvent(ByteBuffer buffer, OffHeapPriceRing.SymbolTable symbolTable, int bufferSize) {
+        this.buffer = buffer;
+        this.symbolTable = symbolTable;
+        this.indexMask = bufferSize - 1;
+    }
+
+    /**
+     * 定位到序列号对应的槽位
+     * @return this，便于作为DataProvider返回值
+     */
+    public OffHeapPriceEvent wrap(long sequence) {
+        this.offset = ((int) sequence & indexMask) * RECORD_SIZE;
+        return this;
+    }
+
+    /**
+     * 当前槽位在堆外内存中的字节偏移
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    @Override
+    public String getSymbol() { return symbolTable.symbolOf(buffer.getInt(offset + SYMBOL_REF_OFFSET)); }
+    @Override
+    public void setSymbol(String symbol) { buffer.putInt(offset + SYMBOL_REF_OFFSET, symbolTable.idOf(symbol)); }
+
+    @Override
+    public double getBidPrice() { return buffer.getDouble(offset + BID_OFFSET); }
+    @Override
+    public void setBidPrice(double bidPrice) { buffer.putDouble(offset + BID_OFFSET, bidPrice); }
+
+    @Override
+    public double getAskPrice() { return buffer.getDouble(offset + ASK_OFFSET); }
+    @Override
+    public void setAskPrice(double askPrice) { buffer.putDouble(offset + ASK_OFFSET, askPrice); }
+
+    @Override
+    public long getTimestamp() { return buffer.getLong(offset + TIMESTAMP_OFFSET); }
+    @Override
+    public void setTimestamp(long timestamp) { buffer.putLong(offset + TIMESTAMP_OFFSET, timestamp); }
+
+    @Override
+    public long getSequence() { return buffer.getLong(offset + SEQUENCE_OFFSET); }
+    @Override
+    public void setSequence(long sequence) { buffer.putLong(offset + SEQUENCE_OFFSET, sequence); }
+
+    @Override
+    public long getSourceSequence() { return buffer.getLong(offset + SOURCE_SEQUENCE_OFFSET); }
+    @Override
+    public void setSourceSequence(long sourceSequence) { buffer.putLong(offset + SOURCE_SEQUENCE_OFFSET, sourceSequence); }
+
+    @Override
+    public double getVolume() { return buffer.getDouble(offset + VOLUME_OFFSET); }
+    @Override
+    public void setVolume(double volume) { buffer.putDouble(offset + VOLUME_OFFSET, volume); }
+
+    @Override
+    public int getSymbolId() { return buffer.getInt(offset + SYMBOL_ID_OFFSET); }
+    @Override
+    public void setSymbolId(int symbolId) { buffer.putInt(offset + SYMBOL_ID_OFFSET, symbolId); }
+
+    @Override
+    public int getSourceId() { return buffer.getInt(offset + SOURCE_ID_OFFSET); }
+    @Override
+    public void setSourceId(int sourceId) { buffer.putInt(offset + SOURCE_ID_OFFSET, sourceId); }
+
+    @Override
+    public int getEventType() { return buffer.getInt(offset + EVENT_TYPE_OFFSET); }
+    @Override
+    public void setEventType(int eventType) { buffer.putInt(offset + EVENT_TYPE_OFFSET, eventType); }
+
+    @Override
+    public int getFlags() { return buffer.getInt(offset + FLAGS_OFFSET); }
+    @Override
+    public void setFlags(int flags) { buffer.putInt(offset + FLAGS_OFFSET, flags); }
+
+    @Override
+    public long getIngressTime() { return buffer.getLong(offset + INGRESS_TIME_OFFSET); }
+    @Override
+    public void setIngressTime(long ingressTime) { buffer.putLong(offset + INGRESS_TIME_OFFSET, ingressTime); }
+
+    @Override
+    public long getValidatedTime() { return buffer.getLong(offset + VALIDATED_TIME_OFFSET); }
+    @Override
+    public void setValidatedTime(long validatedTime) { buffer.putLong(offset + VALIDATED_TIME_OFFSET, validatedTime); }
+
+    @Override
+    public long getAggregatedTime() { return buffer.getLong(offset + AGGREGATED_TIME_OFFSET); }
+    @Override
+    public void setAggregatedTime(long aggregatedTime) { buffer.putLong(offset + AGGREGATED_TIME_OFFSET, aggregatedTime); }
+
+    @Override
+    public long getDistributedTime() { return buffer.getLong(offset + DISTRIBUTED_TIME_OFFSET); }
+    @Override
+    public void setDistributedTime(long distributedTime) { buffer.putLong(offset + DISTRIBUTED_TIME_OFFSET, distributedTime); }
+
+    @Override
+    public long getBidTicks() { return buffer.getLong(offset + BID_TICKS_OFFSET); }
+    @Override
+    public void setBidTicks(long bidTicks) { buffer.putLong(offset + BID_TICKS_OFFSET, bidTicks); }
+
+    @Override
+    public long getAskTicks() { return buffer.getLong(offset + ASK_TICKS_OFFSET); }
+    @Override
+    public void setAskTicks(long askTicks) { buffer.putLong(offset + ASK_TICKS_OFFSET, askTicks); }
+
+    @Override
+    public double getTickSize() { return buffer.getDouble(offset + TICK_SIZE_OFFSET); }
+    @Override
+    public void setTickSize(double tickSize) { buffer.putDouble(offset + TICK_SIZE_OFFSET, tickSize); }
+
+    /**
+     * 阶段之间的可见性由Disruptor序列屏障保证，这里使用普通读写
+     */
+    @Override
+    public boolean isProcessed() { return buffer.getInt(offset + PROCESSED_OFFSET) != 0; }
+    @Override
+    public void setProcessed(boolean processed) { buffer.putInt(offset + PROCESSED_OFFSET, processed ? 1 : 0); }
+}
@@ -0,0 +1,134 @@
+package com.hft.lockfree.event;
+
+import com.hft.lockfree.util.MemoryPreToucher;
+import com.lmax.disruptor.DataProvider;
+import com.lmax.disruptor.Sequencer;
+import com.lmax.disruptor.SingleProducerSequencer;
+import com.lmax.disruptor.WaitStrategy;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 堆外价格环形缓冲区
+ *
+ * 设计要点：
+ * 1. 所有槽位是同一块direct内存中的定长记录，没有每槽位一个的堆对象，
+ *    超大缓冲区（如1M槽位）不会给老年代扫描带来负担，且内存顺序布局
+ * 2. 序列协调复用Disruptor的SingleProducerSequencer，语义与堆内RingBuffer一致
+ * 3. 通过OffHeapPriceEvent享元访问记录，每个消费者拥有独立的享元（newDataProvider()）
+ * 4. 交易品种以int编号存储，编号与字符串的映射由SymbolTable维护
+ */
+public class OffHeapPriceRing {
+
+    // 单块ByteBuffer的容量上限决定最大槽位数：8M槽位 × 128字节 = 1GB
+    public static final int MAX_BUFFER_SIZE = 1 << 23;
+
+    private final int bufferSize;
+    private final ByteBuffer buffer;
+    private final Sequencer sequencer;
+    private final SymbolTable symbolTable = new SymbolTable();
+
+    /**
+     * @param bufferSize 槽位数（必须是2的幂）
+     * @param waitStrategy 等待策略
+     */
+    public OffHeapPriceRing(int bufferSize, WaitStrategy waitStrategy) {
+        if (bufferSize < 1 || (bufferSize & (bufferSize - 1)) != 0) {
+            throw new IllegalArgumentException("Ring buffer size must be a power of 2");
+        }
+        if (bufferSize > MAX_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Off-heap ring buffer size must not exceed " + MAX_BUFFER_SIZE);
+        }
+        this.bufferSize = bufferSize;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize * OffHeapPriceEvent.RECORD_SIZE)
+                .order(ByteOrder.nativeOrder());
+        this.sequencer = new SingleProducerSequencer(bufferSize, waitStrategy);
+    }
+
+    /**
+     * 序列协调器（生产者申请/发布序列号，消费者创建屏障）
+     */
+    public Sequencer getSequencer() {
+        return sequencer;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * 堆外内存总字节数
+     */
+    public long getCapacityBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * 预触碰全部槽位并预先登记品种编号（启动前调用）
+     * @param symbols 预期的品种集合，首次出现时不再走同步登记路径
+     * @return 触碰的页数
+     */
+    public long preTouch(String... symbols) {
+        for (String symbol : symbols) {
+            symbolTable.idOf(symbol);
+        }
+        return MemoryPreToucher.touch(buffer);
+    }
+
+    /**
+     * 创建新的享元
+     */
+    public OffHeapPriceEvent newFlyweight() {
+        return new OffHeapPriceEvent(buffer, symbolTable, bufferSize);
+    }
+
+    /**
+     * 创建持有独立享元的DataProvider，每个线程各用一个
+     */
+    public DataProvider<PriceEvent> newDataProvider() {
+        OffHeapPriceEvent flyweight = newFlyweight();
+        return flyweight::wrap;
+    }
+
+    /**
+     * 交易品种编号表
+     *
+     * 编号只增不减；读取编号对应字符串是一次数组访问。
+     * 记录中的编号在序列发布之前写入，消费者经由序列屏障可见新编号。
+     */
+    static final class SymbolTable {
+        private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+        private volatile String[] symbols = new String[64];
+        private int size;
+
+        int idOf(String symbol) {
+            if (symbol == null) {
+                return -1;
+            }
+            Integer id = ids.get(symbol);
+            return id != null ? id : register(symbol);
+        }
+
+        String symbolOf(int id) {
+            return id < 0 ? null : symbols[id];
+        }
+
+        private synchronized int register(String symbol) {
+            Integer existing = ids.get(symbol);
+            if (existing != null) {
+                return existing;
+            }
+            String[] current = symbols;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[size] = symbol;
+            symbols = current;
+            ids.put(symbol, size);
+            return size++;
+        }
+    }
+}
@@ -8,44 +8,83 @@ package com.hft.lockfree.event;
  * 2. 字段紧凑排列，提高缓存效率
  * 3. 提供reset()方法重用对象
  * 4. 支持复制操作避免数据竞争
+ * 5. 复合操作只通过访问器读写字段，堆外享元（OffHeapPriceEvent）只需覆盖访问器
+ *
+ * 报价和成交共用同一个环形缓冲区，以eventType区分，处理器按类型switch分支，
+ * 不为每种事件类型实现不同的处理器对象。成交事件复用报价字段：成交价同时写入
+ * bidPrice和askPrice（定点价位数同理），成交量写入volume。
  */
 public class PriceEvent {
     
+    // 事件标记位
+    public static final int FLAG_DROPPED = 1;       // 被序列检查丢弃（重复或过期乱序）
+    public static final int FLAG_SUPPRESSED = 2;    // 最优报价变化不足，不向订阅者分发
+    public static final int FLAG_TIMED = 4;         // 被抽样记录各阶段时间戳
+    public static final int FLAG_WARMUP = 8;        // JIT预热事件，只走影子状态，不计数、不分发
+    public static final int FLAG_FIXED_POINT = 16;  // 携带定点价格，处理链按价位数比较
+    
+    // 事件类型
+    public static final int TYPE_QUOTE = 0;         // 最优报价（买卖价）
+    public static final int TYPE_TRADE = 1;         // 成交（成交价、成交量）
+    
     // 核心价格数据
     private String symbol;        // 交易品种符号 (8字节引用)
     private double bidPrice;      // 买入价 (8字节)
     private double askPrice;      // 卖出价 (8字节) 
     private long timestamp;       // 时间戳(纳秒) (8字节)
     private long sequence;        // 序列号 (8字节)
+    private long sourceSequence;  // 数据源自身序列号 (8字节)
     
     // 扩展数据
     private double volume;        // 成交量 (8字节)
     private int sourceId;         // 数据源ID (4字节)
+    private int symbolId;         // SymbolRegistry编号，0表示未注册 (4字节)
     private int eventType;        // 事件类型 (4字节)
+    private int flags;            // 事件标记位 (4字节)
+    
+    // 阶段时间戳（System.nanoTime，仅FLAG_TIMED事件有效）
+    private long ingressTime;     // 进入环形缓冲区 (8字节)
+    private long validatedTime;   // 验证完成 (8字节)
+    private long aggregatedTime;  // 聚合完成 (8字节)
+    private long distributedTime; // 开始分发 (8字节)
+    
+    // 定点价格（仅FLAG_FIXED_POINT事件有效）：price = ticks × tickSize
+    private long bidTicks;        // 买入价价位数 (8字节)
+    private long askTicks;        // 卖出价价位数 (8字节)
+    private double tickSize;      // 最小变动价位 (8字节)
     
     // 状态标记
     private volatile boolean processed;  // 处理完成标记
     
     /**
-     * 默认构造函数
+     * 默认构造函数（字段默认值即为重置后的状态）
      */
     public PriceEvent() {
-        reset();
     }
     
     /**
      * 重置事件数据，便于对象重用
      */
     public void reset() {
-        this.symbol = null;
-        this.bidPrice = 0.0;
-        this.askPrice = 0.0;
-        this.timestamp = 0L;
-        this.sequence = 0L;
-        this.volume = 0.0;
-        this.sourceId = 0;
-        this.eventType = 0;
-        this.processed = false;
+        setSymbol(null);
+        setBidPrice(0.0);
+        setAskPrice(0.0);
+        setTimestamp(0L);
+        setSequence(0L);
+        setSourceSequence(0L);
+        setVolume(0.0);
+        setSourceId(0);
+        setSymbolId(SymbolRegistry.NO_SYMBOL);
+        setEventType(0);
+        setFlags(0);
+        setIngressTime(0L);
+        setValidatedTime(0L);
+        setAggregatedTime(0L);
+        setDistributedTime(0L);
+        setBidTicks(0L);
+        setAskTicks(0L);
+        setTickSize(0.0);
+        setProcessed(false);
     }
     
     /**
@@ -55,25 +94,89 @@ public class PriceEvent {
     public void copyFrom(PriceEvent other) {
         if (other == null) return;
         
-        this.symbol = other.symbol;
-        this.bidPrice = other.bidPrice;
-        this.askPrice = other.askPrice;
-        this.timestamp = other.timestamp;
-        this.sequence = other.sequence;
-        this.volume = other.volume;
-        this.sourceId = other.sourceId;
-        this.eventType = other.eventType;
-        this.processed = other.processed;
+        setSymbol(other.getSymbol());
+        setBidPrice(other.getBidPrice());
+        setAskPrice(other.getAskPrice());
+        setTimestamp(other.getTimestamp());
+        setSequence(other.getSequence());
+        setSourceSequence(other.getSourceSequence());
+        setVolume(other.getVolume());
+        setSourceId(other.getSourceId());
+        setSymbolId(other.getSymbolId());
+        setEventType(other.getEventType());
+        setFlags(other.getFlags());
+        setIngressTime(other.getIngressTime());
+        setValidatedTime(other.getValidatedTime());
+        setAggregatedTime(other.getAggregatedTime());
+        setDistributedTime(other.getDistributedTime());
+        setBidTicks(other.getBidTicks());
+        setAskTicks(other.getAskTicks());
+        setTickSize(other.getTickSize());
+        setProcessed(other.isProcessed());
     }
     
     /**
-     * 设置基础价格数据
+     * 设置基础价格数据（报价事件）
+     * 成交量清零：槽位复用时不能带上此前成交事件的成交量
      */
     public void setPriceData(String symbol, double bidPrice, double askPrice, long timestamp) {
-        this.symbol = symbol;
-        this.bidPrice = bidPrice;
-        this.askPrice = askPrice;
-        this.timestamp = timestamp;
+        setSymbol(symbol);
+        setBidPrice(bidPrice);
+        setAskPrice(askPrice);
+        setVolume(0.0);
+        setTimestamp(timestamp);
+        setEventType(TYPE_QUOTE);
+    }
+    
+    /**
+     * 设置成交数据（成交事件）
+     * @param symbol 交易品种
+     * @param price 成交价（同时写入买入价和卖出价）
+     * @param volume 成交量
+     * @param timestamp 时间戳
+     */
+    public void setTradeData(String symbol, double price, double volume, long timestamp) {
+        setSymbol(symbol);
+        setBidPrice(price);
+        setAskPrice(price);
+        setVolume(volume);
+        setTimestamp(timestamp);
+        setEventType(TYPE_TRADE);
+    }
+    
+    public boolean isTrade() { return getEventType() == TYPE_TRADE; }
+    
+    /**
+     * 成交价（成交事件）
+     */
+    public double getTradePrice() { return getBidPrice(); }
+    
+    /**
+     * 设置数据源信息
+     * @param sourceId 数据源ID
+     * @param sourceSequence 数据源自身序列号（0表示无序列号）
+     */
+    public void setSource(int sourceId, long sourceSequence) {
+        setSourceId(sourceId);
+        setSourceSequence(sourceSequence);
+    }
+    
+    /**
+     * 设置定点价格并标记FLAG_FIXED_POINT（double价格由调用方在发布边界按价位数一并设置）
+     */
+    public void setFixedPoint(long bidTicks, long askTicks, double tickSize) {
+        setBidTicks(bidTicks);
+        setAskTicks(askTicks);
+        setTickSize(tickSize);
+        addFlag(FLAG_FIXED_POINT);
+    }
+    
+    /**
+     * 标记为抽样事件并记录进入时间（生产者调用）
+     */
+    public void startTiming(long ingressTime) {
+        addFlag(FLAG_TIMED);
+        setIngressTime(ingressTime);
     }
     
     /**
@@ -81,7 +184,7 @@ public class PriceEvent {
      * @return 价差(askPrice - bidPrice)
      */
     public double getSpread() {
-        return askPrice - bidPrice;
+        return getAskPrice() - getBidPrice();
     }
     
     /**
@@ -89,7 +192,7 @@ public class PriceEvent {
      * @return 中间价 (bidPrice + askPrice) / 2
      */
     public double getMidPrice() {
-        return (bidPrice + askPrice) / 2.0;
+        return (getBidPrice() + getAskPrice()) / 2.0;
     }
     
     /**
@@ -97,12 +200,15 @@ public class PriceEvent {
      * @return true表示数据有效
      */
     public boolean isValid() {
+        String symbol = getSymbol();
+        double bidPrice = getBidPrice();
+        double askPrice = getAskPrice();
         return symbol != null && 
                !symbol.isEmpty() && 
                bidPrice > 0 && 
                askPrice > 0 && 
                bidPrice <= askPrice &&
-               timestamp > 0;
+               getTimestamp() > 0;
     }
     
     // Getter和Setter方法
@@ -121,21 +227,90 @@ public class PriceEvent {
     public long getSequence() { return sequence; }
     public void setSequence(long sequence) { this.sequence = sequence; }
     
+    public long getSourceSequence() { return sourceSequence; }
+    public void setSourceSequence(long sourceSequence) { this.sourceSequence = sourceSequence; }
+    
     public double getVolume() { return volume; }
     public void setVolume(double volume) { this.volume = volume; }
     
     public int getSourceId() { return sourceId; }
     public void setSourceId(int sourceId) { this.sourceId = sourceId; }
     
+    public int getSymbolId() { return symbolId; }
+    public void setSymbolId(int symbolId) { this.symbolId = symbolId; }
+    
     public int getEventType() { return eventType; }
     public void setEventType(int eventType) { this.eventType = eventType; }
     
+    public int getFlags() { return flags; }
+    public void setFlags(int flags) { this.flags = flags; }
+    public boolean hasFlag(int flag) { return (getFlags() & flag) != 0; }
+    public void addFlag(int flag) { setFlags(getFlags() | flag); }
+    
+    public boolean isDropped() { return hasFlag(FLAG_DROPPED); }
+    public boolean isSuppressed() { return hasFlag(FLAG_SUPPRESSED); }
+    public boolean isTimed() { return hasFlag(FLAG_TIMED); }
+    public boolean isWarmUp() { return hasFlag(FLAG_WARMUP); }
+    public boolean isFixedPoint() { return hasFlag(FLAG_FIXED_POINT); }
+    
+    public long getBidTicks() { return bidTicks; }
+    public void setBidTicks(long bidTicks) { this.bidTicks = bidTicks; }
+    
+    public long getAskTicks() { return askTicks; }
+    public void setAskTicks(long askTicks) { this.askTicks = askTicks; }
+    
+    public double getTickSize() { return tickSize; }
+    public void setTickSize(double tickSize) { this.tickSize = tickSize; }
+    
+    public long getIngressTime() { return ingressTime; }
+    public void setIngressTime(long ingressTime) { this.ingressTime = ingressTime; }
+    
+    public long getValidatedTime() { return validatedTime; }
+    public void setValidatedTime(long validatedTime) { this.validatedTime = validatedTime; }
+    
+    public long getAggregatedTime() { return aggregatedTime; }
+    public void setAggregatedTime(long aggregatedTime) { this.aggregatedTime = aggregatedTime; }
+    
+    public long getDistributedTime() { return distributedTime; }
+    public void setDistributedTime(long distributedTime) { this.distributedTime = distributedTime; }
+    
     public boolean isProcessed() { return processed; }
     public void setProcessed(boolean processed) { this.processed = processed; }
     
+    /**
+     * 不使用String.format（解析格式串、装箱参数），直接拼接
+     */
     @Override
     public String toString() {
-        return String.format("PriceEvent{symbol='%s', bid=%.5f, ask=%.5f, spread=%.5f, ts=%d, seq=%d}", 
-                symbol, bidPrice, askPrice, getSpread(), timestamp, sequence);
+        StringBuilder sb = new StringBuilder(96);
+        sb.append("PriceEvent{symbol='").append(getSymbol()).append("', bid=");
+        appendFixed5(sb, getBidPrice());
+        sb.append(", ask=");
+        appendFixed5(sb, getAskPrice());
+        sb.append(", spread=");
+        appendFixed5(sb, getSpread());
+        return sb.append(", ts=").append(getTimestamp())
+                .append(", seq=").append(getSequence())
+                .append('}').toString();
+    }
+    
+    /**
+     * 按5位小数追加（等价于%.5f，超出long精度范围时退回默认格式）
+     */
+    private static void appendFixed5(StringBuilder sb, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 1e13) {
+            sb.append(value);
+            return;
+        }
+        long scaled = Math.round(Math.abs(value) * 100_000);
+        if (value < 0 && scaled != 0) {
+            sb.append('-');
+        }
+        sb.append(scaled / 100_000).append('.');
+        long fraction = scaled % 100_000;
+        for (long divisor = 10_000; divisor > fraction && divisor > 1; divisor /= 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
     }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.hft.lockfree.event;
+
+/**
+ * 最优报价holder
+ *
+ * 查询接口把一致的买卖价复制到调用方持有的实例中，调用方在循环中复用，不产生垃圾。
+ * 不是线程安全的：每个读取线程使用自己的实例。
+ */
+public final class PriceQuote {
+
+    private String symbol;
+    private double bidPrice;
+    private double askPrice;
+    private long timestamp;
+    private long updateCount;
+
+    public void set(String symbol, double bidPrice, double askPrice, long timestamp, long updateCount) {
+        this.symbol = symbol;
+        this.bidPrice = bidPrice;
+        this.askPrice = askPrice;
+        this.timestamp = timestamp;
+        this.updateCount = updateCount;
+    }
+
+    public void clear() {
+        set(null, 0.0, 0.0, 0L, 0L);
+    }
+
+    public String getSymbol() { return symbol; }
+    public double getBidPrice() { return bidPrice; }
+    public double getAskPrice() { return askPrice; }
+    public long getTimestamp() { return timestamp; }
+    public long getUpdateCount() { return updateCount; }
+
+    public double getSpread() { return askPrice - bidPrice; }
+    public double getMidPrice() { return (bidPrice + askPrice) / 2.0; }
+
+    @Override
+    public String toString() {
+        return "PriceQuote{symbol='" + symbol + "', bid=" + bidPrice + ", ask=" + askPrice
+                + ", timestamp=" + timestamp + ", updates=" + updateCount + '}';
+    }
+}
@@ -0,0 +1,163 @@
+package com.hft.lockfree.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 交易品种注册表
+ *
+ * 显式管理引擎的品种集合，运行中可以增删品种。每个品种分配一个int编号（从1开始，
+ * 0表示未注册），生产者发布时把编号写入事件，处理器按编号直接索引数组，不做哈希查找。
+ *
+ * 设计要点：
+ * 1. 读取无锁：编号表和名称索引是不可变对象，增删时复制一份新的再volatile发布
+ * 2. 增加品种时先同步通知监听者（处理器预先分配该品种的状态），再发布编号，
+ *    生产者能查到编号时处理器一侧的槽位已经就绪
+ * 3. 编号不复用：移除的品种重新加入时分配新编号，仍在环形缓冲区中的旧事件不会落到新槽位
+ *
+ * 增删品种走synchronized慢路径，适合盘前配置和盘中偶尔上下线品种。
+ */
+public final class SymbolRegistry {
+
+    public static final int NO_SYMBOL = 0;
+
+    /**
+     * 品种增删监听（在调用add/remove的线程中同步回调）
+     */
+    public interface Listener {
+        void onSymbolAdded(int symbolId, String symbol);
+
+        void onSymbolRemoved(int symbolId, String symbol);
+    }
+
+    /**
+     * 不可变的编号表：symbols[id]为null表示未分配或已移除
+     */
+    private record Table(String[] symbols, Map<String, Integer> ids) {
+    }
+
+    private volatile Table table = new Table(new String[1], Map.of());
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public SymbolRegistry(String... symbols) {
+        for (String symbol : symbols) {
+            add(symbol);
+        }
+    }
+
+    /**
+     * 增加品种
+     * @return 品种编号（已存在时返回现有编号）
+     */
+    public synchronized int add(String symbol) {
+        if (symbol == null || symbol.isEmpty()) {
+            throw new IllegalArgumentException("Symbol must not be empty");
+        }
+        Table current = table;
+        Integer existing = current.ids().get(symbol);
+        if (existing != null) {
+            return existing;
+        }
+        int id = current.symbols().length;
+        for (Listener listener : listeners) {
+            listener.onSymbolAdded(id, symbol);
+        }
+        String[] symbols = Arrays.copyOf(current.symbols(), id + 1);
+        symbols[id] = symbol;
+        Map<String, Integer> ids = new HashMap<>(current.ids());
+        ids.put(symbol, id);
+        table = new Table(symbols, ids);
+        return id;
+    }
+
+    /**
+     * 移除品种（先撤销编号，再通知监听者释放状态）
+     * @return true表示品种存在并已移除
+     */
+    public synchronized boolean remove(String symbol) {
+        Table current = table;
+        Integer id = current.ids().get(symbol);
+        if (id == null) {
+            return false;
+        }
+        String[] symbols = current.symbols().clone();
+        symbols[id] = null;
+        Map<String, Integer> ids = new HashMap<>(current.ids());
+        ids.remove(symbol);
+        table = new Table(symbols, ids);
+        for (Listener listener : listeners) {
+            listener.onSymbolRemoved(id, symbol);
+        }
+        return true;
+    }
+
+    /**
+     * 查询品种编号（无锁）
+     * @return 编号，未注册或已移除时返回NO_SYMBOL
+     */
+    public int idOf(String symbol) {
+        Integer id = symbol != null ? table.ids().get(symbol) : null;
+        return id != null ? id : NO_SYMBOL;
+    }
+
+    /**
+     * 编号对应的品种（无锁），已移除或不存在时返回null
+     */
+    public String symbolOf(int symbolId) {
+        String[] symbols = table.symbols();
+        return symbolId > 0 && symbolId < symbols.length ? symbols[symbolId] : null;
+    }
+
+    /**
+     * 编号是否仍然有效（无锁）
+     */
+    public boolean isActive(int symbolId) {
+        return symbolOf(symbolId) != null;
+    }
+
+    /**
+     * 当前品种数量
+     */
+    public int size() {
+        return table.ids().size();
+    }
+
+    /**
+     * 当前品种（按编号顺序）
+     */
+    public List<String> getSymbols() {
+        List<String> result = new ArrayList<>();
+        for (String symbol : table.symbols()) {
+            if (symbol != null) {
+                result.add(symbol);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 登记监听者，并对已有品种回放onSymbolAdded
+     */
+    public synchronized void addListener(Listener listener) {
+        String[] symbols = table.symbols();
+        for (int id = 1; id < symbols.length; id++) {
+            if (symbols[id] != null) {
+                listener.onSymbolAdded(id, symbols[id]);
+            }
+        }
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public String toString() {
+        return "SymbolRegistry{symbols=" + getSymbols() + '}';
+    }
+}
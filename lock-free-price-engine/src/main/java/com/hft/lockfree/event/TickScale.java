@@ -0,0 +1,71 @@
+package com.hft.lockfree.event;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 定点价格刻度
+ *
+ * 定点模式下价格以long尾数（最小变动价位的个数）在处理链中传递：
+ * price = ticks × tickSize。比较、价差检查和变化抑制都是整数运算，没有浮点误差；
+ * double只在发布（输入）和查询/订阅（输出）时换算。
+ *
+ * 最小变动价位按品种配置，未配置的品种使用默认值；在引擎启动前配置完成，之后只读。
+ */
+public final class TickScale {
+
+    private final double defaultTickSize;
+    private final Map<String, Double> tickSizes = new HashMap<>();
+
+    /**
+     * @param defaultTickSize 默认最小变动价位
+     */
+    public TickScale(double defaultTickSize) {
+        if (!(defaultTickSize > 0)) {
+            throw new IllegalArgumentException("Tick size must be positive: " + defaultTickSize);
+        }
+        this.defaultTickSize = defaultTickSize;
+    }
+
+    /**
+     * 配置品种的最小变动价位
+     */
+    public TickScale tickSize(String symbol, double tickSize) {
+        if (!(tickSize > 0)) {
+            throw new IllegalArgumentException("Tick size must be positive: " + tickSize);
+        }
+        tickSizes.put(symbol, tickSize);
+        return this;
+    }
+
+    /**
+     * 获取品种的最小变动价位
+     */
+    public double getTickSize(String symbol) {
+        Double tickSize = tickSizes.get(symbol);
+        return tickSize != null ? tickSize : defaultTickSize;
+    }
+
+    public double getDefaultTickSize() {
+        return defaultTickSize;
+    }
+
+    /**
+     * 价格换算为价位数（四舍五入到最近的价位）
+     */
+    public static long toTicks(double price, double tickSize) {
+        return Math.round(price / tickSize);
+    }
+
+    /**
+     * 价位数换算为价格
+     */
+    public static double toPrice(long ticks, double tickSize) {
+        return ticks * tickSize;
+    }
+
+    @Override
+    public String toString() {
+        return "TickScale{defaultTickSize=" + defaultTickSize + ", tickSizes=" + tickSizes + '}';
+    }
+}
@@ -1,11 +1,20 @@
 package com.hft.lockfree.handler;
 
 import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.event.PriceQuote;
+import com.hft.lockfree.event.SymbolRegistry;
+import com.hft.lockfree.ipc.SharedPriceTableWriter;
+import com.hft.lockfree.util.SingleWriterCounter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
 
 /**
  * 价格聚合处理器
@@ -14,79 +23,583 @@ import java.util.concurrent.atomic.AtomicLong;
  * 1. 聚合同一交易品种的价格数据
  * 2. 计算派生指标（价差、波动率等）
  * 3. 维护最新价格簿
+ * 4. 可选的最优报价变化抑制：变化不足的事件标记为FLAG_SUPPRESSED，不再分发
+ * 5. 可选的共享内存镜像：价格簿同步写入SharedPriceTableWriter，供本机其他进程直接读取
+ * 6. 为中途加入的订阅者生成与序列号对齐的价格簿快照
+ *
+ * 查询：除按品种返回实时对象的getLatestPrice(String)外，提供复制到调用方持有的
+ * PriceQuote或基本类型数组的接口。每个品种的更新由序列锁保护，复制结果在品种内一致；
+ * 整本复制按品种首次出现的顺序遍历一个紧凑数组，不经过哈希表、不产生垃圾。
+ *
+ * 统计计数在批次内累加到普通字段，批次末尾一次发布。
+ *
+ * 预热事件（FLAG_WARMUP）更新只有聚合线程可见的影子价格簿，走同样的更新代码，
+ * 不计数、不进入查询和快照、不镜像到共享内存。
+ *
+ * 定点事件（FLAG_FIXED_POINT）的价位数随买卖价一起写入快照，变化抑制按价位数做整数比较；
+ * 查询接口仍返回double价格（在发布时已换算好），价位数通过getBidTicks/getAskTicks读取。
+ *
+ * 成交事件（TYPE_TRADE）按事件类型switch到updateTrade：更新品种的最新成交价、成交量、
+ * 累计成交量和成交笔数，不改变买卖价，也不参与变化抑制。尚无报价的品种收到成交时
+ * 也进入价格簿，此时买卖价为0、报价更新次数为0。
+ *
+ * 配置SymbolRegistry后，品种在注册时（任意线程）就分配好快照并进入价格簿（报价更新次数为0），
+ * 聚合线程按事件携带的品种编号索引写时复制的快照数组，不做哈希查找，价格簿也不会在盘中扩容。
+ * 品种移除后从价格簿中删除，之后到达的旧编号事件不再更新、不再分发。
+ * 注册表回调与聚合线程发现新品种时会同时修改整本查询数组和共享内存字典，这两处以本对象加锁，
+ * 稳态的更新路径不加锁。
+ *
+ * 品种集合固定时可以在启动前reserveSymbols：预先分配每个品种的快照和共享内存槽位，
+ * 品种首个报价只是填充已有对象。预留的品种在收到首个报价前不出现在价格簿中。
  */
 public class AggregationHandler implements PriceEventHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(AggregationHandler.class);
     
     // 价格簿：存储每个交易品种的最新价格
-    private final ConcurrentHashMap<String, PriceSnapshot> priceBook = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, PriceSnapshot> priceBook;
+    
+    // 预先分配、尚未收到报价的品种快照（启动前写入；之后聚合线程和注册表回调都会取出，
+    // 取出时持有处理器锁）
+    private final Map<String, PriceSnapshot> reservedSnapshots = new HashMap<>();
+    
+    // 预热事件的影子价格簿（仅聚合线程访问）
+    private final Map<String, PriceSnapshot> warmUpBook = new HashMap<>();
+    
+    // 按品种首次出现顺序排列的快照（新品种时写时复制，整本查询直接遍历）
+    private volatile PriceSnapshot[] snapshots = new PriceSnapshot[0];
+    
+    // 按SymbolRegistry编号索引的快照（注册/移除时写时复制，移除的编号为null）
+    private volatile PriceSnapshot[] registeredSnapshots = new PriceSnapshot[0];
+    private SymbolRegistry symbolRegistry;
     
     // 统计信息
-    private final AtomicLong processedEvents = new AtomicLong(0);
-    private final AtomicLong priceUpdates = new AtomicLong(0);
+    private final SingleWriterCounter processedEvents = new SingleWriterCounter();
+    private final SingleWriterCounter priceUpdates = new SingleWriterCounter();
+    private final SingleWriterCounter suppressedEvents = new SingleWriterCounter();
+    private final SingleWriterCounter tradeEvents = new SingleWriterCounter();
+    
+    // 当前批次尚未发布的计数（仅聚合线程访问）
+    private long batchProcessedEvents;
+    private long batchPriceUpdates;
+    private long batchSuppressedEvents;
+    private long batchTradeEvents;
+    
+    // 变化抑制配置，null表示不抑制（启动前设置）
+    private ChangeSuppression changeSuppression;
+    
+    // 共享内存价格表，null表示不镜像（启动前设置）
+    private SharedPriceTableWriter sharedPriceTable;
+    
+    // 快照请求（任意线程提交，聚合线程在批次末尾处理）
+    private final Queue<Consumer<BookSnapshot>> snapshotRequests = new ConcurrentLinkedQueue<>();
+    
+    public AggregationHandler() {
+        this(16);
+    }
+    
+    /**
+     * @param expectedSymbols 预期品种数量（价格簿初始容量，避免运行中扩容）
+     */
+    public AggregationHandler(int expectedSymbols) {
+        this.priceBook = new ConcurrentHashMap<>(expectedSymbols);
+    }
     
     @Override
     public void onEvent(PriceEvent event, long sequence, boolean endOfBatch) throws Exception {
         // 只处理已验证的事件
-        if (!event.isProcessed()) {
-            return;
+        if (event.isProcessed() && event.isWarmUp()) {
+            apply(event, warmUpBook);
+        } else if (event.isProcessed()) {
+            batchProcessedEvents++;
+            
+            try {
+                // 更新价格簿并计算派生指标
+                apply(event, priceBook);
+                
+                batchPriceUpdates++;
+                
+                if (event.isTimed()) {
+                    event.setAggregatedTime(System.nanoTime());
+                }
+                
+            } catch (Exception e) {
+                logger.error("Error processing aggregation for sequence {}: {}", sequence, e.getMessage(), e);
+            }
         }
         
-        processedEvents.incrementAndGet();
-        
-        try {
-            String symbol = event.getSymbol();
-            
-            // 更新价格簿
-            updatePriceBook(event);
-            
-            // 计算派生指标
-            calculateDerivedMetrics(event);
-            
-            priceUpdates.incrementAndGet();
-            
-        } catch (Exception e) {
-            logger.error("Error processing aggregation for sequence {}: {}", sequence, e.getMessage(), e);
+        // 批次末尾发布计数，处理快照请求：此时价格簿恰好包含sequence及之前的全部更新
+        if (endOfBatch) {
+            commitBatch();
+            if (!snapshotRequests.isEmpty()) {
+                serveSnapshotRequests(sequence);
+            }
+        }
+    }
+    
+    /**
+     * 批量发布本批次的计数
+     */
+    private void commitBatch() {
+        if (batchProcessedEvents != 0) {
+            processedEvents.add(batchProcessedEvents);
+            priceUpdates.add(batchPriceUpdates);
+            suppressedEvents.add(batchSuppressedEvents);
+            tradeEvents.add(batchTradeEvents);
+            batchProcessedEvents = 0;
+            batchPriceUpdates = 0;
+            batchSuppressedEvents = 0;
+            batchTradeEvents = 0;
+        }
+    }
+    
+    /**
+     * 请求价格簿快照
+     * 
+     * 在聚合线程处理完下一个批次后生成快照并回调（回调在聚合线程中执行，必须很快返回）。
+     * 引擎空闲时请求会等到下一个事件（任意品种）到达。
+     * 
+     * @param callback 接收快照的回调
+     */
+    public void requestSnapshot(Consumer<BookSnapshot> callback) {
+        snapshotRequests.add(callback);
+    }
+    
+    private void serveSnapshotRequests(long sequence) {
+        BookSnapshot snapshot = createSnapshot(sequence);
+        Consumer<BookSnapshot> callback;
+        while ((callback = snapshotRequests.poll()) != null) {
+            try {
+                callback.accept(snapshot);
+            } catch (RuntimeException e) {
+                logger.error("Snapshot callback failed at sequence {}: {}", sequence, e.getMessage(), e);
+            }
+        }
+    }
+    
+    /**
+     * 复制当前价格簿（仅聚合线程调用，价格簿不会同时被修改）
+     * 尚无报价的品种（只有成交或已注册未报价）不进入快照
+     */
+    private BookSnapshot createSnapshot(long sequence) {
+        PriceSnapshot[] current = snapshots;
+        int size = countQuoted(current);
+        String[] symbols = new String[size];
+        double[] bidPrices = new double[size];
+        double[] askPrices = new double[size];
+        long[] timestamps = new long[size];
+        long[] updateCounts = new long[size];
+        int i = 0;
+        for (PriceSnapshot snapshot : current) {
+            if (!snapshot.hasQuote()) {
+                continue;
+            }
+            symbols[i] = snapshot.symbol;
+            bidPrices[i] = snapshot.bidPrice;
+            askPrices[i] = snapshot.askPrice;
+            timestamps[i] = snapshot.timestamp;
+            updateCounts[i] = snapshot.updateCount;
+            i++;
+        }
+        return new BookSnapshot(sequence, symbols, bidPrices, askPrices, timestamps, updateCounts);
+    }
+    
+    private static int countQuoted(PriceSnapshot[] current) {
+        int count = 0;
+        for (PriceSnapshot snapshot : current) {
+            if (snapshot.hasQuote()) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * 按事件类型分派（同一个处理器内switch，调用点保持单态）
+     */
+    private void apply(PriceEvent event, Map<String, PriceSnapshot> book) {
+        switch (event.getEventType()) {
+            case PriceEvent.TYPE_TRADE -> updateTrade(event, book);
+            default -> updatePriceBook(event, book);
         }
     }
     
     /**
      * 更新价格簿
+     * 
+     * 价格簿只有本处理器一个写线程，不需要compute的原子读-改-写：
+     * 先get，不存在时再put。稳态下（品种已存在）只有一次哈希查找，
+     * 也不会像compute那样为捕获event的lambda分配对象。
      */
-    private void updatePriceBook(PriceEvent event) {
+    private void updatePriceBook(PriceEvent event, Map<String, PriceSnapshot> book) {
+        boolean live = book == priceBook;
         String symbol = event.getSymbol();
-        
-        priceBook.compute(symbol, (key, existing) -> {
-            if (existing == null) {
-                // 新的交易品种
-                return new PriceSnapshot(event);
+        PriceSnapshot snapshot = lookup(event, book, live);
+        if (snapshot == null) {
+            if (isRemoved(event, live)) {
+                return;
+            }
+            // 新的交易品种（首个报价总是分发），优先使用预留的快照
+            snapshot = live ? takeReservedSnapshot(symbol) : null;
+            if (snapshot != null) {
+                snapshot.initialize(event);
             } else {
-                // 更新现有价格
-                existing.update(event);
-                return existing;
+                snapshot = newSnapshot(event, symbol, live);
             }
-        });
+            // 新快照先完成统计再发布给查询线程
+            snapshot.updateStatistics(event);
+            addSnapshot(book, symbol, snapshot, live);
+        } else if (snapshot.updateCount == 0) {
+            // 已有成交、尚无报价的品种：首个报价总是分发
+            snapshot.beginWrite();
+            snapshot.initialize(event);
+            snapshot.updateStatistics(event);
+            snapshot.endWrite();
+        } else {
+            if (changeSuppression != null && !isMaterial(event, snapshot)) {
+                event.addFlag(PriceEvent.FLAG_SUPPRESSED);
+                if (live) {
+                    batchSuppressedEvents++;
+                }
+            }
+            // 更新现有价格和价格变化统计（序列锁保护，查询线程读到的买卖价一致）
+            snapshot.beginWrite();
+            snapshot.update(event);
+            snapshot.updateStatistics(event);
+            snapshot.endWrite();
+        }
+        
+        // 镜像到共享内存
+        if (snapshot.sharedSlot >= 0) {
+            sharedPriceTable.update(snapshot.sharedSlot, snapshot.bidPrice, snapshot.askPrice,
+                    snapshot.timestamp, snapshot.updateCount);
+        }
+    }
+    
+    private boolean isMaterial(PriceEvent event, PriceSnapshot snapshot) {
+        if (event.isFixedPoint()) {
+            return changeSuppression.isMaterialTicks(snapshot.distributedBidTicks, snapshot.distributedAskTicks,
+                    event.getBidTicks(), event.getAskTicks());
+        }
+        return changeSuppression.isMaterial(snapshot.distributedBidPrice, snapshot.distributedAskPrice,
+                event.getBidPrice(), event.getAskPrice(), snapshot.tickSize);
     }
     
     /**
-     * 计算派生指标
+     * 更新成交统计（买卖价不变，不参与变化抑制）
      */
-    private void calculateDerivedMetrics(PriceEvent event) {
-        PriceSnapshot snapshot = priceBook.get(event.getSymbol());
-        if (snapshot != null) {
-            // 更新价格变化统计
-            snapshot.updateStatistics(event);
+    private void updateTrade(PriceEvent event, Map<String, PriceSnapshot> book) {
+        boolean live = book == priceBook;
+        String symbol = event.getSymbol();
+        PriceSnapshot snapshot = lookup(event, book, live);
+        if (snapshot == null) {
+            if (isRemoved(event, live)) {
+                return;
+            }
+            // 尚无报价的品种：登记只有成交统计的快照
+            snapshot = live ? takeReservedSnapshot(symbol) : null;
+            if (snapshot == null) {
+                snapshot = emptySnapshot(symbol, live);
+            }
+            snapshot.symbol = symbol;
+            snapshot.updateTrade(event);
+            addSnapshot(book, symbol, snapshot, live);
+        } else {
+            snapshot.beginWrite();
+            snapshot.updateTrade(event);
+            snapshot.endWrite();
+        }
+        if (live) {
+            batchTradeEvents++;
+        }
+    }
+    
+    /**
+     * 查找品种快照：已注册的品种按编号索引数组，其余按名称查价格簿
+     */
+    private PriceSnapshot lookup(PriceEvent event, Map<String, PriceSnapshot> book, boolean live) {
+        int symbolId = event.getSymbolId();
+        if (live && symbolId != SymbolRegistry.NO_SYMBOL) {
+            PriceSnapshot[] registered = registeredSnapshots;
+            return symbolId < registered.length ? registered[symbolId] : null;
+        }
+        return book.get(event.getSymbol());
+    }
+    
+    /**
+     * 事件的品种在发布后被移除：不再更新价格簿，也不分发
+     */
+    private boolean isRemoved(PriceEvent event, boolean live) {
+        if (live && event.getSymbolId() != SymbolRegistry.NO_SYMBOL) {
+            event.setProcessed(false);
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * 新品种进入价格簿（实时价格簿同时追加到整本查询数组）
+     */
+    private void addSnapshot(Map<String, PriceSnapshot> book, String symbol, PriceSnapshot snapshot, boolean live) {
+        book.put(symbol, snapshot);
+        if (live) {
+            appendSnapshot(snapshot);
+        }
+    }
+    
+    private synchronized void appendSnapshot(PriceSnapshot snapshot) {
+        PriceSnapshot[] current = snapshots;
+        PriceSnapshot[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = snapshot;
+        snapshots = updated;
+    }
+    
+    private synchronized void removeSnapshot(PriceSnapshot snapshot) {
+        PriceSnapshot[] current = snapshots;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == snapshot) {
+                PriceSnapshot[] updated = new PriceSnapshot[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                snapshots = updated;
+                return;
+            }
+        }
+    }
+    
+    /**
+     * 登记共享内存槽位（注册表回调线程和聚合线程都可能调用）
+     */
+    private synchronized int sharedSlotOf(String symbol) {
+        return sharedPriceTable.slotOf(symbol);
+    }
+    
+    private PriceSnapshot newSnapshot(PriceEvent event, String symbol, boolean live) {
+        PriceSnapshot snapshot = new PriceSnapshot(event);
+        if (changeSuppression != null) {
+            snapshot.tickSize = changeSuppression.getTickSize(symbol);
+        }
+        if (live && sharedPriceTable != null) {
+            snapshot.sharedSlot = sharedSlotOf(symbol);
+        }
+        return snapshot;
+    }
+    
+    /**
+     * 预留品种（在引擎启动前、设置变化抑制和共享内存价格表之后调用）
+     * 
+     * 预先创建快照并登记共享内存槽位（读取方可以提前findSlot，更新次数为0表示尚无报价）。
+     * @return 新预留的品种数
+     */
+    public int reserveSymbols(String... symbols) {
+        int reserved = 0;
+        for (String symbol : symbols) {
+            if (priceBook.containsKey(symbol) || reservedSnapshots.containsKey(symbol)) {
+                continue;
+            }
+            reservedSnapshots.put(symbol, emptySnapshot(symbol, true));
+            reserved++;
+        }
+        return reserved;
+    }
+    
+    /**
+     * 取出预留的快照（聚合线程和注册表回调线程都可能调用）
+     * @return null表示该品种没有预留
+     */
+    private synchronized PriceSnapshot takeReservedSnapshot(String symbol) {
+        return reservedSnapshots.remove(symbol);
+    }
+    
+    /**
+     * 尚无报价的空快照（预留品种或只有成交的品种）
+     */
+    private PriceSnapshot emptySnapshot(String symbol, boolean live) {
+        PriceSnapshot snapshot = new PriceSnapshot();
+        if (changeSuppression != null) {
+            snapshot.tickSize = changeSuppression.getTickSize(symbol);
+        }
+        if (live && sharedPriceTable != null) {
+            snapshot.sharedSlot = sharedSlotOf(symbol);
+        }
+        return snapshot;
+    }
+    
+    /**
+     * 使用品种注册表（在引擎启动前、设置变化抑制和共享内存价格表之后调用）
+     * 
+     * 已注册的品种立即分配快照，之后的增删由注册表在调用线程中回调。
+     */
+    public void setSymbolRegistry(SymbolRegistry symbolRegistry) {
+        this.symbolRegistry = symbolRegistry;
+        symbolRegistry.addListener(new RegistryListener());
+    }
+    
+    public SymbolRegistry getSymbolRegistry() {
+        return symbolRegistry;
+    }
+    
+    /**
+     * 注册表回调：在增删品种的线程中执行，与聚合线程并发
+     */
+    private final class RegistryListener implements SymbolRegistry.Listener {
+        
+        @Override
+        public void onSymbolAdded(int symbolId, String symbol) {
+            PriceSnapshot snapshot = priceBook.get(symbol);
+            if (snapshot == null) {
+                // 预留过的品种沿用预留的快照，不重复分配
+                snapshot = takeReservedSnapshot(symbol);
+                if (snapshot == null) {
+                    snapshot = emptySnapshot(symbol, true);
+                }
+                snapshot.symbol = symbol;
+                addSnapshot(priceBook, symbol, snapshot, true);
+            }
+            synchronized (AggregationHandler.this) {
+                PriceSnapshot[] current = registeredSnapshots;
+                PriceSnapshot[] updated = Arrays.copyOf(current, Math.max(current.length, symbolId + 1));
+                updated[symbolId] = snapshot;
+                registeredSnapshots = updated;
+            }
+        }
+        
+        @Override
+        public void onSymbolRemoved(int symbolId, String symbol) {
+            synchronized (AggregationHandler.this) {
+                PriceSnapshot[] updated = registeredSnapshots.clone();
+                updated[symbolId] = null;
+                registeredSnapshots = updated;
+            }
+            PriceSnapshot snapshot = priceBook.remove(symbol);
+            if (snapshot != null) {
+                removeSnapshot(snapshot);
+            }
         }
     }
     
+    /**
+     * 设置最优报价变化抑制（在引擎启动前调用），null表示关闭
+     */
+    public void setChangeSuppression(ChangeSuppression changeSuppression) {
+        this.changeSuppression = changeSuppression;
+    }
+    
+    public ChangeSuppression getChangeSuppression() {
+        return changeSuppression;
+    }
+    
+    /**
+     * 设置共享内存价格表（在引擎启动前调用），null表示不镜像
+     */
+    public void setSharedPriceTable(SharedPriceTableWriter sharedPriceTable) {
+        this.sharedPriceTable = sharedPriceTable;
+    }
+    
+    public SharedPriceTableWriter getSharedPriceTable() {
+        return sharedPriceTable;
+    }
+    
+    /**
+     * 获取被抑制（未分发）的事件数量
+     */
+    public long getSuppressedEventCount() {
+        return suppressedEvents.get();
+    }
+    
+    /**
+     * 获取被抑制事件占已处理事件的比例(0-1)，即减少的下游流量
+     */
+    public double getSuppressionRate() {
+        long processed = processedEvents.get();
+        return processed > 0 ? (double) suppressedEvents.get() / processed : 0.0;
+    }
+    
+    /**
+     * 获取成交事件数量
+     */
+    public long getTradeEventCount() {
+        return tradeEvents.get();
+    }
+    
     /**
      * 获取指定交易品种的最新价格
+     * 
+     * 返回的是聚合线程持续更新的实时对象，分别读取的字段可能来自不同的更新；
+     * 需要一致的买卖价时使用getLatestPrice(String, PriceQuote)。
+     * 只有成交或已注册尚未报价的品种也会返回快照，此时hasQuote()为false、买卖价为0。
      */
     public PriceSnapshot getLatestPrice(String symbol) {
         return priceBook.get(symbol);
     }
     
+    /**
+     * 复制指定交易品种的最新价格（品种内一致，不分配对象）
+     * @param symbol 交易品种
+     * @param quote 调用方复用的holder
+     * @return false表示该品种尚无报价
+     */
+    public boolean getLatestPrice(String symbol, PriceQuote quote) {
+        PriceSnapshot snapshot = priceBook.get(symbol);
+        // 更新次数只会从0变为正数，看到已有报价后复制的一定是报价之后的数据
+        if (snapshot == null || !snapshot.hasQuote()) {
+            return false;
+        }
+        snapshot.copyTo(quote);
+        return true;
+    }
+    
+    /**
+     * 已有报价的品种数量（即整本复制所需的数组长度，遍历一次品种数组）
+     */
+    public int getSymbolCount() {
+        return countQuoted(snapshots);
+    }
+    
+    /**
+     * 复制整个价格簿到调用方持有的holder数组（按品种首次出现的顺序，跳过尚无报价的品种）
+     * @param quotes 复用的holder，数组元素不能为null
+     * @return 复制的品种数量（不超过quotes.length）
+     */
+    public int copyBook(PriceQuote[] quotes) {
+        int count = 0;
+        for (PriceSnapshot snapshot : snapshots) {
+            if (count == quotes.length) {
+                break;
+            }
+            if (snapshot.hasQuote()) {
+                snapshot.copyTo(quotes[count++]);
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * 复制整个价格簿到调用方持有的基本类型数组（按品种首次出现的顺序，跳过尚无报价的品种，
+     * 列式布局便于批量计算）
+     * @param symbols 品种
+     * @param bidPrices 买入价
+     * @param askPrices 卖出价
+     * @param timestamps 时间戳，可为null
+     * @return 复制的品种数量（不超过数组长度）
+     */
+    public int copyBook(String[] symbols, double[] bidPrices, double[] askPrices, long[] timestamps) {
+        int capacity = Math.min(symbols.length, Math.min(bidPrices.length, askPrices.length));
+        if (timestamps != null) {
+            capacity = Math.min(capacity, timestamps.length);
+        }
+        int count = 0;
+        for (PriceSnapshot snapshot : snapshots) {
+            if (count == capacity) {
+                break;
+            }
+            if (snapshot.hasQuote()) {
+                snapshot.copyTo(count++, symbols, bidPrices, askPrices, timestamps);
+            }
+        }
+        return count;
+    }
+    
     /**
      * 获取所有交易品种
      */
@@ -112,33 +625,82 @@ public class AggregationHandler implements PriceEventHandler {
     
     @Override
     public String getStatistics() {
-        return String.format("AggregationHandler[processed=%d, updates=%d, symbols=%d]", 
-                processedEvents.get(), priceUpdates.get(), priceBook.size());
+        return String.format("AggregationHandler[processed=%d, updates=%d, trades=%d, suppressed=%d(%.2f%%), symbols=%d]", 
+                processedEvents.get(), priceUpdates.get(), tradeEvents.get(), suppressedEvents.get(),
+                getSuppressionRate() * 100, priceBook.size());
     }
     
     @Override
     public void resetStatistics() {
-        processedEvents.set(0);
-        priceUpdates.set(0);
-        priceBook.clear();
+        processedEvents.reset();
+        priceUpdates.reset();
+        suppressedEvents.reset();
+        tradeEvents.reset();
+        synchronized (this) {
+            priceBook.clear();
+            snapshots = new PriceSnapshot[0];
+            // 注册的品种保留在价格簿中
+            for (PriceSnapshot snapshot : registeredSnapshots) {
+                if (snapshot != null) {
+                    addSnapshot(priceBook, snapshot.symbol, snapshot, true);
+                }
+            }
+        }
     }
     
     /**
      * 价格快照类 - 存储单个交易品种的最新价格和统计信息
      */
     public static class PriceSnapshot {
+        // 序列锁版本号：更新中为奇数（只有聚合线程写）
+        private volatile long version;
+        
         private volatile String symbol;
         private volatile double bidPrice;
         private volatile double askPrice;
         private volatile long timestamp;
         private volatile long updateCount;
         
+        // 定点价格（仅定点事件写入）：price = ticks × priceTickSize
+        private volatile long bidTicks;
+        private volatile long askTicks;
+        private volatile double priceTickSize;
+        
+        // 成交统计（仅成交事件写入）
+        private volatile double lastTradePrice;
+        private volatile double lastTradeVolume;
+        private volatile long lastTradeTicks;
+        private volatile long lastTradeTimestamp;
+        private volatile double totalVolume;
+        private volatile double tradedNotional;
+        private volatile long tradeCount;
+        
         // 统计信息
         private volatile double previousMidPrice;
         private volatile double priceChange;
         private volatile double volatility;
         
+        // 变化抑制状态（仅聚合线程访问）：最近一次分发的买卖价和品种的最小变动价位
+        private double distributedBidPrice;
+        private double distributedAskPrice;
+        private long distributedBidTicks;
+        private long distributedAskTicks;
+        private double tickSize;
+        
+        // 共享内存价格表中的槽位（-1表示不镜像）
+        private int sharedSlot = -1;
+        
         public PriceSnapshot(PriceEvent event) {
+            initialize(event);
+        }
+        
+        /**
+         * 预留的空快照（收到首个报价时initialize）
+         */
+        PriceSnapshot() {
+        }
+        
+        void initialize(PriceEvent event) {
             update(event);
             this.updateCount = 1;
             this.previousMidPrice = event.getMidPrice();
@@ -149,6 +711,20 @@ public class AggregationHandler implements PriceEventHandler {
             this.bidPrice = event.getBidPrice();
             this.askPrice = event.getAskPrice();
             this.timestamp = event.getTimestamp();
+            boolean fixedPoint = event.isFixedPoint();
+            if (fixedPoint) {
+                this.bidTicks = event.getBidTicks();
+                this.askTicks = event.getAskTicks();
+                this.priceTickSize = event.getTickSize();
+            }
+            if (!event.isSuppressed()) {
+                this.distributedBidPrice = event.getBidPrice();
+                this.distributedAskPrice = event.getAskPrice();
+                if (fixedPoint) {
+                    this.distributedBidTicks = event.getBidTicks();
+                    this.distributedAskTicks = event.getAskTicks();
+                }
+            }
         }
         
         public void updateStatistics(PriceEvent event) {
@@ -161,15 +737,102 @@ public class AggregationHandler implements PriceEventHandler {
             this.volatility = this.volatility * 0.95 + Math.abs(priceChange) * 0.05;
         }
         
+        void updateTrade(PriceEvent event) {
+            double price = event.getTradePrice();
+            double volume = event.getVolume();
+            this.lastTradePrice = price;
+            this.lastTradeVolume = volume;
+            if (event.isFixedPoint()) {
+                this.lastTradeTicks = event.getBidTicks();
+            }
+            this.lastTradeTimestamp = event.getTimestamp();
+            this.totalVolume += volume;
+            this.tradedNotional += price * volume;
+            this.tradeCount++;
+        }
+        
+        void beginWrite() {
+            version++;
+        }
+        
+        void endWrite() {
+            version++;
+        }
+        
+        /**
+         * 复制一致的最优报价到holder（版本号前后一致才返回，更新中则重试）
+         */
+        public void copyTo(PriceQuote quote) {
+            while (true) {
+                long before = version;
+                if ((before & 1) == 0) {
+                    String s = symbol;
+                    double bid = bidPrice;
+                    double ask = askPrice;
+                    long ts = timestamp;
+                    long count = updateCount;
+                    if (version == before) {
+                        quote.set(s, bid, ask, ts, count);
+                        return;
+                    }
+                }
+                Thread.onSpinWait();
+            }
+        }
+        
+        void copyTo(int index, String[] symbols, double[] bidPrices, double[] askPrices, long[] timestamps) {
+            while (true) {
+                long before = version;
+                if ((before & 1) == 0) {
+                    double bid = bidPrice;
+                    double ask = askPrice;
+                    long ts = timestamp;
+                    if (version == before) {
+                        symbols[index] = symbol;
+                        bidPrices[index] = bid;
+                        askPrices[index] = ask;
+                        if (timestamps != null) {
+                            timestamps[index] = ts;
+                        }
+                        return;
+                    }
+                }
+                Thread.onSpinWait();
+            }
+        }
+        
         // Getter方法
         public String getSymbol() { return symbol; }
         public double getBidPrice() { return bidPrice; }
         public double getAskPrice() { return askPrice; }
         public long getTimestamp() { return timestamp; }
         public long getUpdateCount() { return updateCount; }
+        /** 是否已收到报价（只有成交或已注册尚未报价的品种为false） */
+        public boolean hasQuote() { return updateCount > 0; }
         public double getPriceChange() { return priceChange; }
         public double getVolatility() { return volatility; }
         
+        // 定点价格（非定点模式下为0）
+        public long getBidTicks() { return bidTicks; }
+        public long getAskTicks() { return askTicks; }
+        public double getTickSize() { return priceTickSize; }
+        
+        // 成交统计（尚无成交时为0）
+        public double getLastTradePrice() { return lastTradePrice; }
+        public double getLastTradeVolume() { return lastTradeVolume; }
+        public long getLastTradeTicks() { return lastTradeTicks; }
+        public long getLastTradeTimestamp() { return lastTradeTimestamp; }
+        public double getTotalVolume() { return totalVolume; }
+        public long getTradeCount() { return tradeCount; }
+        
+        /**
+         * 成交量加权平均价
+         */
+        public double getVwap() {
+            double volume = totalVolume;
+            return volume > 0 ? tradedNotional / volume : 0.0;
+        }
+        
         public double getSpread() { return askPrice - bidPrice; }
         public double getMidPrice() { return (bidPrice + askPrice) / 2.0; }
         
@@ -0,0 +1,67 @@
+package com.hft.lockfree.handler;
+
+/**
+ * 价格簿快照
+ *
+ * 由聚合线程在处理完某个序列号的事件后一次性复制全部已有报价品种的最新价格，
+ * 与getSequence()严格对齐：快照包含该序列号及之前的全部更新，
+ * 之后的增量从getSequence() + 1开始。
+ * 创建后不再修改，可以在任意线程读取和保存。
+ */
+public final class BookSnapshot {
+
+    private final long sequence;
+    private final String[] symbols;
+    private final double[] bidPrices;
+    private final double[] askPrices;
+    private final long[] timestamps;
+    private final long[] updateCounts;
+
+    BookSnapshot(long sequence, String[] symbols, double[] bidPrices, double[] askPrices,
+                 long[] timestamps, long[] updateCounts) {
+        this.sequence = sequence;
+        this.symbols = symbols;
+        this.bidPrices = bidPrices;
+        this.askPrices = askPrices;
+        this.timestamps = timestamps;
+        this.updateCounts = updateCounts;
+    }
+
+    /**
+     * 快照对齐的环形缓冲区序列号
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * 品种数量
+     */
+    public int size() {
+        return symbols.length;
+    }
+
+    public String getSymbol(int index) { return symbols[index]; }
+    public double getBidPrice(int index) { return bidPrices[index]; }
+    public double getAskPrice(int index) { return askPrices[index]; }
+    public long getTimestamp(int index) { return timestamps[index]; }
+    public long getUpdateCount(int index) { return updateCounts[index]; }
+
+    /**
+     * 查找品种下标
+     * @return 下标，-1表示快照中没有该品种
+     */
+    public int indexOf(String symbol) {
+        for (int i = 0; i < symbols.length; i++) {
+            if (symbols[i].equals(symbol)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return "BookSnapshot{sequence=" + sequence + ", symbols=" + symbols.length + '}';
+    }
+}
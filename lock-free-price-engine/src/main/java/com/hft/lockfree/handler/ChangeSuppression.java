@@ -0,0 +1,112 @@
+package com.hft.lockfree.handler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 最优报价变化抑制配置
+ *
+ * 聚合处理器把每个事件与价格簿中最近一次分发的买卖价比较，
+ * 买价和卖价的变化都不足minTicks个最小变动价位时，事件标记为FLAG_SUPPRESSED，
+ * 分发处理器不再把它推送给订阅者（价格簿本身仍然更新）。
+ *
+ * minTicks为0时只抑制买卖价完全相同的重复报价。
+ * 最小变动价位按品种配置，未配置的品种使用默认值；在引擎启动前配置完成。
+ * 定点事件（FLAG_FIXED_POINT）直接比较事件携带的价位数（isMaterialTicks），
+ * 价位以事件自身的刻度（TickScale）为准，这里配置的最小变动价位不再使用。
+ */
+public final class ChangeSuppression {
+
+    /** 价位数比较的浮点容差 */
+    private static final double TICK_EPSILON = 1e-9;
+
+    private final double defaultTickSize;
+    private final int minTicks;
+    private final Map<String, Double> tickSizes = new HashMap<>();
+
+    /**
+     * @param defaultTickSize 默认最小变动价位
+     * @param minTicks 需要分发的最小变化（最小变动价位的倍数），0表示只抑制完全重复的报价
+     */
+    public ChangeSuppression(double defaultTickSize, int minTicks) {
+        if (defaultTickSize <= 0) {
+            throw new IllegalArgumentException("Tick size must be positive: " + defaultTickSize);
+        }
+        if (minTicks < 0) {
+            throw new IllegalArgumentException("Minimum ticks must not be negative: " + minTicks);
+        }
+        this.defaultTickSize = defaultTickSize;
+        this.minTicks = minTicks;
+    }
+
+    /**
+     * 只抑制完全重复的报价
+     */
+    public static ChangeSuppression duplicatesOnly() {
+        return new ChangeSuppression(1.0, 0);
+    }
+
+    /**
+     * 配置品种的最小变动价位
+     */
+    public ChangeSuppression tickSize(String symbol, double tickSize) {
+        if (tickSize <= 0) {
+            throw new IllegalArgumentException("Tick size must be positive: " + tickSize);
+        }
+        tickSizes.put(symbol, tickSize);
+        return this;
+    }
+
+    /**
+     * 获取品种的最小变动价位（新品种进入价格簿时调用一次）
+     */
+    public double getTickSize(String symbol) {
+        Double tickSize = tickSizes.get(symbol);
+        return tickSize != null ? tickSize : defaultTickSize;
+    }
+
+    public int getMinTicks() {
+        return minTicks;
+    }
+
+    /**
+     * 判断报价变化是否需要分发
+     * @param previousBid 最近一次分发的买入价
+     * @param previousAsk 最近一次分发的卖出价
+     * @param bid 当前买入价
+     * @param ask 当前卖出价
+     * @param tickSize 品种的最小变动价位
+     * @return true表示变化足够大，需要分发
+     */
+    public boolean isMaterial(double previousBid, double previousAsk, double bid, double ask, double tickSize) {
+        if (minTicks == 0) {
+            return bid != previousBid || ask != previousAsk;
+        }
+        // 换算为价位数后留一个很小的容差，避免浮点误差把恰好minTicks个价位的变化判为不足；
+        // 不能取整，否则minTicks-0.5个价位的变化会被四舍五入后分发
+        return Math.abs(bid - previousBid) / tickSize >= minTicks - TICK_EPSILON
+                || Math.abs(ask - previousAsk) / tickSize >= minTicks - TICK_EPSILON;
+    }
+
+    /**
+     * 判断定点报价变化是否需要分发（纯整数比较）
+     * @param previousBidTicks 最近一次分发的买入价价位数
+     * @param previousAskTicks 最近一次分发的卖出价价位数
+     * @param bidTicks 当前买入价价位数
+     * @param askTicks 当前卖出价价位数
+     * @return true表示变化足够大，需要分发
+     */
+    public boolean isMaterialTicks(long previousBidTicks, long previousAskTicks, long bidTicks, long askTicks) {
+        if (minTicks == 0) {
+            return bidTicks != previousBidTicks || askTicks != previousAskTicks;
+        }
+        return Math.abs(bidTicks - previousBidTicks) >= minTicks
+                || Math.abs(askTicks - previousAskTicks) >= minTicks;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeSuppression{minTicks=" + minTicks + ", defaultTickSize=" + defaultTickSize
+                + ", tickSizes=" + tickSizes + '}';
+    }
+}
@@ -1,10 +1,15 @@
 package com.hft.lockfree.handler;
 
 import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.monitor.StageLatencyRecorder;
+import com.hft.lockfree.util.NanoClock;
+import com.hft.lockfree.util.SingleWriterCounter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * 价格分发处理器
@@ -13,40 +18,102 @@ import java.util.concurrent.atomic.AtomicLong;
  * 1. 将处理完成的价格事件分发给订阅者
  * 2. 记录处理日志
  * 3. 统计分发性能
+ *
+ * 订阅者列表采用写时复制数组：订阅/退订很少发生，
+ * 分发线程每个事件只做一次volatile读和数组遍历，不加锁。
+ *
+ * 中途加入的订阅者（SnapshotSubscriber）先由聚合线程生成对齐到序列号s的快照，
+ * 分发线程处理完序列号s后投递快照并开始分发，之后的增量从s + 1开始。
+ *
+ * 慢速订阅者可以用subscribeAsync订阅：分发线程只把事件复制进订阅者自己的邮箱，
+ * 由虚拟线程回调（见MailboxSubscriber），慢订阅者不会拖慢分发和其他订阅者。
+ *
+ * 抽样事件（FLAG_TIMED）在回调订阅者前写入分发时间戳，订阅者可以读到完整的阶段耗时；
+ * 分发完成后记录到StageLatencyRecorder。
+ *
+ * 按批次摊销：分发计数和耗时在批次内累加，批次末尾通知订阅者（onEndOfBatch）并一次提交，
+ * 每个批次只读两次时钟。最小/最大延迟为各批次内平均每个事件的分发耗时。
+ * 批次耗时读取可替换的NanoClock（批次开始和结束各refresh一次）；抽样事件的分发时间戳
+ * 仍直接读取System.nanoTime()。
+ *
+ * 预热事件（FLAG_WARMUP）走同样的分发和批次提交代码，但面对空订阅者数组，
+ * 计数和耗时记入只有分发线程可见的影子统计，订阅者和对外统计都看不到预热事件。
  */
 public class DistributionHandler implements PriceEventHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(DistributionHandler.class);
     
+    private static final PriceSubscriber[] NO_SUBSCRIBERS = new PriceSubscriber[0];
+    
     // 统计信息
-    private final AtomicLong distributedEvents = new AtomicLong(0);
-    private final AtomicLong totalLatency = new AtomicLong(0);
-    private volatile long maxLatency = 0;
-    private volatile long minLatency = Long.MAX_VALUE;
+    private final DistributionStats stats = new DistributionStats();
+    private final StageLatencyRecorder stageLatencies = new StageLatencyRecorder();
+    
+    // 预热事件的影子统计（仅分发线程访问，不对外公开）
+    private final DistributionStats warmUpStats = new DistributionStats();
+    
+    // 时钟（启动前设置）
+    private NanoClock clock = NanoClock.system();
+    
+    // 订阅者（写时复制）
+    private volatile PriceSubscriber[] subscribers = new PriceSubscriber[0];
+    
+    // 等待激活的中途加入者（快照已生成，按快照序列号有序）
+    private final Queue<LateJoiner> lateJoiners = new ConcurrentLinkedQueue<>();
     
     @Override
     public void onEvent(PriceEvent event, long sequence, boolean endOfBatch) throws Exception {
-        // 只分发已处理的事件
-        if (!event.isProcessed()) {
-            return;
+        // 只分发已处理的事件，跳过变化不足被抑制的事件；预热事件不投递给任何订阅者
+        if (event.isProcessed() && !event.isSuppressed()) {
+            if (event.isWarmUp()) {
+                distribute(event, sequence, NO_SUBSCRIBERS, warmUpStats);
+            } else {
+                distribute(event, sequence, subscribers, stats);
+            }
+        }
+        
+        // 快照对齐到当前序列号的中途加入者，从下一个事件开始接收增量
+        if (!lateJoiners.isEmpty()) {
+            activateLateJoiners(sequence);
         }
         
-        long startTime = System.nanoTime();
+        if (endOfBatch) {
+            if (stats.batchEvents != 0) {
+                commitBatch(subscribers, stats);
+            }
+            if (warmUpStats.batchEvents != 0) {
+                commitBatch(NO_SUBSCRIBERS, warmUpStats);
+            }
+        }
+    }
+    
+    /**
+     * 分发单个事件（耗时在批次末尾统一计算）
+     */
+    private void distribute(PriceEvent event, long sequence, PriceSubscriber[] current, DistributionStats stats) {
+        if (stats.batchEvents == 0) {
+            clock.refresh();
+            stats.batchStartTime = clock.nanoTime();
+        }
+        boolean timed = event.isTimed();
+        if (timed) {
+            event.setDistributedTime(System.nanoTime());
+        }
         
         try {
             // 分发到订阅者
-            distributeToSubscribers(event);
+            distributeToSubscribers(event, sequence, current);
+            
+            if (timed) {
+                stageLatencies.record(event);
+            }
             
             // 记录处理日志（可选，用于调试）
             if (logger.isDebugEnabled()) {
                 logPriceUpdate(event, sequence);
             }
             
-            // 计算延迟统计
-            long latency = System.nanoTime() - startTime;
-            updateLatencyStatistics(latency);
-            
-            distributedEvents.incrementAndGet();
+            stats.batchEvents++;
             
         } catch (Exception e) {
             logger.error("Error distributing event at sequence {}: {}", sequence, e.getMessage(), e);
@@ -55,29 +122,140 @@ public class DistributionHandler implements PriceEventHandler {
     
     /**
      * 分发价格事件到订阅者
-     * 注意：这里只是模拟实现，实际应用中会连接到实际的消息系统
-     */
-    private void distributeToSubscribers(PriceEvent event) {
-        // 模拟分发延迟
-        // 在实际应用中，这里会：
-        // 1. 发送到消息队列（如Kafka）
-        // 2. 通知WebSocket客户端
-        // 3. 更新数据库
-        // 4. 触发算法交易逻辑
+     * 单个订阅者抛出的异常不影响其他订阅者
+     */
+    private void distributeToSubscribers(PriceEvent event, long sequence, PriceSubscriber[] current) {
+        for (PriceSubscriber subscriber : current) {
+            try {
+                subscriber.onPrice(event, sequence);
+            } catch (RuntimeException e) {
+                logger.error("Subscriber {} failed at sequence {}: {}", subscriber, sequence, e.getMessage(), e);
+            }
+        }
+    }
+    
+    /**
+     * 批次末尾：通知订阅者，提交计数和耗时
+     */
+    private void commitBatch(PriceSubscriber[] current, DistributionStats stats) {
+        long events = stats.batchEvents;
+        for (PriceSubscriber subscriber : current) {
+            try {
+                subscriber.onEndOfBatch();
+            } catch (RuntimeException e) {
+                logger.error("Subscriber {} failed at end of batch: {}", subscriber, e.getMessage(), e);
+            }
+        }
         
-        // 模拟网络延迟
-        try {
-            Thread.sleep(0, 100); // 100纳秒模拟延迟
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        clock.refresh();
+        updateLatencyStatistics(stats, clock.nanoTime() - stats.batchStartTime, events);
+        stats.distributedEvents.add(events);
+        stats.batchEvents = 0;
+    }
+    
+    /**
+     * 登记中途加入的订阅者（由聚合线程在生成快照后调用）
+     * @param subscriber 订阅者
+     * @param snapshot 对齐到某个序列号的价格簿快照
+     */
+    public void addLateJoiner(SnapshotSubscriber subscriber, BookSnapshot snapshot) {
+        lateJoiners.add(new LateJoiner(subscriber, snapshot));
+    }
+    
+    private void activateLateJoiners(long sequence) {
+        LateJoiner joiner;
+        while ((joiner = lateJoiners.peek()) != null && joiner.snapshot().getSequence() <= sequence) {
+            lateJoiners.poll();
+            try {
+                joiner.subscriber().onSnapshot(joiner.snapshot());
+            } catch (RuntimeException e) {
+                logger.error("Subscriber {} failed on snapshot at sequence {}: {}",
+                        joiner.subscriber(), joiner.snapshot().getSequence(), e.getMessage(), e);
+            }
+            subscribe(joiner.subscriber());
+        }
+    }
+    
+    private record LateJoiner(SnapshotSubscriber subscriber, BookSnapshot snapshot) {
+    }
+    
+    /**
+     * 添加订阅者（从下一个分发的事件开始生效）
+     */
+    public synchronized void subscribe(PriceSubscriber subscriber) {
+        if (subscriber == null) {
+            throw new IllegalArgumentException("Subscriber must not be null");
+        }
+        PriceSubscriber[] current = subscribers;
+        PriceSubscriber[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = subscriber;
+        subscribers = updated;
+    }
+    
+    /**
+     * 以邮箱模式添加订阅者：在独立的虚拟线程中回调，可以阻塞
+     * @param subscriber 订阅者
+     * @param capacity 邮箱容量（2的幂），邮箱满时丢弃新事件
+     * @return 已启动的邮箱订阅者（退订时传给unsubscribe）
+     */
+    public MailboxSubscriber subscribeAsync(PriceSubscriber subscriber, int capacity) {
+        if (subscriber == null) {
+            throw new IllegalArgumentException("Subscriber must not be null");
+        }
+        MailboxSubscriber mailbox = new MailboxSubscriber(subscriber.toString(), subscriber, capacity).start();
+        subscribe(mailbox);
+        return mailbox;
+    }
+    
+    /**
+     * 移除订阅者（邮箱订阅者在投递完剩余事件后停止）
+     * @return true表示订阅者存在并已移除
+     */
+    public boolean unsubscribe(PriceSubscriber subscriber) {
+        boolean removed = removeSubscriber(subscriber);
+        if (removed && subscriber instanceof MailboxSubscriber mailbox) {
+            mailbox.close();
+        }
+        return removed;
+    }
+    
+    private synchronized boolean removeSubscriber(PriceSubscriber subscriber) {
+        PriceSubscriber[] current = subscribers;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscriber) {
+                PriceSubscriber[] updated = new PriceSubscriber[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                subscribers = updated;
+                return true;
+            }
         }
+        return false;
+    }
+    
+    /**
+     * 设置时钟（在引擎启动前调用）
+     */
+    public void setClock(NanoClock clock) {
+        this.clock = clock;
+    }
+    
+    public NanoClock getClock() {
+        return clock;
+    }
+    
+    /**
+     * 获取订阅者数量
+     */
+    public int getSubscriberCount() {
+        return subscribers.length;
     }
     
     /**
      * 记录价格更新日志
      */
     private void logPriceUpdate(PriceEvent event, long sequence) {
-        long processingLatency = System.nanoTime() - event.getTimestamp();
+        long processingLatency = clock.nanoTime() - event.getTimestamp();
         
         logger.debug("Price distributed: seq={}, symbol={}, bid={}, ask={}, latency={}ns", 
                 sequence, event.getSymbol(), event.getBidPrice(), event.getAskPrice(), processingLatency);
@@ -85,18 +263,41 @@ public class DistributionHandler implements PriceEventHandler {
     
     /**
      * 更新延迟统计
+     * @param stats 正式或预热统计
+     * @param batchLatency 批次分发总耗时
+     * @param events 批次内分发的事件数
      */
-    private void updateLatencyStatistics(long latency) {
-        totalLatency.addAndGet(latency);
+    private static void updateLatencyStatistics(DistributionStats stats, long batchLatency, long events) {
+        stats.totalLatency.add(batchLatency);
+        long latency = batchLatency / events;
         
         // 更新最大延迟
-        if (latency > maxLatency) {
-            maxLatency = latency;
+        if (latency > stats.maxLatency.get()) {
+            stats.maxLatency.set(latency);
         }
         
         // 更新最小延迟
-        if (latency < minLatency) {
-            minLatency = latency;
+        if (latency < stats.minLatency.get()) {
+            stats.minLatency.set(latency);
+        }
+    }
+    
+    /**
+     * 分发计数和耗时，以及当前批次的累计值（批次字段仅分发线程访问）
+     */
+    private static final class DistributionStats {
+        final SingleWriterCounter distributedEvents = new SingleWriterCounter();
+        final SingleWriterCounter totalLatency = new SingleWriterCounter();
+        final SingleWriterCounter maxLatency = new SingleWriterCounter(0);
+        final SingleWriterCounter minLatency = new SingleWriterCounter(Long.MAX_VALUE);
+        long batchEvents;
+        long batchStartTime;
+        
+        void reset() {
+            distributedEvents.reset();
+            totalLatency.reset();
+            maxLatency.reset();
+            minLatency.set(Long.MAX_VALUE);
         }
     }
     
@@ -113,52 +314,63 @@ public class DistributionHandler implements PriceEventHandler {
     
     @Override
     public void shutdown() {
+        for (PriceSubscriber subscriber : subscribers) {
+            if (subscriber instanceof MailboxSubscriber mailbox) {
+                mailbox.close();
+            }
+        }
         logger.info("DistributionHandler shutdown. Final statistics: {}", getStatistics());
     }
     
     @Override
     public String getStatistics() {
-        long events = distributedEvents.get();
-        long avgLatency = events > 0 ? totalLatency.get() / events : 0;
+        long events = stats.distributedEvents.get();
+        long avgLatency = events > 0 ? stats.totalLatency.get() / events : 0;
         
-        return String.format("DistributionHandler[distributed=%d, avgLatency=%dns, minLatency=%dns, maxLatency=%dns]", 
-                events, avgLatency, minLatency == Long.MAX_VALUE ? 0 : minLatency, maxLatency);
+        return String.format("DistributionHandler[distributed=%d, subscribers=%d, avgLatency=%dns, minLatency=%dns, maxLatency=%dns]", 
+                events, subscribers.length, avgLatency, getMinLatency(), getMaxLatency());
     }
     
     @Override
     public void resetStatistics() {
-        distributedEvents.set(0);
-        totalLatency.set(0);
-        maxLatency = 0;
-        minLatency = Long.MAX_VALUE;
+        stats.reset();
+        stageLatencies.reset();
     }
     
     /**
      * 获取平均分发延迟（纳秒）
      */
     public long getAverageLatency() {
-        long events = distributedEvents.get();
-        return events > 0 ? totalLatency.get() / events : 0;
+        long events = stats.distributedEvents.get();
+        return events > 0 ? stats.totalLatency.get() / events : 0;
     }
     
     /**
      * 获取分发事件总数
      */
     public long getDistributedEventCount() {
-        return distributedEvents.get();
+        return stats.distributedEvents.get();
     }
     
     /**
-     * 获取最大延迟（纳秒）
+     * 获取最大延迟（纳秒，批次内平均每个事件）
      */
     public long getMaxLatency() {
-        return maxLatency;
+        return stats.maxLatency.get();
+    }
+    
+    /**
+     * 获取抽样事件的分阶段延迟
+     */
+    public StageLatencyRecorder getStageLatencies() {
+        return stageLatencies;
     }
     
     /**
-     * 获取最小延迟（纳秒）
+     * 获取最小延迟（纳秒，批次内平均每个事件）
      */
     public long getMinLatency() {
-        return minLatency == Long.MAX_VALUE ? 0 : minLatency;
+        long min = stats.minLatency.get();
+        return min == Long.MAX_VALUE ? 0 : min;
     }
 }
\ No newline at end of file
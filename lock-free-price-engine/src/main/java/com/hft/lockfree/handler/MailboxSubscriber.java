@@ -0,0 +1,221 @@
+package com.hft.lockfree.handler;
+
+import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.util.SingleWriterCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 邮箱订阅者：慢速订阅者的异步投递模式
+ *
+ * 分发线程只把事件复制进订阅者自己的有界邮箱（单生产者单消费者，槽位预分配），
+ * 由一个虚拟线程排空邮箱并回调真正的订阅者。订阅者可以做阻塞IO（风控看板、审计落盘），
+ * 阻塞时虚拟线程让出载体线程，成千上万个订阅者也只占用少量平台线程。
+ *
+ * 设计要点：
+ * 1. 分发线程从不阻塞：邮箱满时丢弃新事件并计数
+ * 2. 消费线程空闲时park；分发线程在批次末尾（onEndOfBatch）检查并唤醒，
+ *    一个批次只做一次全屏障和一次unpark，邮箱满时立即唤醒
+ * 3. 回调收到的是邮箱中的副本，回调期间有效，返回后槽位被复用
+ *
+ * 通过DistributionHandler.subscribeAsync创建。
+ */
+public class MailboxSubscriber implements PriceSubscriber, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailboxSubscriber.class);
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private final String name;
+    private final PriceSubscriber delegate;
+    private final PriceEvent[] slots;
+    private final long[] sequences;
+    private final int mask;
+
+    // 生产者位置（分发线程写），消费者位置（虚拟线程写）
+    private final SingleWriterCounter producerPosition = new SingleWriterCounter();
+    private final SingleWriterCounter consumerPosition = new SingleWriterCounter();
+    private final SingleWriterCounter overflowCount = new SingleWriterCounter();
+    private final SingleWriterCounter subscriberErrors = new SingleWriterCounter();
+
+    // 生产者本地缓存的消费者位置
+    private long cachedConsumerPosition;
+
+    // 消费线程即将park或已park
+    private volatile boolean waiting;
+    private volatile boolean running;
+    private Thread consumerThread;
+
+    /**
+     * @param name 名称（用于线程名和日志）
+     * @param delegate 真正的订阅者（在虚拟线程中回调，可以阻塞）
+     * @param capacity 邮箱容量（必须是2的幂）
+     */
+    public MailboxSubscriber(String name, PriceSubscriber delegate, int capacity) {
+        if (capacity < 1 || (capacity & (capacity - 1)) != 0) {
+            throw new IllegalArgumentException("Mailbox capacity must be a power of 2");
+        }
+        this.name = name;
+        this.delegate = delegate;
+        this.mask = capacity - 1;
+        this.slots = new PriceEvent[capacity];
+        this.sequences = new long[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new PriceEvent();
+        }
+    }
+
+    /**
+     * 启动消费虚拟线程
+     */
+    public synchronized MailboxSubscriber start() {
+        if (!running) {
+            running = true;
+            consumerThread = Thread.ofVirtual().name("PriceEngine-Mailbox-" + name).start(this::drainLoop);
+        }
+        return this;
+    }
+
+    /**
+     * 投递事件（仅分发线程调用，不阻塞）
+     */
+    @Override
+    public void onPrice(PriceEvent event, long sequence) {
+        long position = producerPosition.get();
+        if (position - cachedConsumerPosition >= slots.length) {
+            cachedConsumerPosition = consumerPosition.get();
+            if (position - cachedConsumerPosition >= slots.length) {
+                overflowCount.increment();
+                // 批次比邮箱大时不等批次末尾，先唤醒消费线程腾出空间
+                signal();
+                return;
+            }
+        }
+        int index = (int) position & mask;
+        slots[index].copyFrom(event);
+        sequences[index] = sequence;
+        producerPosition.set(position + 1);
+    }
+
+    /**
+     * 批次末尾唤醒消费线程（仅分发线程调用）
+     */
+    @Override
+    public void onEndOfBatch() {
+        signal();
+    }
+
+    private void signal() {
+        // 与消费线程的"先置waiting再检查位置"配对，避免丢失唤醒
+        VarHandle.fullFence();
+        if (waiting) {
+            LockSupport.unpark(consumerThread);
+        }
+    }
+
+    private void drainLoop() {
+        while (true) {
+            long position = consumerPosition.get();
+            long available = producerPosition.get() - position;
+            if (available == 0) {
+                if (!running) {
+                    return;
+                }
+                waiting = true;
+                if (producerPosition.get() == position && running) {
+                    LockSupport.park(this);
+                }
+                waiting = false;
+                continue;
+            }
+            for (long i = 0; i < available; i++) {
+                int index = (int) (position + i) & mask;
+                try {
+                    delegate.onPrice(slots[index], sequences[index]);
+                } catch (RuntimeException e) {
+                    subscriberErrors.increment();
+                    logger.error("Mailbox subscriber {} failed at sequence {}: {}",
+                            name, sequences[index], e.getMessage(), e);
+                }
+                // 逐条释放，慢订阅者处理期间生产者可以继续写入
+                consumerPosition.set(position + i + 1);
+            }
+        }
+    }
+
+    /**
+     * 停止消费线程（先投递完邮箱中剩余的事件）
+     */
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(consumerThread);
+        try {
+            consumerThread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        consumerThread = null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public PriceSubscriber getDelegate() {
+        return delegate;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * 已回调给订阅者的事件数
+     */
+    public long getDeliveredCount() {
+        return consumerPosition.get();
+    }
+
+    /**
+     * 邮箱中等待投递的事件数
+     */
+    public long getPendingCount() {
+        return producerPosition.get() - consumerPosition.get();
+    }
+
+    /**
+     * 邮箱满被丢弃的事件数
+     */
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    public long getSubscriberErrorCount() {
+        return subscriberErrors.get();
+    }
+
+    public String getStatistics() {
+        return String.format("MailboxSubscriber[%s, capacity=%d, delivered=%d, pending=%d, overflow=%d, errors=%d]",
+                name, slots.length, getDeliveredCount(), getPendingCount(), getOverflowCount(),
+                getSubscriberErrorCount());
+    }
+
+    @Override
+    public String toString() {
+        return "MailboxSubscriber[" + name + "]";
+    }
+}
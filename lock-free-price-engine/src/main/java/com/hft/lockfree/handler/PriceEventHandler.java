@@ -8,6 +8,9 @@ import com.lmax.disruptor.EventHandler;
  * 
  * 继承自Disruptor的EventHandler，提供额外的生命周期管理
  * 和性能监控接口
+ *
+ * 注意：LockFreePriceEngine.warmUp()发布的预热事件（isWarmUp()）会经过所有阶段，
+ * 自定义处理器不能让它们影响真实状态（直接跳过，或只更新影子状态）。
  */
 public interface PriceEventHandler extends EventHandler<PriceEvent> {
     
@@ -0,0 +1,31 @@
+package com.hft.lockfree.handler;
+
+import com.hft.lockfree.event.PriceEvent;
+
+/**
+ * 价格订阅者
+ *
+ * 由DistributionHandler在分发线程中按订阅顺序回调。
+ *
+ * 注意：事件对象属于环形缓冲区槽位，回调返回后会被复用，
+ * 实现不能保存event引用，需要的字段应当在回调内复制；
+ * 回调必须非阻塞，否则会拖慢整条处理链。
+ */
+@FunctionalInterface
+public interface PriceSubscriber {
+
+    /**
+     * 收到已通过验证和聚合的价格
+     * @param event 价格事件（只读，仅在回调期间有效）
+     * @param sequence 环形缓冲区序列号
+     */
+    void onPrice(PriceEvent event, long sequence);
+    
+    /**
+     * 一个批次分发完毕（批次内至少分发了一个事件）
+     * 
+     * 需要刷新、唤醒下游的订阅者在这里统一处理，批次越大每个事件分摊的开销越小。
+     */
+    default void onEndOfBatch() {
+    }
+}
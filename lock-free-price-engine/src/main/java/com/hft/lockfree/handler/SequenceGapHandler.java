@@ -0,0 +1,212 @@
+package com.hft.lockfree.handler;
+
+import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.util.SingleWriterCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 序列号检查处理器
+ *
+ * 职责：
+ * 1. 按数据源跟踪期望的序列号（原始long数组，按sourceId索引）
+ * 2. 丢弃重复和过期的乱序行情
+ * 3. 发现序列号缺口时通知监听器，触发恢复
+ *
+ * 位于处理链最前端，丢弃的事件带有FLAG_DROPPED标记，后续处理器不再处理。
+ * sourceSequence为0的事件视为无序列号数据，直接放行。
+ *
+ * 检查计数在批次内累加到普通字段，批次末尾一次发布到计数器；
+ * 缺口、重复等异常计数很少发生，仍然逐个发布。
+ *
+ * 预热事件（FLAG_WARMUP）使用独立的影子序列号数组，走同样的检查代码，
+ * 不计数、不通知监听器，不影响真实数据源的期望序列号。
+ */
+public class SequenceGapHandler implements PriceEventHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SequenceGapHandler.class);
+
+    // 支持的最大数据源数量（sourceId取值范围[0, MAX_SOURCES)）
+    public static final int MAX_SOURCES = 256;
+
+    // 每个数据源期望的下一个序列号，0表示尚未收到该数据源的数据
+    private final long[] expectedSequences = new long[MAX_SOURCES];
+
+    // 每个数据源的缺口次数
+    private final long[] sourceGapCounts = new long[MAX_SOURCES];
+
+    // 预热事件的影子状态
+    private final long[] warmUpExpectedSequences = new long[MAX_SOURCES];
+    private final long[] warmUpGapCounts = new long[MAX_SOURCES];
+
+    // 统计信息
+    private final SingleWriterCounter checkedEvents = new SingleWriterCounter();
+    private final SingleWriterCounter gapEvents = new SingleWriterCounter();
+    private final SingleWriterCounter missingEvents = new SingleWriterCounter();
+    private final SingleWriterCounter duplicateEvents = new SingleWriterCounter();
+    private final SingleWriterCounter staleEvents = new SingleWriterCounter();
+
+    // 当前批次尚未发布的检查计数（仅处理器线程访问）
+    private long batchCheckedEvents;
+
+    private volatile SequenceGapListener gapListener = SequenceGapHandler::logGap;
+
+    @Override
+    public void onEvent(PriceEvent event, long sequence, boolean endOfBatch) throws Exception {
+        if (event.isWarmUp()) {
+            checkSequence(event, warmUpExpectedSequences, warmUpGapCounts, false);
+        } else {
+            checkSequence(event, expectedSequences, sourceGapCounts, true);
+        }
+
+        if (endOfBatch && batchCheckedEvents != 0) {
+            checkedEvents.add(batchCheckedEvents);
+            batchCheckedEvents = 0;
+        }
+    }
+
+    /**
+     * @param expectedBySource 期望序列号（真实或影子）
+     * @param gapsBySource 缺口次数（真实或影子）
+     * @param live false表示预热事件：不计数、不通知
+     */
+    private void checkSequence(PriceEvent event, long[] expectedBySource, long[] gapsBySource, boolean live) {
+        long sourceSequence = event.getSourceSequence();
+        int sourceId = event.getSourceId();
+
+        // 无序列号或数据源ID越界的事件不做检查
+        if (sourceSequence <= 0 || sourceId < 0 || sourceId >= MAX_SOURCES) {
+            return;
+        }
+
+        if (live) {
+            batchCheckedEvents++;
+        }
+
+        long expected = expectedBySource[sourceId];
+
+        // 首条数据或按序到达
+        if (expected == 0 || sourceSequence == expected) {
+            expectedBySource[sourceId] = sourceSequence + 1;
+            return;
+        }
+
+        // 序列号跳跃：记录缺口，事件本身仍然有效
+        if (sourceSequence > expected) {
+            expectedBySource[sourceId] = sourceSequence + 1;
+            long gaps = ++gapsBySource[sourceId];
+            if (live) {
+                gapEvents.increment();
+                missingEvents.add(sourceSequence - expected);
+                notifyGap(sourceId, expected, sourceSequence, gaps);
+            }
+            return;
+        }
+
+        // 序列号回退：重复或过期乱序数据，丢弃
+        if (live) {
+            if (sourceSequence == expected - 1) {
+                duplicateEvents.increment();
+            } else {
+                staleEvents.increment();
+            }
+        }
+        event.addFlag(PriceEvent.FLAG_DROPPED);
+        event.setProcessed(false);
+    }
+
+    /**
+     * 通知缺口监听器，监听器异常不影响处理链
+     */
+    private void notifyGap(int sourceId, long expected, long received, long gaps) {
+        SequenceGapListener listener = gapListener;
+        if (listener == null) {
+            return;
+        }
+        try {
+            listener.onSequenceGap(sourceId, expected, received, gaps);
+        } catch (Exception e) {
+            logger.error("Gap listener failed for source {}: {}", sourceId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 默认监听器：记录缺口日志
+     */
+    private static void logGap(int sourceId, long expected, long received, long totalGaps) {
+        logger.warn("Sequence gap on source {}: expected={}, received={}, missing={}, totalGaps={}",
+                sourceId, expected, received, received - expected, totalGaps);
+    }
+
+    /**
+     * 设置缺口监听器（null表示不通知）
+     */
+    public void setGapListener(SequenceGapListener gapListener) {
+        this.gapListener = gapListener;
+    }
+
+    /**
+     * 获取数据源期望的下一个序列号（监控读取，可能略有滞后）
+     */
+    public long getExpectedSequence(int sourceId) {
+        return expectedSequences[sourceId];
+    }
+
+    /**
+     * 获取数据源的缺口次数（监控读取，可能略有滞后）
+     */
+    public long getGapCount(int sourceId) {
+        return sourceGapCounts[sourceId];
+    }
+
+    @Override
+    public String getHandlerName() {
+        return "SequenceGapHandler";
+    }
+
+    @Override
+    public void initialize() {
+        logger.info("SequenceGapHandler initialized");
+        resetStatistics();
+    }
+
+    @Override
+    public void shutdown() {
+        logger.info("SequenceGapHandler shutdown. Final statistics: {}", getStatistics());
+    }
+
+    @Override
+    public String getStatistics() {
+        return String.format("SequenceGapHandler[checked=%d, gaps=%d, missing=%d, duplicates=%d, stale=%d]",
+                checkedEvents.get(), gapEvents.get(), missingEvents.get(),
+                duplicateEvents.get(), staleEvents.get());
+    }
+
+    /**
+     * 重置统计信息（期望序列号保持不变，避免重置后误报缺口）
+     */
+    @Override
+    public void resetStatistics() {
+        checkedEvents.reset();
+        gapEvents.reset();
+        missingEvents.reset();
+        duplicateEvents.reset();
+        staleEvents.reset();
+    }
+
+    public long getGapEventCount() {
+        return gapEvents.get();
+    }
+
+    public long getMissingEventCount() {
+        return missingEvents.get();
+    }
+
+    public long getDuplicateEventCount() {
+        return duplicateEvents.get();
+    }
+
+    public long getStaleEventCount() {
+        return staleEvents.get();
+    }
+}
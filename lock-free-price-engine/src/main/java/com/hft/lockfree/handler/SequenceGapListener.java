@@ -0,0 +1,23 @@
+package com.hft.lockfree.handler;
+
+/**
+ * 序列号缺口监听器
+ *
+ * 由SequenceGapHandler在检测到数据源序列号跳跃时回调，
+ * 用于触发重传请求或快照恢复。
+ *
+ * 注意：回调在处理器线程中执行，实现必须非阻塞，
+ * 耗时的恢复逻辑应交给其他线程处理。
+ */
+@FunctionalInterface
+public interface SequenceGapListener {
+
+    /**
+     * 检测到序列号缺口
+     * @param sourceId 数据源ID
+     * @param expectedSequence 期望收到的序列号（缺口起点）
+     * @param receivedSequence 实际收到的序列号（缺口终点为receivedSequence - 1）
+     * @param totalGaps 该数据源累计缺口次数
+     */
+    void onSequenceGap(int sourceId, long expectedSequence, long receivedSequence, long totalGaps);
+}
@@ -0,0 +1,16 @@
+package com.hft.lockfree.handler;
+
+/**
+ * 带初始快照的订阅者（中途加入的订阅者）
+ *
+ * 先收到一次与序列号对齐的完整价格簿快照，之后从快照序列号的下一个事件起
+ * 按顺序收到增量更新，中间没有遗漏也没有重复。两种回调都在分发线程中执行。
+ */
+public interface SnapshotSubscriber extends PriceSubscriber {
+
+    /**
+     * 收到初始快照（只调用一次，先于任何onPrice）
+     * @param snapshot 价格簿快照（不可变，可以保存）
+     */
+    void onSnapshot(BookSnapshot snapshot);
+}
@@ -1,11 +1,14 @@
 package com.hft.lockfree.handler;
 
+import com.hft.lockfree.deadletter.DeadLetterRing;
+import com.hft.lockfree.deadletter.RejectReason;
 import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.event.SymbolRegistry;
+import com.hft.lockfree.util.NanoClock;
+import com.hft.lockfree.util.SingleWriterCounter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.atomic.AtomicLong;
-
 /**
  * 价格验证处理器
  * 
@@ -13,6 +16,18 @@ import java.util.concurrent.atomic.AtomicLong;
  * 1. 验证价格数据的有效性
  * 2. 检查数据范围和逻辑一致性
  * 3. 统计验证结果
+ * 4. 被拒绝的事件复制到死信环形缓冲区，由后台线程记录日志或落盘，处理器线程不做任何IO
+ *
+ * 总数和有效数在批次内累加到普通字段，批次末尾一次发布到计数器。
+ * 预热事件（FLAG_WARMUP）走同样的验证逻辑，但不计数，被拒绝时也不进入死信缓冲区。
+ * 定点事件（FLAG_FIXED_POINT）按价位数做整数检查，价差比例换算为整数比较，没有除法。
+ * 成交事件（TYPE_TRADE）检查成交价范围和成交量，不做价差检查；未知类型的事件被拒绝。
+ *
+ * 配置了SymbolRegistry时，未注册或已移除品种的事件被拒绝（预热事件除外）。
+ *
+ * 未来时间戳检查读取可替换的NanoClock，批次开始时refresh()一次；缓存型时钟读到的时间
+ * 可能落后，检查时放宽时钟的分辨率。缓存时钟判为未来时间时再用System.nanoTime()确认，
+ * 时钟停走（更新线程被抢占或未启动）不会误拒正常行情。抽样事件的阶段时间戳仍直接读取System.nanoTime()。
  */
 public class ValidationHandler implements PriceEventHandler {
     
@@ -22,66 +37,243 @@ public class ValidationHandler implements PriceEventHandler {
     private static final double MIN_PRICE = 0.0001;  // 最小价格
     private static final double MAX_PRICE = 1000000; // 最大价格
     private static final double MAX_SPREAD_RATIO = 0.1; // 最大价差比例
+    // 定点价差检查：spread / mid > ratio 等价于 spread × (2 / ratio) > bid + ask
+    private static final long SPREAD_SCALE = Math.round(2 / MAX_SPREAD_RATIO);
+    // 验证异常日志的最小间隔，避免持续出错的数据源刷屏
+    private static final long EXCEPTION_LOG_INTERVAL_NANOS = 1_000_000_000L;
     
     // 统计信息
-    private final AtomicLong totalEvents = new AtomicLong(0);
-    private final AtomicLong validEvents = new AtomicLong(0);
-    private final AtomicLong invalidEvents = new AtomicLong(0);
+    private final SingleWriterCounter totalEvents = new SingleWriterCounter();
+    private final SingleWriterCounter validEvents = new SingleWriterCounter();
+    private final SingleWriterCounter invalidEvents = new SingleWriterCounter();
+    
+    // 当前批次尚未发布的计数（仅处理器线程访问）
+    private long batchTotalEvents;
+    private long batchValidEvents;
+    
+    // 死信缓冲区
+    private final DeadLetterRing deadLetterRing;
+    
+    // 时钟（启动前设置），未来时间戳检查的容差
+    private NanoClock clock = NanoClock.system();
+    private long futureTolerance;
+    private boolean batchStart = true;
+    
+    // 品种注册表，null表示接受任意品种（启动前设置）
+    private SymbolRegistry symbolRegistry;
+    
+    // 验证异常的限速日志状态（仅处理器线程访问）
+    private long lastExceptionLogTime;
+    private boolean exceptionLogged;
+    private long unloggedExceptions;
+    
+    /**
+     * 使用默认死信缓冲区（后台线程记录warn日志）
+     */
+    public ValidationHandler() {
+        this(new DeadLetterRing("validation", DeadLetterRing.DEFAULT_CAPACITY, DeadLetterRing.loggingSink()));
+    }
+    
+    /**
+     * @param deadLetterRing 死信缓冲区，生命周期随处理器启动和关闭
+     */
+    public ValidationHandler(DeadLetterRing deadLetterRing) {
+        this.deadLetterRing = deadLetterRing;
+    }
     
     @Override
     public void onEvent(PriceEvent event, long sequence, boolean endOfBatch) throws Exception {
-        totalEvents.incrementAndGet();
+        if (batchStart) {
+            clock.refresh();
+            batchStart = false;
+        }
         
+        // 已被序列检查丢弃的事件不参与验证
+        if (!event.isDropped()) {
+            validate(event, sequence);
+        }
+        
+        if (endOfBatch) {
+            batchStart = true;
+            if (batchTotalEvents != 0) {
+                totalEvents.add(batchTotalEvents);
+                validEvents.add(batchValidEvents);
+                batchTotalEvents = 0;
+                batchValidEvents = 0;
+            }
+        }
+    }
+    
+    private void validate(PriceEvent event, long sequence) {
+        boolean live = !event.isWarmUp();
+        if (live) {
+            batchTotalEvents++;
+        }
+        
+        RejectReason reason;
         try {
-            if (validateEvent(event)) {
-                validEvents.incrementAndGet();
-                // 标记为已处理
-                event.setProcessed(true);
+            if (live && symbolRegistry != null && !symbolRegistry.isActive(event.getSymbolId())) {
+                reason = RejectReason.UNKNOWN_SYMBOL;
             } else {
-                invalidEvents.incrementAndGet();
-                // 无效数据，重置事件
-                event.reset();
-                logger.warn("Invalid price event at sequence {}: {}", sequence, event);
+                reason = switch (event.getEventType()) {
+                    case PriceEvent.TYPE_QUOTE -> validateEvent(event);
+                    case PriceEvent.TYPE_TRADE -> validateTrade(event);
+                    default -> RejectReason.UNKNOWN_EVENT_TYPE;
+                };
             }
         } catch (Exception e) {
-            invalidEvents.incrementAndGet();
-            logger.error("Error validating event at sequence {}: {}", sequence, e.getMessage(), e);
-            // 发生异常时重置事件
+            reason = RejectReason.EXCEPTION;
+            logException(e, event, sequence);
+        }
+        
+        if (reason == null) {
+            if (live) {
+                batchValidEvents++;
+            }
+            if (event.isTimed()) {
+                event.setValidatedTime(System.nanoTime());
+            }
+            // 标记为已处理
+            event.setProcessed(true);
+        } else {
+            if (live) {
+                invalidEvents.increment();
+                // 先复制到死信缓冲区再重置事件；缓冲区满时只计数
+                deadLetterRing.offer(event, sequence, reason);
+            }
             event.reset();
         }
     }
     
+    /**
+     * 记录验证异常及其堆栈（每秒最多一条，期间省略的条数随下一条日志输出）
+     */
+    private void logException(Exception e, PriceEvent event, long sequence) {
+        long now = System.nanoTime();
+        if (exceptionLogged && now - lastExceptionLogTime < EXCEPTION_LOG_INTERVAL_NANOS) {
+            unloggedExceptions++;
+            return;
+        }
+        logger.error("Validation failed with exception at sequence {} for {} ({} similar suppressed): {}",
+                sequence, event.getSymbol(), unloggedExceptions, e.toString(), e);
+        lastExceptionLogTime = now;
+        exceptionLogged = true;
+        unloggedExceptions = 0;
+    }
+    
     /**
      * 验证价格事件
      * @param event 待验证的事件
-     * @return true表示有效
+     * @return 拒绝原因，null表示有效
      */
-    private boolean validateEvent(PriceEvent event) {
+    private RejectReason validateEvent(PriceEvent event) {
+        if (event.isFixedPoint()) {
+            return validateFixedPoint(event);
+        }
+        
         // 基础数据检查
         if (!event.isValid()) {
-            return false;
+            return RejectReason.INVALID_DATA;
         }
         
         // 价格范围检查
         if (event.getBidPrice() < MIN_PRICE || event.getBidPrice() > MAX_PRICE ||
             event.getAskPrice() < MIN_PRICE || event.getAskPrice() > MAX_PRICE) {
-            return false;
+            return RejectReason.PRICE_OUT_OF_RANGE;
         }
         
         // 价差合理性检查
         double spread = event.getSpread();
         double midPrice = event.getMidPrice();
         if (spread / midPrice > MAX_SPREAD_RATIO) {
-            return false;
+            return RejectReason.SPREAD_TOO_WIDE;
         }
         
         // 时间戳检查（不能是未来时间）
-        long currentTime = System.nanoTime();
-        if (event.getTimestamp() > currentTime) {
-            return false;
+        if (isFuture(event.getTimestamp())) {
+            return RejectReason.FUTURE_TIMESTAMP;
         }
         
-        return true;
+        return null;
+    }
+    
+    /**
+     * 验证定点价格事件（价位数比较，只有范围检查需要乘一次最小变动价位）
+     */
+    private RejectReason validateFixedPoint(PriceEvent event) {
+        String symbol = event.getSymbol();
+        long bidTicks = event.getBidTicks();
+        long askTicks = event.getAskTicks();
+        if (symbol == null || symbol.isEmpty() || bidTicks <= 0 || bidTicks > askTicks
+                || event.getTimestamp() <= 0) {
+            return RejectReason.INVALID_DATA;
+        }
+        
+        // bid <= ask，只需检查买入价下限和卖出价上限
+        double tickSize = event.getTickSize();
+        if (bidTicks * tickSize < MIN_PRICE || askTicks * tickSize > MAX_PRICE) {
+            return RejectReason.PRICE_OUT_OF_RANGE;
+        }
+        
+        if ((askTicks - bidTicks) * SPREAD_SCALE > bidTicks + askTicks) {
+            return RejectReason.SPREAD_TOO_WIDE;
+        }
+        
+        if (isFuture(event.getTimestamp())) {
+            return RejectReason.FUTURE_TIMESTAMP;
+        }
+        
+        return null;
+    }
+    
+    /**
+     * 验证成交事件（成交价即买入价字段）
+     */
+    private RejectReason validateTrade(PriceEvent event) {
+        String symbol = event.getSymbol();
+        if (symbol == null || symbol.isEmpty() || event.getTimestamp() <= 0) {
+            return RejectReason.INVALID_DATA;
+        }
+        
+        double price = event.isFixedPoint() ? event.getBidTicks() * event.getTickSize() : event.getTradePrice();
+        if (!(price >= MIN_PRICE && price <= MAX_PRICE)) {
+            return RejectReason.PRICE_OUT_OF_RANGE;
+        }
+        
+        if (!(event.getVolume() > 0)) {
+            return RejectReason.INVALID_VOLUME;
+        }
+        
+        if (isFuture(event.getTimestamp())) {
+            return RejectReason.FUTURE_TIMESTAMP;
+        }
+        
+        return null;
+    }
+    
+    private boolean isFuture(long timestamp) {
+        // 快路径只读缓存时间；只有疑似未来时间戳才读一次系统时钟确认
+        return timestamp > clock.nanoTime() + futureTolerance
+                && timestamp > System.nanoTime() + futureTolerance;
+    }
+    
+    /**
+     * 设置时钟（在引擎启动前调用）
+     */
+    public void setClock(NanoClock clock) {
+        this.clock = clock;
+        this.futureTolerance = clock.getResolutionNanos();
+    }
+    
+    public NanoClock getClock() {
+        return clock;
+    }
+    
+    /**
+     * 设置品种注册表（在引擎启动前调用），null表示不检查
+     */
+    public void setSymbolRegistry(SymbolRegistry symbolRegistry) {
+        this.symbolRegistry = symbolRegistry;
     }
     
     @Override
@@ -93,11 +285,14 @@ public class ValidationHandler implements PriceEventHandler {
     public void initialize() {
         logger.info("ValidationHandler initialized");
         resetStatistics();
+        deadLetterRing.start();
     }
     
     @Override
     public void shutdown() {
-        logger.info("ValidationHandler shutdown. Final statistics: {}", getStatistics());
+        deadLetterRing.stop();
+        logger.info("ValidationHandler shutdown. Final statistics: {}, {}",
+                getStatistics(), deadLetterRing.getStatistics());
     }
     
     @Override
@@ -113,9 +308,13 @@ public class ValidationHandler implements PriceEventHandler {
     
     @Override
     public void resetStatistics() {
-        totalEvents.set(0);
-        validEvents.set(0);
-        invalidEvents.set(0);
+        totalEvents.reset();
+        validEvents.reset();
+        invalidEvents.reset();
+    }
+    
+    public DeadLetterRing getDeadLetterRing() {
+        return deadLetterRing;
     }
     
     /**
@@ -0,0 +1,20 @@
+package com.hft.lockfree.ipc;
+
+/**
+ * 共享内存价格消费回调
+ *
+ * 字段在序列锁校验通过后才回调，都是已复制的基本类型，回调中可以放心使用；
+ * 品种字符串来自读取方的字典缓存，同一品种始终是同一个对象。
+ */
+@FunctionalInterface
+public interface IpcPriceListener {
+
+    /**
+     * @param sequence 共享环形文件中的序列号（从0开始连续，丢失时出现跳跃）
+     * @param symbol 交易品种
+     * @param bidPrice 买入价
+     * @param askPrice 卖出价
+     * @param timestamp 发布方事件时间戳（System.nanoTime()，同一主机上可直接计算跨进程延迟）
+     */
+    void onPrice(long sequence, String symbol, double bidPrice, double askPrice, long timestamp);
+}
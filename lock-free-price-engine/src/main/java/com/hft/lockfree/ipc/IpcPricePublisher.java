@@ -0,0 +1,259 @@
+package com.hft.lockfree.ipc;
+
+import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.handler.PriceSubscriber;
+import com.hft.lockfree.util.MemoryPreToucher;
+import com.hft.lockfree.util.SingleWriterCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 共享内存价格发布者
+ *
+ * 作为DistributionHandler的订阅者，把价格写入内存映射的环形文件（单生产者/多消费者），
+ * 同一主机上其他JVM通过IpcPriceReader读取：
+ * <pre>
+ * engine.subscribe(new IpcPricePublisher(Paths.get("/dev/shm/prices.ipc")));
+ * </pre>
+ *
+ * 设计要点：
+ * 1. 每个槽位一个序列锁版本号，写入方先写奇数版本、再写数据、最后release写偶数版本，
+ *    读取方校验前后版本一致即得到完整的消息，双方都不加锁、不做系统调用
+ * 2. 写入方从不等待读取方：慢的读取方被覆盖后自行跳过并统计丢失
+ * 3. 品种字符串只在首次出现时写入文件中的字典，消息中只有int编号
+ * 4. 只转发报价事件，成交事件（TYPE_TRADE）跳过
+ *
+ * 文件放在tmpfs（如/dev/shm）上可避免页面回写。发布者拥有该文件，启动时原地重建
+ * （不截断，已打开的读取方不会访问到被截掉的页）并换一个新的session，
+ * 已打开的读取方在下一次poll时发现重启，从新会话的第一条消息开始读取。
+ * 非线程安全：只能由分发线程（或单个线程）调用。
+ */
+public class IpcPricePublisher implements PriceSubscriber, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(IpcPricePublisher.class);
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    public static final int DEFAULT_MAX_SYMBOLS = 1024;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+    private final int maxSymbols;
+    private final long slotsOffset;
+
+    // 品种 -> 字典编号（仅发布线程访问）
+    private final Map<String, Integer> symbolIds = new HashMap<>();
+
+    private long nextSequence;
+    private final long session;
+
+    // 统计信息
+    private final SingleWriterCounter publishedMessages = new SingleWriterCounter();
+    private final SingleWriterCounter droppedMessages = new SingleWriterCounter();
+
+    public IpcPricePublisher(Path file) throws IOException {
+        this(file, DEFAULT_CAPACITY, DEFAULT_MAX_SYMBOLS);
+    }
+
+    /**
+     * @param file 共享文件（已存在则原地重建）
+     * @param capacity 槽位数（必须是2的幂）
+     * @param maxSymbols 品种字典容量
+     */
+    public IpcPricePublisher(Path file, int capacity, int maxSymbols) throws IOException {
+        if (capacity < 1 || (capacity & (capacity - 1)) != 0) {
+            throw new IllegalArgumentException("IPC ring capacity must be a power of 2");
+        }
+        if (maxSymbols < 1) {
+            throw new IllegalArgumentException("Max symbols must be positive: " + maxSymbols);
+        }
+        long fileSize = IpcRingFormat.fileSize(capacity, maxSymbols);
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("IPC ring too large: " + fileSize + " bytes");
+        }
+        this.file = file;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.maxSymbols = maxSymbols;
+        this.slotsOffset = IpcRingFormat.slotsOffset(maxSymbols);
+
+        // 不截断：截断会让已打开的读取方访问映射时出错
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            buffer.order(IpcRingFormat.BYTE_ORDER);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+        long previousSession = previousSession();
+        // session置0表示重建中，之后的写入不能重排到它之前
+        IpcRingFormat.LONG.setOpaque(buffer, IpcRingFormat.SESSION_OFFSET, 0L);
+        VarHandle.storeStoreFence();
+
+        buffer.putInt(IpcRingFormat.VERSION_OFFSET, IpcRingFormat.VERSION);
+        buffer.putInt(IpcRingFormat.CAPACITY_OFFSET, capacity);
+        buffer.putInt(IpcRingFormat.MAX_SYMBOLS_OFFSET, maxSymbols);
+        buffer.putLong(IpcRingFormat.SYMBOL_TABLE_OFFSET, IpcRingFormat.symbolTableOffset());
+        buffer.putLong(IpcRingFormat.SLOTS_OFFSET, slotsOffset);
+        buffer.putLong(IpcRingFormat.CURSOR_OFFSET, 0L);
+        buffer.putInt(IpcRingFormat.SYMBOL_COUNT_OFFSET, 0);
+        // 上一个会话的槽位版本号清零，否则会被当作新会话中已覆盖的消息
+        for (int i = 0; i < capacity; i++) {
+            buffer.putLong((int) (slotsOffset + (long) i * IpcRingFormat.SLOT_SIZE) + IpcRingFormat.SLOT_VERSION, 0L);
+        }
+        // magic和session最后写入，读取方看到非0的session即可读取完整的头部
+        IpcRingFormat.INT.setRelease(buffer, IpcRingFormat.MAGIC_OFFSET, IpcRingFormat.MAGIC);
+        // 同一主机上System.nanoTime()跨进程单调，上一次重建中途崩溃（session为0）也不会重复
+        this.session = Math.max(previousSession + 1, System.nanoTime());
+        IpcRingFormat.LONG.setRelease(buffer, IpcRingFormat.SESSION_OFFSET, session);
+
+        logger.info("IpcPricePublisher created: file={}, capacity={}, maxSymbols={}, size={} bytes, session={}",
+                file, capacity, maxSymbols, fileSize, session);
+    }
+
+    /**
+     * 文件中上一个会话的session（新文件或格式不同时为0）
+     */
+    private long previousSession() {
+        if ((int) IpcRingFormat.INT.getAcquire(buffer, IpcRingFormat.MAGIC_OFFSET) != IpcRingFormat.MAGIC
+                || buffer.getInt(IpcRingFormat.VERSION_OFFSET) != IpcRingFormat.VERSION) {
+            return 0;
+        }
+        return buffer.getLong(IpcRingFormat.SESSION_OFFSET);
+    }
+
+    @Override
+    public void onPrice(PriceEvent event, long sequence) {
+        // 进程间环形缓冲区只承载最优报价，成交事件不转发
+        if (event.isTrade()) {
+            return;
+        }
+        publish(event.getSymbol(), event.getBidPrice(), event.getAskPrice(), event.getTimestamp());
+    }
+
+    /**
+     * 写入一条价格消息
+     * @return false表示品种无法写入字典（字典已满或名称过长），消息被丢弃
+     */
+    public boolean publish(String symbol, double bidPrice, double askPrice, long timestamp) {
+        int symbolId = symbolId(symbol);
+        if (symbolId < 0) {
+            droppedMessages.increment();
+            return false;
+        }
+
+        long sequence = nextSequence;
+        int slot = (int) (slotsOffset + (sequence & mask) * IpcRingFormat.SLOT_SIZE);
+
+        // 序列锁：奇数版本表示写入中，数据写入不能重排到它之前
+        IpcRingFormat.LONG.setOpaque(buffer, slot + IpcRingFormat.SLOT_VERSION, 2 * sequence + 1);
+        VarHandle.storeStoreFence();
+
+        buffer.putInt(slot + IpcRingFormat.SLOT_SYMBOL_ID, symbolId);
+        buffer.putDouble(slot + IpcRingFormat.SLOT_BID, bidPrice);
+        buffer.putDouble(slot + IpcRingFormat.SLOT_ASK, askPrice);
+        buffer.putLong(slot + IpcRingFormat.SLOT_TIMESTAMP, timestamp);
+
+        IpcRingFormat.LONG.setRelease(buffer, slot + IpcRingFormat.SLOT_VERSION,
+                IpcRingFormat.committedVersion(sequence));
+        nextSequence = sequence + 1;
+        IpcRingFormat.LONG.setRelease(buffer, IpcRingFormat.CURSOR_OFFSET, nextSequence);
+
+        publishedMessages.increment();
+        return true;
+    }
+
+    /**
+     * 获取品种编号，首次出现时写入字典
+     * @return 编号，-1表示无法写入
+     */
+    private int symbolId(String symbol) {
+        Integer id = symbolIds.get(symbol);
+        if (id != null) {
+            return id;
+        }
+        if (symbol == null || symbolIds.size() >= maxSymbols) {
+            return -1;
+        }
+        byte[] bytes = symbol.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > IpcRingFormat.MAX_SYMBOL_BYTES) {
+            logger.warn("Symbol too long for IPC ring ({} bytes max): {}", IpcRingFormat.MAX_SYMBOL_BYTES, symbol);
+            return -1;
+        }
+
+        int newId = symbolIds.size();
+        int entry = (int) (IpcRingFormat.symbolTableOffset() + (long) newId * IpcRingFormat.SYMBOL_ENTRY_SIZE);
+        buffer.putShort(entry, (short) bytes.length);
+        buffer.put(entry + Short.BYTES, bytes);
+        // 字典条目先于引用它的消息可见
+        IpcRingFormat.INT.setRelease(buffer, IpcRingFormat.SYMBOL_COUNT_OFFSET, newId + 1);
+        symbolIds.put(symbol, newId);
+        return newId;
+    }
+
+    /**
+     * 预触碰整个映射文件（在开始发布前调用），首批消息不再缺页
+     * @return 触碰的页数
+     */
+    public long preTouch() {
+        return MemoryPreToucher.touch(buffer);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 本次启动的会话编号
+     */
+    public long getSession() {
+        return session;
+    }
+
+    /**
+     * 下一个写入的序列号（即已发布的消息总数）
+     */
+    public long getCursor() {
+        return nextSequence;
+    }
+
+    public long getPublishedMessageCount() {
+        return publishedMessages.get();
+    }
+
+    public long getDroppedMessageCount() {
+        return droppedMessages.get();
+    }
+
+    public String getStatistics() {
+        return String.format("IpcPricePublisher[file=%s, capacity=%d, published=%d, dropped=%d, symbols=%d]",
+                file, capacity, publishedMessages.get(), droppedMessages.get(), symbolIds.size());
+    }
+
+    /**
+     * 关闭文件通道（映射区域由GC释放，已打开的读取方不受影响）
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,298 @@
+package com.hft.lockfree.ipc;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 共享内存价格读取器（供同一主机上的其他JVM使用）
+ *
+ * 以只读方式映射IpcPricePublisher创建的环形文件，轮询读取新消息：
+ * <pre>
+ * try (IpcPriceReader reader = new IpcPriceReader(Paths.get("/dev/shm/prices.ipc"))) {
+ *     while (running) {
+ *         if (reader.poll(listener, 256) == 0) {
+ *             Thread.onSpinWait();
+ *         }
+ *     }
+ * }
+ * </pre>
+ *
+ * 打开时从当前游标开始读取（只接收之后发布的消息）。发布方重启后session变化，
+ * 下一次poll清空字典缓存并从新会话的序列号0开始读取（计入getRestartCount）；
+ * 新会话的文件布局（槽位数、字典容量）不同时无法续读，poll抛出IllegalStateException，需要重新打开。
+ * 读取不加锁、不做系统调用、稳态不分配对象；落后超过槽位数时跳到最新可读位置并统计丢失。
+ * 非线程安全，每个消费线程打开自己的读取器。
+ */
+public class IpcPriceReader implements AutoCloseable {
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+    private final long symbolTableOffset;
+    private final long slotsOffset;
+
+    // 品种字典缓存（按编号懒加载）
+    private final String[] symbols;
+
+    private long session;
+    private long nextSequence;
+    private long restarts;
+    private long receivedMessages;
+    private long lostMessages;
+
+    public IpcPriceReader(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            if (fileSize < IpcRingFormat.HEADER_SIZE) {
+                throw new IOException("Not an IPC price ring (too short): " + file);
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            buffer.order(IpcRingFormat.BYTE_ORDER);
+
+            int magic = (int) IpcRingFormat.INT.getAcquire(buffer, IpcRingFormat.MAGIC_OFFSET);
+            if (magic != IpcRingFormat.MAGIC) {
+                throw new IOException("Not an IPC price ring (bad magic or not initialized): " + file);
+            }
+            this.session = getSession();
+            if (session == 0) {
+                throw new IOException("IPC price ring is being initialized: " + file);
+            }
+            int version = buffer.getInt(IpcRingFormat.VERSION_OFFSET);
+            if (version != IpcRingFormat.VERSION) {
+                throw new IOException("Unsupported IPC price ring version " + version + ": " + file);
+            }
+            this.capacity = buffer.getInt(IpcRingFormat.CAPACITY_OFFSET);
+            this.mask = capacity - 1;
+            this.symbols = new String[buffer.getInt(IpcRingFormat.MAX_SYMBOLS_OFFSET)];
+            this.symbolTableOffset = buffer.getLong(IpcRingFormat.SYMBOL_TABLE_OFFSET);
+            this.slotsOffset = buffer.getLong(IpcRingFormat.SLOTS_OFFSET);
+            if (slotsOffset + (long) capacity * IpcRingFormat.SLOT_SIZE > fileSize) {
+                throw new IOException("Truncated IPC price ring: " + file);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        this.nextSequence = getCursor();
+    }
+
+    /**
+     * 读取新消息
+     * @param listener 回调
+     * @param limit 最多读取的消息数
+     * @return 实际读取的消息数，0表示暂无新消息
+     */
+    public int poll(IpcPriceListener listener, int limit) {
+        if (!checkSession()) {
+            return 0;
+        }
+        int count = 0;
+        while (count < limit) {
+            long sequence = nextSequence;
+            int slot = (int) (slotsOffset + (sequence & mask) * IpcRingFormat.SLOT_SIZE);
+            long expected = IpcRingFormat.committedVersion(sequence);
+
+            long version = (long) IpcRingFormat.LONG.getAcquire(buffer, slot + IpcRingFormat.SLOT_VERSION);
+            if (version < expected) {
+                // 尚未发布（或正在写入）
+                break;
+            }
+            if (version > expected) {
+                // 已被后续消息覆盖（或发布方已重启）
+                if (!skipOverrunOrRestart(sequence)) {
+                    break;
+                }
+                continue;
+            }
+
+            // 先复制字段，再校验版本号未变
+            int symbolId = buffer.getInt(slot + IpcRingFormat.SLOT_SYMBOL_ID);
+            double bidPrice = buffer.getDouble(slot + IpcRingFormat.SLOT_BID);
+            double askPrice = buffer.getDouble(slot + IpcRingFormat.SLOT_ASK);
+            long timestamp = buffer.getLong(slot + IpcRingFormat.SLOT_TIMESTAMP);
+            VarHandle.loadLoadFence();
+            if ((long) IpcRingFormat.LONG.getOpaque(buffer, slot + IpcRingFormat.SLOT_VERSION) != expected) {
+                // 读取期间被覆盖，数据可能不完整
+                if (!skipOverrunOrRestart(sequence)) {
+                    break;
+                }
+                continue;
+            }
+
+            nextSequence = sequence + 1;
+            receivedMessages++;
+            count++;
+            listener.onPrice(sequence, symbol(symbolId), bidPrice, askPrice, timestamp);
+        }
+        return count;
+    }
+
+    /**
+     * 发布方重启时切换到新会话
+     * @return false表示发布方正在重建文件，暂时不可读
+     */
+    private boolean checkSession() {
+        long current = getSession();
+        if (current == session) {
+            return true;
+        }
+        if (current == 0) {
+            return false;
+        }
+        if (buffer.getInt(IpcRingFormat.CAPACITY_OFFSET) != capacity
+                || buffer.getInt(IpcRingFormat.MAX_SYMBOLS_OFFSET) != symbols.length
+                || buffer.getLong(IpcRingFormat.SLOTS_OFFSET) != slotsOffset) {
+            throw new IllegalStateException("IPC price ring was recreated with a different layout, reopen: " + file);
+        }
+        session = current;
+        nextSequence = 0;
+        Arrays.fill(symbols, null);
+        restarts++;
+        return true;
+    }
+
+    /**
+     * 槽位版本号不符时先确认发布方没有重启，再按覆盖处理
+     * @return false表示发布方正在重建文件
+     */
+    private boolean skipOverrunOrRestart(long sequence) {
+        long before = session;
+        if (!checkSession()) {
+            return false;
+        }
+        if (session == before) {
+            skipOverrun(sequence);
+        }
+        return true;
+    }
+
+    /**
+     * 跳过已被覆盖的消息，定位到仍然可读的最早序列号
+     */
+    private void skipOverrun(long sequence) {
+        // 写入方可能正在写游标位置的槽位，它覆盖的是cursor - capacity
+        long oldestReadable = getCursor() - capacity + 1;
+        long resumeAt = Math.max(sequence + 1, oldestReadable);
+        lostMessages += resumeAt - sequence;
+        nextSequence = resumeAt;
+    }
+
+    private String symbol(int symbolId) {
+        String symbol = symbols[symbolId];
+        if (symbol == null) {
+            // 首次遇到该编号：从文件字典加载（条目先于消息发布）
+            int entry = (int) (symbolTableOffset + (long) symbolId * IpcRingFormat.SYMBOL_ENTRY_SIZE);
+            byte[] bytes = new byte[buffer.getShort(entry)];
+            buffer.get(entry + Short.BYTES, bytes);
+            symbol = new String(bytes, StandardCharsets.UTF_8);
+            symbols[symbolId] = symbol;
+        }
+        return symbol;
+    }
+
+    /**
+     * 发布方的游标（下一个写入的序列号）
+     */
+    public long getCursor() {
+        return (long) IpcRingFormat.LONG.getAcquire(buffer, IpcRingFormat.CURSOR_OFFSET);
+    }
+
+    /**
+     * 发布方当前的会话编号（0表示正在重建）
+     */
+    public long getSession() {
+        return (long) IpcRingFormat.LONG.getAcquire(buffer, IpcRingFormat.SESSION_OFFSET);
+    }
+
+    /**
+     * 检测到的发布方重启次数
+     */
+    public long getRestartCount() {
+        return restarts;
+    }
+
+    /**
+     * 下一个要读取的序列号
+     */
+    public long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * 落后发布方的消息数
+     */
+    public long getLag() {
+        return getCursor() - nextSequence;
+    }
+
+    public long getReceivedMessageCount() {
+        return receivedMessages;
+    }
+
+    /**
+     * 因落后被覆盖而丢失的消息数
+     */
+    public long getLostMessageCount() {
+        return lostMessages;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public String getStatistics() {
+        return String.format("IpcPriceReader[file=%s, received=%d, lost=%d, lag=%d, restarts=%d]",
+                file, receivedMessages, lostMessages, getLag(), restarts);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * 独立进程中读取并每秒输出吞吐量和端到端延迟（发布方事件时间戳 -> 读取）
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: IpcPriceReader <ring file>");
+            System.exit(1);
+        }
+        try (IpcPriceReader reader = new IpcPriceReader(Paths.get(args[0]))) {
+            long[] latency = new long[3]; // count, total, max
+            IpcPriceListener listener = (sequence, symbol, bid, ask, timestamp) -> {
+                long elapsed = System.nanoTime() - timestamp;
+                latency[0]++;
+                latency[1] += elapsed;
+                latency[2] = Math.max(latency[2], elapsed);
+            };
+            long reportAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            while (!Thread.currentThread().isInterrupted()) {
+                if (reader.poll(listener, 256) == 0) {
+                    Thread.onSpinWait();
+                }
+                long now = System.nanoTime();
+                if (now >= reportAt) {
+                    System.out.printf("msgs=%,d avgLatency=%,dns maxLatency=%,dns %s%n", latency[0],
+                            latency[0] > 0 ? latency[1] / latency[0] : 0, latency[2], reader.getStatistics());
+                    latency[0] = 0;
+                    latency[1] = 0;
+                    latency[2] = 0;
+                    reportAt = now + TimeUnit.SECONDS.toNanos(1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.hft.lockfree.ipc;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * 共享内存价格环形文件格式（本机字节序，只在同一台主机的进程间共享）
+ *
+ * <pre>
+ * 头部（128字节）：
+ *    0  int   magic 'IPCR'（最后写入，读取方据此判断文件已初始化）
+ *    4  int   version
+ *    8  int   capacity（槽位数，2的幂）
+ *   12  int   maxSymbols
+ *   16  long  symbolTableOffset
+ *   24  long  slotsOffset
+ *   32  long  session（发布方每次启动换一个非0值，重建期间为0，最后写入）
+ *   64  long  cursor（下一个写入的序列号，独占缓存行）
+ *   72  int   symbolCount
+ * 品种字典：maxSymbols × 32字节（short长度 + 至多30字节UTF-8）
+ * 槽位：capacity × 64字节（按64字节对齐）
+ *    0  long  version（序列锁：写入中为2n+1，完成为2n+2，n为序列号）
+ *    8  int   symbolId
+ *   16  double bidPrice
+ *   24  double askPrice
+ *   32  long  timestamp
+ * </pre>
+ *
+ * 写入方是唯一的生产者，读取方互不影响也不反压写入方：读取方落后超过capacity时
+ * 会发现槽位版本号已被覆盖，跳到最新可读位置并统计丢失的消息数。
+ *
+ * 发布方重启时原地重建文件（不截断，已打开的读取方映射始终有效）：先把session置0，
+ * 清零游标、字典计数和全部槽位版本号，最后写入新的session。读取方每次poll比较session，
+ * 发现变化后清空字典缓存，从新会话的序列号0开始读取。
+ */
+final class IpcRingFormat {
+
+    static final int MAGIC = 0x49504352; // "IPCR"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 128;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int CAPACITY_OFFSET = 8;
+    static final int MAX_SYMBOLS_OFFSET = 12;
+    static final int SYMBOL_TABLE_OFFSET = 16;
+    static final int SLOTS_OFFSET = 24;
+    static final int SESSION_OFFSET = 32;
+    static final int CURSOR_OFFSET = 64;
+    static final int SYMBOL_COUNT_OFFSET = 72;
+
+    static final int SYMBOL_ENTRY_SIZE = 32;
+    static final int MAX_SYMBOL_BYTES = SYMBOL_ENTRY_SIZE - Short.BYTES;
+
+    static final int SLOT_SIZE = 64;
+    static final int SLOT_VERSION = 0;
+    static final int SLOT_SYMBOL_ID = 8;
+    static final int SLOT_BID = 16;
+    static final int SLOT_ASK = 24;
+    static final int SLOT_TIMESTAMP = 32;
+
+    static final ByteOrder BYTE_ORDER = ByteOrder.nativeOrder();
+
+    // 映射内存上的acquire/release访问（偏移按自然边界对齐）
+    static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, BYTE_ORDER);
+    static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, BYTE_ORDER);
+
+    private IpcRingFormat() {
+    }
+
+    static long symbolTableOffset() {
+        return HEADER_SIZE;
+    }
+
+    static long slotsOffset(int maxSymbols) {
+        long end = symbolTableOffset() + (long) maxSymbols * SYMBOL_ENTRY_SIZE;
+        return (end + SLOT_SIZE - 1) & ~(long) (SLOT_SIZE - 1);
+    }
+
+    static long fileSize(int capacity, int maxSymbols) {
+        return slotsOffset(maxSymbols) + (long) capacity * SLOT_SIZE;
+    }
+
+    /**
+     * 序列号为sequence的消息写入完成后的槽位版本号
+     */
+    static long committedVersion(long sequence) {
+        return 2 * sequence + 2;
+    }
+}
@@ -0,0 +1,63 @@
+package com.hft.lockfree.ipc;
+
+/**
+ * 共享内存最新价格表格式（本机字节序）
+ *
+ * <pre>
+ * 头部（128字节）：
+ *    0  int   magic 'LVCT'（最后写入）
+ *    4  int   version
+ *    8  int   maxSymbols
+ *   16  long  session（写入方每次启动换一个非0值，重建期间为0，最后写入）
+ *   64  int   symbolCount（新品种的字典条目写完后release发布；此时槽位可能还没有报价，
+ *             版本号为0，读取方据此判断尚未写入）
+ * 品种字典：maxSymbols × 32字节（short长度 + 至多30字节UTF-8），下标即槽位号
+ * 价格槽位：maxSymbols × 64字节（每个品种独占一个缓存行，按64字节对齐）
+ *    0  long   version（序列锁：写入中为奇数，完成为偶数）
+ *    8  double bidPrice
+ *   16  double askPrice
+ *   24  long   timestamp
+ *   32  long   updateCount
+ * </pre>
+ *
+ * 写入方重启时原地重建（不截断）：session置0，清零symbolCount和全部槽位版本号，再写入新的session。
+ * 新会话重新分配槽位，读取方发现session变化后清空字典缓存，调用方需要重新findSlot。
+ */
+final class SharedPriceTableFormat {
+
+    static final int MAGIC = 0x4C564354; // "LVCT"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 128;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int MAX_SYMBOLS_OFFSET = 8;
+    static final int SESSION_OFFSET = 16;
+    static final int SYMBOL_COUNT_OFFSET = 64;
+
+    static final int SYMBOL_ENTRY_SIZE = IpcRingFormat.SYMBOL_ENTRY_SIZE;
+    static final int MAX_SYMBOL_BYTES = IpcRingFormat.MAX_SYMBOL_BYTES;
+
+    static final int ENTRY_SIZE = 64;
+    static final int ENTRY_VERSION = 0;
+    static final int ENTRY_BID = 8;
+    static final int ENTRY_ASK = 16;
+    static final int ENTRY_TIMESTAMP = 24;
+    static final int ENTRY_UPDATE_COUNT = 32;
+
+    private SharedPriceTableFormat() {
+    }
+
+    static long symbolOffset(int slot) {
+        return HEADER_SIZE + (long) slot * SYMBOL_ENTRY_SIZE;
+    }
+
+    static long entriesOffset(int maxSymbols) {
+        long end = symbolOffset(maxSymbols);
+        return (end + ENTRY_SIZE - 1) & ~(long) (ENTRY_SIZE - 1);
+    }
+
+    static long fileSize(int maxSymbols) {
+        return entriesOffset(maxSymbols) + (long) maxSymbols * ENTRY_SIZE;
+    }
+}
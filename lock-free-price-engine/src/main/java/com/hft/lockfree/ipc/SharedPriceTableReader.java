@@ -0,0 +1,220 @@
+package com.hft.lockfree.ipc;
+
+import com.hft.lockfree.event.PriceQuote;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 共享内存最新价格表（读取方，供同一主机上的其他进程使用）
+ * <pre>
+ * try (SharedPriceTableReader table = new SharedPriceTableReader(Paths.get("/dev/shm/prices.lvc"))) {
+ *     int slot = table.findSlot("EURUSD");   // 同一会话内槽位不变，查一次即可
+ *     long restarts = table.getRestartCount();
+ *     PriceQuote quote = new PriceQuote();   // 复用
+ *     if (slot >= 0 &amp;&amp; table.read(slot, quote)) {
+ *         ...
+ *     } else if (table.getRestartCount() != restarts) {
+ *         slot = table.findSlot("EURUSD");   // 写入方已重启，槽位重新分配
+ *     }
+ * }
+ * </pre>
+ *
+ * read按序列锁重试直到得到一致的买卖价，不加锁、不分配对象。重试次数有上限：
+ * 写入方在更新中途崩溃时版本号停留在奇数，read返回false而不是一直自旋，调用方稍后再读即可。
+ * 写入方重启后头部的session变化：读取器清空字典缓存并计入getRestartCount，
+ * 之前查到的槽位作废，需要重新findSlot。
+ * 非线程安全，每个线程打开自己的读取器（或在外部同步findSlot）。
+ */
+public class SharedPriceTableReader implements AutoCloseable {
+
+    /** 一次read的最大尝试次数（正常的写入只占几十纳秒，远小于这个上限） */
+    public static final int MAX_READ_ATTEMPTS = 1024;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int maxSymbols;
+    private final long entriesOffset;
+    private long session;
+    private long restarts;
+
+    // 品种字典缓存
+    private final String[] symbols;
+    private final Map<String, Integer> slots = new HashMap<>();
+    private int loadedSymbols;
+
+    public SharedPriceTableReader(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            if (fileSize < SharedPriceTableFormat.HEADER_SIZE) {
+                throw new IOException("Not a shared price table (too short): " + file);
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            buffer.order(IpcRingFormat.BYTE_ORDER);
+
+            int magic = (int) IpcRingFormat.INT.getAcquire(buffer, SharedPriceTableFormat.MAGIC_OFFSET);
+            if (magic != SharedPriceTableFormat.MAGIC) {
+                throw new IOException("Not a shared price table (bad magic or not initialized): " + file);
+            }
+            int version = buffer.getInt(SharedPriceTableFormat.VERSION_OFFSET);
+            if (version != SharedPriceTableFormat.VERSION) {
+                throw new IOException("Unsupported shared price table version " + version + ": " + file);
+            }
+            this.session = getSession();
+            if (session == 0) {
+                throw new IOException("Shared price table is being initialized: " + file);
+            }
+            this.maxSymbols = buffer.getInt(SharedPriceTableFormat.MAX_SYMBOLS_OFFSET);
+            if (SharedPriceTableFormat.fileSize(maxSymbols) > fileSize) {
+                throw new IOException("Truncated shared price table: " + file);
+            }
+            this.entriesOffset = SharedPriceTableFormat.entriesOffset(maxSymbols);
+            this.symbols = new String[maxSymbols];
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 已分配槽位的品种数
+     */
+    public int getSymbolCount() {
+        return (int) IpcRingFormat.INT.getAcquire(buffer, SharedPriceTableFormat.SYMBOL_COUNT_OFFSET);
+    }
+
+    /**
+     * 写入方重启时切换到新会话（清空字典缓存，之前的槽位作废）
+     * @return false表示写入方正在重建文件，暂时不可读
+     */
+    private boolean checkSession() {
+        long current = getSession();
+        if (current == session) {
+            return true;
+        }
+        if (current == 0) {
+            return false;
+        }
+        if (buffer.getInt(SharedPriceTableFormat.MAX_SYMBOLS_OFFSET) != maxSymbols) {
+            throw new IllegalStateException("Shared price table was recreated with a different size, reopen: " + file);
+        }
+        session = current;
+        slots.clear();
+        Arrays.fill(symbols, null);
+        loadedSymbols = 0;
+        restarts++;
+        return true;
+    }
+
+    /**
+     * 槽位对应的品种
+     */
+    public String getSymbol(int slot) {
+        if (!checkSession()) {
+            return null;
+        }
+        loadSymbols();
+        return slot < loadedSymbols ? symbols[slot] : null;
+    }
+
+    /**
+     * 查找品种的槽位
+     * @return 槽位号，-1表示该品种尚未出现
+     */
+    public int findSlot(String symbol) {
+        if (!checkSession()) {
+            return -1;
+        }
+        Integer slot = slots.get(symbol);
+        if (slot == null) {
+            loadSymbols();
+            slot = slots.get(symbol);
+        }
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * 加载新出现的字典条目
+     */
+    private void loadSymbols() {
+        int count = getSymbolCount();
+        for (int slot = loadedSymbols; slot < count; slot++) {
+            int entry = (int) SharedPriceTableFormat.symbolOffset(slot);
+            byte[] bytes = new byte[buffer.getShort(entry)];
+            buffer.get(entry + Short.BYTES, bytes);
+            symbols[slot] = new String(bytes, StandardCharsets.UTF_8);
+            slots.put(symbols[slot], slot);
+        }
+        loadedSymbols = Math.max(loadedSymbols, count);
+    }
+
+    /**
+     * 读取槽位中一致的最优报价
+     * @param slot 槽位号
+     * @param quote 调用方复用的holder
+     * @return false表示槽位尚未写入报价，或写入方持续处于写入中（重试MAX_READ_ATTEMPTS次仍未读到一致的报价），
+     *         或写入方已重启（槽位需要重新findSlot）
+     */
+    public boolean read(int slot, PriceQuote quote) {
+        long before = session;
+        if (slot < 0 || slot >= maxSymbols || !checkSession() || session != before) {
+            return false;
+        }
+        int entry = (int) (entriesOffset + (long) slot * SharedPriceTableFormat.ENTRY_SIZE);
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            long version = (long) IpcRingFormat.LONG.getAcquire(buffer, entry + SharedPriceTableFormat.ENTRY_VERSION);
+            if (version == 0) {
+                return false;
+            }
+            if ((version & 1) != 0) {
+                // 写入中
+                Thread.onSpinWait();
+                continue;
+            }
+            double bidPrice = buffer.getDouble(entry + SharedPriceTableFormat.ENTRY_BID);
+            double askPrice = buffer.getDouble(entry + SharedPriceTableFormat.ENTRY_ASK);
+            long timestamp = buffer.getLong(entry + SharedPriceTableFormat.ENTRY_TIMESTAMP);
+            long updateCount = buffer.getLong(entry + SharedPriceTableFormat.ENTRY_UPDATE_COUNT);
+            VarHandle.loadLoadFence();
+            if ((long) IpcRingFormat.LONG.getOpaque(buffer, entry + SharedPriceTableFormat.ENTRY_VERSION) == version) {
+                quote.set(getSymbol(slot), bidPrice, askPrice, timestamp, updateCount);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 写入方当前的会话编号（0表示正在重建）
+     */
+    public long getSession() {
+        return (long) IpcRingFormat.LONG.getAcquire(buffer, SharedPriceTableFormat.SESSION_OFFSET);
+    }
+
+    /**
+     * 检测到的写入方重启次数
+     */
+    public long getRestartCount() {
+        return restarts;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
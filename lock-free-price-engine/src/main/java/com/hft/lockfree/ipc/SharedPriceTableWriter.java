@@ -0,0 +1,185 @@
+package com.hft.lockfree.ipc;
+
+import com.hft.lockfree.util.MemoryPreToucher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 共享内存最新价格表（写入方）
+ *
+ * AggregationHandler把价格簿镜像到内存映射文件中：每个品种固定一个槽位（独占缓存行），
+ * 每次更新用序列锁保护，同一主机上的其他进程通过SharedPriceTableReader
+ * 读取一致的最优报价，只需几次内存读取，不需要订阅和消息传递。
+ *
+ * 品种首次出现时分配槽位，之后不再变化（价格簿重置也保留槽位）。
+ * 发布者拥有该文件，启动时原地重建（不截断）并换一个新的session，已打开的读取方据此发现重启。
+ * 非线程安全：只能由聚合线程调用。
+ */
+public class SharedPriceTableWriter implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedPriceTableWriter.class);
+
+    public static final int DEFAULT_MAX_SYMBOLS = 4096;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int maxSymbols;
+    private final long entriesOffset;
+    private final long session;
+
+    // 品种 -> 槽位（仅写入线程访问）
+    private final Map<String, Integer> slots = new HashMap<>();
+
+    public SharedPriceTableWriter(Path file) throws IOException {
+        this(file, DEFAULT_MAX_SYMBOLS);
+    }
+
+    /**
+     * @param file 共享文件（已存在则原地重建）
+     * @param maxSymbols 最大品种数
+     */
+    public SharedPriceTableWriter(Path file, int maxSymbols) throws IOException {
+        if (maxSymbols < 1) {
+            throw new IllegalArgumentException("Max symbols must be positive: " + maxSymbols);
+        }
+        long fileSize = SharedPriceTableFormat.fileSize(maxSymbols);
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Shared price table too large: " + fileSize + " bytes");
+        }
+        this.file = file;
+        this.maxSymbols = maxSymbols;
+        this.entriesOffset = SharedPriceTableFormat.entriesOffset(maxSymbols);
+
+        // 不截断：截断会让已打开的读取方访问映射时出错
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            buffer.order(IpcRingFormat.BYTE_ORDER);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+        long previousSession = previousSession();
+        // session置0表示重建中，之后的写入不能重排到它之前
+        IpcRingFormat.LONG.setOpaque(buffer, SharedPriceTableFormat.SESSION_OFFSET, 0L);
+        VarHandle.storeStoreFence();
+
+        buffer.putInt(SharedPriceTableFormat.VERSION_OFFSET, SharedPriceTableFormat.VERSION);
+        buffer.putInt(SharedPriceTableFormat.MAX_SYMBOLS_OFFSET, maxSymbols);
+        buffer.putInt(SharedPriceTableFormat.SYMBOL_COUNT_OFFSET, 0);
+        // 上一个会话的报价作废（版本号0表示尚未写入）
+        for (int slot = 0; slot < maxSymbols; slot++) {
+            buffer.putLong((int) (entriesOffset + (long) slot * SharedPriceTableFormat.ENTRY_SIZE)
+                    + SharedPriceTableFormat.ENTRY_VERSION, 0L);
+        }
+        IpcRingFormat.INT.setRelease(buffer, SharedPriceTableFormat.MAGIC_OFFSET, SharedPriceTableFormat.MAGIC);
+        // 同一主机上System.nanoTime()跨进程单调，上一次重建中途崩溃（session为0）也不会重复
+        this.session = Math.max(previousSession + 1, System.nanoTime());
+        IpcRingFormat.LONG.setRelease(buffer, SharedPriceTableFormat.SESSION_OFFSET, session);
+
+        logger.info("SharedPriceTableWriter created: file={}, maxSymbols={}, size={} bytes, session={}",
+                file, maxSymbols, fileSize, session);
+    }
+
+    /**
+     * 文件中上一个会话的session（新文件或格式不同时为0）
+     */
+    private long previousSession() {
+        if ((int) IpcRingFormat.INT.getAcquire(buffer, SharedPriceTableFormat.MAGIC_OFFSET) != SharedPriceTableFormat.MAGIC
+                || buffer.getInt(SharedPriceTableFormat.VERSION_OFFSET) != SharedPriceTableFormat.VERSION) {
+            return 0;
+        }
+        return buffer.getLong(SharedPriceTableFormat.SESSION_OFFSET);
+    }
+
+    /**
+     * 获取品种的槽位，首次出现时分配并写入字典
+     * @return 槽位号，-1表示表已满或名称过长
+     */
+    public int slotOf(String symbol) {
+        Integer slot = slots.get(symbol);
+        if (slot != null) {
+            return slot;
+        }
+        if (symbol == null || slots.size() >= maxSymbols) {
+            return -1;
+        }
+        byte[] bytes = symbol.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > SharedPriceTableFormat.MAX_SYMBOL_BYTES) {
+            logger.warn("Symbol too long for shared price table ({} bytes max): {}",
+                    SharedPriceTableFormat.MAX_SYMBOL_BYTES, symbol);
+            return -1;
+        }
+
+        int newSlot = slots.size();
+        int entry = (int) SharedPriceTableFormat.symbolOffset(newSlot);
+        buffer.putShort(entry, (short) bytes.length);
+        buffer.put(entry + Short.BYTES, bytes);
+        IpcRingFormat.INT.setRelease(buffer, SharedPriceTableFormat.SYMBOL_COUNT_OFFSET, newSlot + 1);
+        slots.put(symbol, newSlot);
+        return newSlot;
+    }
+
+    /**
+     * 更新槽位中的最优报价（序列锁保护）
+     */
+    public void update(int slot, double bidPrice, double askPrice, long timestamp, long updateCount) {
+        int entry = (int) (entriesOffset + (long) slot * SharedPriceTableFormat.ENTRY_SIZE);
+        long version = buffer.getLong(entry + SharedPriceTableFormat.ENTRY_VERSION);
+
+        IpcRingFormat.LONG.setOpaque(buffer, entry + SharedPriceTableFormat.ENTRY_VERSION, version + 1);
+        VarHandle.storeStoreFence();
+
+        buffer.putDouble(entry + SharedPriceTableFormat.ENTRY_BID, bidPrice);
+        buffer.putDouble(entry + SharedPriceTableFormat.ENTRY_ASK, askPrice);
+        buffer.putLong(entry + SharedPriceTableFormat.ENTRY_TIMESTAMP, timestamp);
+        buffer.putLong(entry + SharedPriceTableFormat.ENTRY_UPDATE_COUNT, updateCount);
+
+        IpcRingFormat.LONG.setRelease(buffer, entry + SharedPriceTableFormat.ENTRY_VERSION, version + 2);
+    }
+
+    /**
+     * 预触碰整个映射文件（在开始更新前调用），首批更新不再缺页
+     * @return 触碰的页数
+     */
+    public long preTouch() {
+        return MemoryPreToucher.touch(buffer);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getMaxSymbols() {
+        return maxSymbols;
+    }
+
+    /**
+     * 本次启动的会话编号
+     */
+    public long getSession() {
+        return session;
+    }
+
+    public int getSymbolCount() {
+        return slots.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,296 @@
+package com.hft.lockfree.loadtest;
+
+import com.hft.lockfree.engine.LockFreePriceEngine;
+import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.handler.PriceSubscriber;
+import com.hft.lockfree.ipc.IpcPricePublisher;
+import com.hft.lockfree.util.PriceDataGenerator;
+import com.hft.lockfree.util.SingleWriterCounter;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 开环恒定速率压测
+ *
+ * 与吞吐量基准测试（紧循环发布、报告平均值）不同，这里按固定速率的时间表发布：
+ * 第i个事件的计划发送时间 = 起始时间 + i / rate。
+ *
+ * 协调遗漏（coordinated omission）校正：
+ * 事件时间戳使用计划发送时间而非实际发送时间。引擎处理变慢、生产者被环形缓冲区
+ * 反压而落后于时间表时，排队等待的时间会计入后续每个事件的延迟，
+ * 而不是被"少发几个请求"悄悄掩盖。
+ *
+ * 延迟在分发阶段的订阅者中测量（计划发送 -> 分发），写入HdrHistogram。
+ * 依次运行各个目标速率，输出百分位曲线，并找出饱和点：
+ * 实际速率达不到目标的95%，或P99超过SLA，即视为饱和。
+ *
+ * 用法（参数均可省略）：
+ * <pre>
+ * ./gradlew loadTest -PloadTestArgs="--rates=100000,1000000 --duration=5 --warmup=2 --slaMicros=1000 --offHeap"
+ * </pre>
+ * 加 --ipcFile=/dev/shm/prices.ipc 时同时把价格写入共享内存环形文件，
+ * 可在另一个进程中运行 ./gradlew ipcReader -PipcFile=/dev/shm/prices.ipc 观察跨进程延迟。
+ */
+public class ConstantRateLoadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConstantRateLoadGenerator.class);
+
+    private static final long[] DEFAULT_RATES = {100_000, 250_000, 500_000, 1_000_000, 2_000_000, 5_000_000};
+    private static final double SATURATION_RATE_RATIO = 0.95;
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    // 预生成的价格数据，发布循环中不分配对象
+    private static final int PRICE_TABLE_SIZE = 1 << 16;
+    private static final long SIMULATOR_SEED = 42L;
+
+    private final LockFreePriceEngine engine;
+    private final long slaNanos;
+
+    private final String[] symbols = new String[PRICE_TABLE_SIZE];
+    private final double[] bidPrices = new double[PRICE_TABLE_SIZE];
+    private final double[] askPrices = new double[PRICE_TABLE_SIZE];
+
+    // 分发线程写入，压测线程读取
+    private final SingleWriterRecorder recorder = new SingleWriterRecorder(3);
+    private final SingleWriterCounter receivedEvents = new SingleWriterCounter();
+    private final PriceSubscriber subscriber = this::onPrice;
+
+    // 最近一次发布阶段的结果（压测线程内使用）
+    private long lastPublished;
+    private long lastMaxScheduleLag;
+    private long lastElapsedNanos;
+
+    /**
+     * 单个目标速率的压测结果
+     * @param targetRate 目标速率（msg/s）
+     * @param publishedEvents 发布事件数
+     * @param receivedEvents 分发阶段收到的事件数
+     * @param achievedRate 实际发布速率（msg/s）
+     * @param maxScheduleLagNanos 生产者落后时间表的最大值
+     * @param latency 校正后的端到端延迟（纳秒）
+     * @param saturated 是否饱和
+     */
+    public record RateResult(long targetRate, long publishedEvents, long receivedEvents, double achievedRate,
+                             long maxScheduleLagNanos, Histogram latency, boolean saturated) {
+    }
+
+    /**
+     * @param engine 已启动的价格引擎
+     * @param sla P99延迟上限，超过即视为饱和
+     * @param unit 时间单位
+     */
+    public ConstantRateLoadGenerator(LockFreePriceEngine engine, long sla, TimeUnit unit) {
+        this.engine = engine;
+        this.slaNanos = unit.toNanos(sla);
+
+        PriceDataGenerator.createSimulator(SIMULATOR_SEED)
+                .fill(symbols, bidPrices, askPrices, 0, PRICE_TABLE_SIZE);
+    }
+
+    private void onPrice(PriceEvent event, long sequence) {
+        recorder.recordValue(Math.max(0, System.nanoTime() - event.getTimestamp()));
+        receivedEvents.increment();
+    }
+
+    /**
+     * 以目标速率运行一轮压测
+     * @param targetRate 目标速率（msg/s）
+     * @param warmup 预热时长（同速率发布，不计入结果）
+     * @param duration 测量时长
+     * @param unit 时间单位
+     */
+    public RateResult run(long targetRate, long warmup, long duration, TimeUnit unit) {
+        if (targetRate <= 0) {
+            throw new IllegalArgumentException("Target rate must be positive: " + targetRate);
+        }
+        engine.subscribe(subscriber);
+        try {
+            if (warmup > 0) {
+                long baseline = receivedEvents.get();
+                publishAtRate(targetRate, unit.toNanos(warmup));
+                awaitReceived(baseline + lastPublished);
+            }
+            recorder.reset();
+
+            long baseline = receivedEvents.get();
+            publishAtRate(targetRate, unit.toNanos(duration));
+            long received = awaitReceived(baseline + lastPublished) - baseline;
+            Histogram latency = recorder.getIntervalHistogram();
+
+            double achievedRate = lastElapsedNanos > 0
+                    ? lastPublished * 1_000_000_000.0 / lastElapsedNanos : 0;
+            boolean saturated = achievedRate < targetRate * SATURATION_RATE_RATIO
+                    || received < lastPublished
+                    || latency.getValueAtPercentile(99.0) > slaNanos;
+
+            return new RateResult(targetRate, lastPublished, received, achievedRate,
+                    lastMaxScheduleLag, latency, saturated);
+        } finally {
+            engine.unsubscribe(subscriber);
+        }
+    }
+
+    /**
+     * 按时间表发布：未到计划时间则自旋等待；落后于时间表则立即发送（追赶）
+     */
+    private void publishAtRate(long targetRate, long durationNanos) {
+        long count = targetRate * durationNanos / 1_000_000_000L;
+        long maxLag = 0;
+        long start = System.nanoTime();
+
+        for (long i = 0; i < count; i++) {
+            long intended = start + i * 1_000_000_000L / targetRate;
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                Thread.onSpinWait();
+            }
+            if (now - intended > maxLag) {
+                maxLag = now - intended;
+            }
+
+            int index = (int) (i & (PRICE_TABLE_SIZE - 1));
+            engine.publishPrice(symbols[index], bidPrices[index], askPrices[index], intended);
+        }
+
+        lastElapsedNanos = System.nanoTime() - start;
+        lastPublished = count;
+        lastMaxScheduleLag = maxLag;
+    }
+
+    /**
+     * 等待分发阶段追上（超时后返回已收到的数量）
+     */
+    private long awaitReceived(long expected) {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        long received;
+        while ((received = receivedEvents.get()) < expected && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(100_000);
+        }
+        return received;
+    }
+
+    /**
+     * 依次运行各目标速率，遇到第一个饱和的速率即停止（再往上只会无限排队）
+     */
+    public List<RateResult> sweep(long[] rates, long warmup, long duration, TimeUnit unit, PrintStream out) {
+        List<RateResult> results = new ArrayList<>(rates.length);
+        for (long rate : rates) {
+            logger.info("Running constant-rate load at {} msg/s", rate);
+            RateResult result = run(rate, warmup, duration, unit);
+            results.add(result);
+
+            out.printf("%n=== Target rate %,d msg/s (achieved %,.0f msg/s, max schedule lag %.1fus)%s ===%n",
+                    rate, result.achievedRate(), result.maxScheduleLagNanos() / 1000.0,
+                    result.saturated() ? " SATURATED" : "");
+            out.println("Latency (us), corrected for coordinated omission:");
+            result.latency().outputPercentileDistribution(out, 5, 1000.0);
+
+            if (result.saturated()) {
+                break;
+            }
+        }
+        printSummary(results, out);
+        return results;
+    }
+
+    /**
+     * 汇总表：每个速率一行，最后给出饱和点
+     */
+    public static void printSummary(List<RateResult> results, PrintStream out) {
+        out.println();
+        out.println("=== Constant-rate load summary (latency in us) ===");
+        out.printf("%12s %12s %10s %10s %10s %10s %10s %10s  %s%n",
+                "target/s", "achieved/s", "p50", "p90", "p99", "p99.9", "p99.99", "max", "status");
+
+        long sustainable = 0;
+        long saturation = 0;
+        for (RateResult result : results) {
+            Histogram h = result.latency();
+            out.printf("%,12d %,12.0f %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f  %s%n",
+                    result.targetRate(), result.achievedRate(),
+                    h.getValueAtPercentile(50.0) / 1000.0,
+                    h.getValueAtPercentile(90.0) / 1000.0,
+                    h.getValueAtPercentile(99.0) / 1000.0,
+                    h.getValueAtPercentile(99.9) / 1000.0,
+                    h.getValueAtPercentile(99.99) / 1000.0,
+                    h.getMaxValue() / 1000.0,
+                    result.saturated() ? "SATURATED" : "ok");
+            if (result.saturated()) {
+                if (saturation == 0) {
+                    saturation = result.targetRate();
+                }
+            } else if (saturation == 0) {
+                sustainable = result.targetRate();
+            }
+        }
+
+        if (saturation > 0) {
+            out.printf("Saturation point: between %,d and %,d msg/s%n", sustainable, saturation);
+        } else {
+            out.println("No saturation observed up to the highest tested rate");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        long[] rates = DEFAULT_RATES;
+        long warmupSeconds = 2;
+        long durationSeconds = 5;
+        long slaMicros = 1000;
+        int ringBufferSize = 64 * 1024;
+        boolean offHeap = false;
+        String ipcFile = null;
+
+        for (String arg : args) {
+            if (arg.startsWith("--rates=")) {
+                rates = Arrays.stream(arg.substring("--rates=".length()).split(","))
+                        .mapToLong(Long::parseLong).toArray();
+            } else if (arg.startsWith("--warmup=")) {
+                warmupSeconds = Long.parseLong(arg.substring("--warmup=".length()));
+            } else if (arg.startsWith("--duration=")) {
+                durationSeconds = Long.parseLong(arg.substring("--duration=".length()));
+            } else if (arg.startsWith("--slaMicros=")) {
+                slaMicros = Long.parseLong(arg.substring("--slaMicros=".length()));
+            } else if (arg.startsWith("--ringBufferSize=")) {
+                ringBufferSize = Integer.parseInt(arg.substring("--ringBufferSize=".length()));
+            } else if (arg.equals("--offHeap")) {
+                offHeap = true;
+            } else if (arg.startsWith("--ipcFile=")) {
+                ipcFile = arg.substring("--ipcFile=".length());
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        LockFreePriceEngine engine = LockFreePriceEngine.builder()
+                .ringBufferSize(ringBufferSize)
+                .offHeap(offHeap)
+                .build();
+        IpcPricePublisher ipcPublisher = ipcFile != null ? new IpcPricePublisher(Paths.get(ipcFile)) : null;
+        if (ipcPublisher != null) {
+            engine.subscribe(ipcPublisher);
+        }
+        engine.start();
+        try {
+            ConstantRateLoadGenerator generator =
+                    new ConstantRateLoadGenerator(engine, slaMicros, TimeUnit.MICROSECONDS);
+            generator.sweep(rates, warmupSeconds, durationSeconds, TimeUnit.SECONDS, System.out);
+        } finally {
+            engine.shutdown();
+            if (ipcPublisher != null) {
+                System.out.println(ipcPublisher.getStatistics());
+                ipcPublisher.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.hft.lockfree.monitor;
+
+/**
+ * 处理链遥测JMX接口
+ *
+ * 暴露RingBuffer游标、各处理阶段序列号、消费延迟（lag）以及占用率分布。
+ * lag = 游标 - 阶段序列号；backlog = 上游序列号 - 阶段序列号（阶段自身积压）。
+ */
+public interface PipelineTelemetryMXBean {
+
+    /** RingBuffer大小 */
+    long getBufferSize();
+
+    /** 已采样次数 */
+    long getSampleCount();
+
+    /** 采样间隔（微秒） */
+    long getSampleIntervalMicros();
+
+    /** 最近一次采样的生产者游标 */
+    long getCursor();
+
+    /** 最近一次采样的占用量（游标 - 最慢阶段序列号） */
+    long getOccupancy();
+
+    /** 占用量P99 */
+    long getOccupancyP99();
+
+    /** 占用量最大值 */
+    long getOccupancyMax();
+
+    /** 阶段名称（与下列数组下标一一对应） */
+    String[] getStageNames();
+
+    /** 最近一次采样的各阶段序列号 */
+    long[] getStageSequences();
+
+    /** 最近一次采样的各阶段lag */
+    long[] getStageLags();
+
+    /** 各阶段backlog的P50 */
+    long[] getStageBacklogP50();
+
+    /** 各阶段backlog的P99 */
+    long[] getStageBacklogP99();
+
+    /** 各阶段backlog的最大值 */
+    long[] getStageBacklogMax();
+
+    /** backlog P99最高的阶段，即突发期间的瓶颈阶段 */
+    String getBottleneckStage();
+
+    /** 清空直方图 */
+    void resetHistograms();
+}
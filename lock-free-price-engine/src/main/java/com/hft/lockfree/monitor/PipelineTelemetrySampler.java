@@ -0,0 +1,367 @@
+package com.hft.lockfree.monitor;
+
+import com.hft.lockfree.util.SingleWriterCounter;
+import org.HdrHistogram.SynchronizedHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * 处理链遥测采样器
+ *
+ * 设计要点：
+ * 1. 独立的守护线程按固定间隔采样，处理器线程零额外开销
+ * 2. 采样RingBuffer游标和每个阶段的序列号，计算lag和backlog
+ * 3. lag/占用量记录到HdrHistogram，同时保留最近N次采样的时间序列
+ * 4. 通过JMX（PipelineTelemetryMXBean）暴露结构化指标
+ */
+public class PipelineTelemetrySampler implements PipelineTelemetryMXBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PipelineTelemetrySampler.class);
+
+    private static final String OBJECT_NAME_PREFIX = "com.hft.lockfree:type=PipelineTelemetry,name=";
+    private static final int DEFAULT_HISTORY_SIZE = 1024;
+
+    private final String name;
+    private final LongSupplier cursorSupplier;
+    private final long bufferSize;
+    private final Stage[] stages;
+    private final long intervalNanos;
+
+    // 直方图（采样线程写入，JMX线程读取）
+    private final SynchronizedHistogram occupancyHistogram;
+    private final SynchronizedHistogram[] backlogHistograms;
+
+    // 最近一次采样（采样线程单写）
+    private final SingleWriterCounter sampleCount = new SingleWriterCounter();
+    private volatile long lastCursor;
+    private volatile long lastOccupancy;
+    private final long[] lastSequences;
+    private final long[] lastLags;
+
+    // 时间序列：最近historySize次采样
+    private final int historyMask;
+    private final long[] historyTimestamps;
+    private final long[] historyCursors;
+    private final long[][] historyLags;
+
+    private volatile boolean running;
+    private Thread samplerThread;
+    private ObjectName objectName;
+
+    /**
+     * 采样的处理阶段
+     * @param name 阶段名称
+     * @param sequence 阶段当前序列号
+     * @param upstream 上游阶段下标（空数组表示直接消费生产者游标）
+     */
+    public record Stage(String name, LongSupplier sequence, int[] upstream) {
+    }
+
+    public PipelineTelemetrySampler(String name, LongSupplier cursorSupplier, long bufferSize,
+                                    List<Stage> stages, long interval, TimeUnit unit) {
+        this(name, cursorSupplier, bufferSize, stages, interval, unit, DEFAULT_HISTORY_SIZE);
+    }
+
+    /**
+     * @param name 采样器名称（用于JMX ObjectName）
+     * @param cursorSupplier 生产者游标
+     * @param bufferSize RingBuffer大小
+     * @param stages 处理阶段（按拓扑顺序）
+     * @param interval 采样间隔
+     * @param unit 时间单位
+     * @param historySize 时间序列长度（必须是2的幂）
+     */
+    public PipelineTelemetrySampler(String name, LongSupplier cursorSupplier, long bufferSize,
+                                    List<Stage> stages, long interval, TimeUnit unit, int historySize) {
+        if ((historySize & (historySize - 1)) != 0) {
+            throw new IllegalArgumentException("History size must be a power of 2");
+        }
+        this.name = name;
+        this.cursorSupplier = cursorSupplier;
+        this.bufferSize = bufferSize;
+        this.stages = stages.toArray(new Stage[0]);
+        this.intervalNanos = unit.toNanos(interval);
+
+        this.occupancyHistogram = new SynchronizedHistogram(bufferSize, 3);
+        this.backlogHistograms = new SynchronizedHistogram[this.stages.length];
+        for (int i = 0; i < this.stages.length; i++) {
+            backlogHistograms[i] = new SynchronizedHistogram(bufferSize, 3);
+        }
+
+        this.lastSequences = new long[this.stages.length];
+        this.lastLags = new long[this.stages.length];
+
+        this.historyMask = historySize - 1;
+        this.historyTimestamps = new long[historySize];
+        this.historyCursors = new long[historySize];
+        this.historyLags = new long[this.stages.length][historySize];
+    }
+
+    /**
+     * 启动采样线程并注册JMX
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        samplerThread = new Thread(this::runLoop, "PriceEngine-Telemetry-" + name);
+        samplerThread.setDaemon(true);
+        samplerThread.start();
+        registerMBean();
+        logger.info("Telemetry sampler '{}' started with interval={}us, stages={}",
+                name, getSampleIntervalMicros(), stages.length);
+    }
+
+    /**
+     * 停止采样线程并注销JMX
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(samplerThread);
+        try {
+            samplerThread.join(TimeUnit.NANOSECONDS.toMillis(intervalNanos) + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        unregisterMBean();
+        logger.info("Telemetry sampler '{}' stopped after {} samples", name, sampleCount.get());
+    }
+
+    private void runLoop() {
+        while (running) {
+            sample();
+            LockSupport.parkNanos(intervalNanos);
+        }
+    }
+
+    /**
+     * 执行一次采样（由采样线程调用；未启动时也可手动调用）
+     *
+     * 先读取阶段序列号再读取游标，保证lag非负。
+     */
+    public void sample() {
+        long minSequence = Long.MAX_VALUE;
+        for (int i = 0; i < stages.length; i++) {
+            long sequence = stages[i].sequence().getAsLong();
+            lastSequences[i] = sequence;
+            minSequence = Math.min(minSequence, sequence);
+        }
+        long cursor = cursorSupplier.getAsLong();
+
+        long count = sampleCount.get();
+        int slot = (int) (count & historyMask);
+        historyTimestamps[slot] = System.nanoTime();
+        historyCursors[slot] = cursor;
+
+        for (int i = 0; i < stages.length; i++) {
+            long sequence = lastSequences[i];
+            long lag = Math.max(0, cursor - sequence);
+            lastLags[i] = lag;
+            historyLags[i][slot] = lag;
+            backlogHistograms[i].recordValue(Math.min(bufferSize, upstreamSequence(i, cursor) - sequence));
+        }
+
+        long occupancy = stages.length == 0 ? 0 : Math.max(0, cursor - minSequence);
+        occupancyHistogram.recordValue(Math.min(bufferSize, occupancy));
+        lastOccupancy = occupancy;
+        lastCursor = cursor;
+        sampleCount.set(count + 1);
+    }
+
+    /**
+     * 上游进度：多个上游时取最慢者
+     */
+    private long upstreamSequence(int stageIndex, long cursor) {
+        int[] upstream = stages[stageIndex].upstream();
+        if (upstream.length == 0) {
+            return cursor;
+        }
+        long min = Long.MAX_VALUE;
+        for (int index : upstream) {
+            min = Math.min(min, lastSequences[index]);
+        }
+        return Math.max(min, lastSequences[stageIndex]);
+    }
+
+    /**
+     * 复制最近的时间序列（监控读取，与采样并发时个别样本可能不一致）
+     * @param stageIndex 阶段下标
+     * @param timestamps 输出：采样时间（纳秒）
+     * @param lags 输出：阶段lag
+     * @return 实际复制的样本数
+     */
+    public int copyLagHistory(int stageIndex, long[] timestamps, long[] lags) {
+        long count = sampleCount.get();
+        int available = (int) Math.min(count, historyMask + 1L);
+        int n = Math.min(available, Math.min(timestamps.length, lags.length));
+        for (int i = 0; i < n; i++) {
+            int slot = (int) ((count - n + i) & historyMask);
+            timestamps[i] = historyTimestamps[slot];
+            lags[i] = historyLags[stageIndex][slot];
+        }
+        return n;
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            objectName = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this, objectName);
+        } catch (Exception e) {
+            logger.warn("Failed to register telemetry MBean '{}': {}", name, e.getMessage());
+            objectName = null;
+        }
+    }
+
+    private void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (Exception e) {
+            logger.warn("Failed to unregister telemetry MBean '{}': {}", name, e.getMessage());
+        }
+        objectName = null;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public long getBufferSize() {
+        return bufferSize;
+    }
+
+    @Override
+    public long getSampleCount() {
+        return sampleCount.get();
+    }
+
+    @Override
+    public long getSampleIntervalMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(intervalNanos);
+    }
+
+    @Override
+    public long getCursor() {
+        return lastCursor;
+    }
+
+    @Override
+    public long getOccupancy() {
+        return lastOccupancy;
+    }
+
+    @Override
+    public long getOccupancyP99() {
+        return occupancyHistogram.getValueAtPercentile(99.0);
+    }
+
+    @Override
+    public long getOccupancyMax() {
+        return occupancyHistogram.getMaxValue();
+    }
+
+    @Override
+    public String[] getStageNames() {
+        String[] names = new String[stages.length];
+        for (int i = 0; i < stages.length; i++) {
+            names[i] = stages[i].name();
+        }
+        return names;
+    }
+
+    @Override
+    public long[] getStageSequences() {
+        return lastSequences.clone();
+    }
+
+    @Override
+    public long[] getStageLags() {
+        return lastLags.clone();
+    }
+
+    @Override
+    public long[] getStageBacklogP50() {
+        return backlogPercentile(50.0);
+    }
+
+    @Override
+    public long[] getStageBacklogP99() {
+        return backlogPercentile(99.0);
+    }
+
+    @Override
+    public long[] getStageBacklogMax() {
+        long[] result = new long[stages.length];
+        for (int i = 0; i < stages.length; i++) {
+            result[i] = backlogHistograms[i].getMaxValue();
+        }
+        return result;
+    }
+
+    private long[] backlogPercentile(double percentile) {
+        long[] result = new long[stages.length];
+        for (int i = 0; i < stages.length; i++) {
+            result[i] = backlogHistograms[i].getValueAtPercentile(percentile);
+        }
+        return result;
+    }
+
+    @Override
+    public String getBottleneckStage() {
+        String bottleneck = null;
+        long worst = 0;
+        for (int i = 0; i < stages.length; i++) {
+            long p99 = backlogHistograms[i].getValueAtPercentile(99.0);
+            if (p99 > worst) {
+                worst = p99;
+                bottleneck = stages[i].name();
+            }
+        }
+        return bottleneck == null ? "none" : bottleneck;
+    }
+
+    @Override
+    public void resetHistograms() {
+        occupancyHistogram.reset();
+        for (SynchronizedHistogram histogram : backlogHistograms) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * 获取遥测摘要
+     */
+    public String getSummary() {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("PipelineTelemetry[samples=").append(sampleCount.get())
+          .append(", occupancy=").append(lastOccupancy)
+          .append(", occupancyP99=").append(getOccupancyP99())
+          .append(", bottleneck=").append(getBottleneckStage());
+        for (int i = 0; i < stages.length; i++) {
+            sb.append(", ").append(stages[i].name())
+              .append("{lag=").append(lastLags[i])
+              .append(", backlogP99=").append(backlogHistograms[i].getValueAtPercentile(99.0))
+              .append('}');
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,111 @@
+package com.hft.lockfree.monitor;
+
+import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.util.SingleWriterCounter;
+import org.HdrHistogram.SynchronizedHistogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分阶段延迟记录器
+ *
+ * 被抽样的事件（FLAG_TIMED）在各处理器中记录阶段时间戳，分发处理器分发完成后
+ * 调用record，把相邻时间戳之差记录到各阶段的HdrHistogram：
+ * <pre>
+ *   VALIDATION    ingress    -> validated    （环形缓冲区排队 + 序列检查 + 验证）
+ *   AGGREGATION   validated  -> aggregated
+ *   DISTRIBUTION  aggregated -> distributed
+ *   TOTAL         ingress    -> distributed
+ * </pre>
+ *
+ * 只有分发线程写入；直方图为SynchronizedHistogram，监控线程可以随时读取。
+ * 抽样比例由引擎控制（Builder.stageTimingInterval），未抽样的事件不进入这里。
+ */
+public class StageLatencyRecorder {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * 延迟区间
+     */
+    public enum Stage {
+        VALIDATION,
+        AGGREGATION,
+        DISTRIBUTION,
+        TOTAL
+    }
+
+    private final SynchronizedHistogram[] histograms = new SynchronizedHistogram[Stage.values().length];
+    private final SingleWriterCounter recordedEvents = new SingleWriterCounter();
+
+    public StageLatencyRecorder() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new SynchronizedHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        }
+    }
+
+    /**
+     * 记录一个已分发的抽样事件（仅分发线程调用）
+     */
+    public void record(PriceEvent event) {
+        long ingress = event.getIngressTime();
+        long validated = event.getValidatedTime();
+        long aggregated = event.getAggregatedTime();
+        long distributed = event.getDistributedTime();
+        recordValue(Stage.VALIDATION, validated - ingress);
+        recordValue(Stage.AGGREGATION, aggregated - validated);
+        recordValue(Stage.DISTRIBUTION, distributed - aggregated);
+        recordValue(Stage.TOTAL, distributed - ingress);
+        recordedEvents.increment();
+    }
+
+    private void recordValue(Stage stage, long nanos) {
+        // 不同核心上的nanoTime可能有微小偏差，负值按0记录
+        histograms[stage.ordinal()].recordValue(Math.min(Math.max(nanos, 0), HIGHEST_TRACKABLE_NANOS));
+    }
+
+    /**
+     * 获取阶段延迟的百分位（纳秒）
+     */
+    public long getValueAtPercentile(Stage stage, double percentile) {
+        return histograms[stage.ordinal()].getValueAtPercentile(percentile);
+    }
+
+    /**
+     * 获取阶段平均延迟（纳秒）
+     */
+    public double getMean(Stage stage) {
+        return histograms[stage.ordinal()].getMean();
+    }
+
+    /**
+     * 获取阶段最大延迟（纳秒）
+     */
+    public long getMaxValue(Stage stage) {
+        return histograms[stage.ordinal()].getMaxValue();
+    }
+
+    /**
+     * 获取已记录的抽样事件数
+     */
+    public long getRecordedCount() {
+        return recordedEvents.get();
+    }
+
+    public void reset() {
+        for (SynchronizedHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        recordedEvents.reset();
+    }
+
+    public String getStatistics() {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("StageLatency[samples=").append(getRecordedCount());
+        for (Stage stage : Stage.values()) {
+            sb.append(String.format(", %s p50=%dns p99=%dns max=%dns", stage.name().toLowerCase(),
+                    getValueAtPercentile(stage, 50.0), getValueAtPercentile(stage, 99.0), getMaxValue(stage)));
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,207 @@
+package com.hft.lockfree.replay;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CSV行情转换为二进制列式文件
+ *
+ * CSV每行：timestamp,symbol,bid,ask（其余列忽略）。
+ * 第一行若时间戳不是数字则视为表头跳过；空行和以#开头的行跳过。
+ * 时间戳原样保存（单位由数据源决定），回放时仅用于计算间隔。
+ *
+ * 品种字符串写入字典，行情中只保存int编号。
+ *
+ * 用法：
+ * <pre>
+ * ./gradlew convertTicks -PtickCsv=ticks.csv -PtickFile=ticks.bin
+ * </pre>
+ */
+public class TickFileConverter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TickFileConverter.class);
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    // 解析结果（按列存储，容量按需翻倍）
+    private long[] timestamps = new long[1024];
+    private int[] symbolIds = new int[1024];
+    private double[] bidPrices = new double[1024];
+    private double[] askPrices = new double[1024];
+    private int tickCount;
+
+    private final Map<String, Integer> symbolIndex = new HashMap<>();
+    private final List<String> symbols = new ArrayList<>();
+
+    /**
+     * 转换CSV文件
+     * @param csvFile 源CSV文件
+     * @param tickFile 目标二进制文件（已存在则覆盖）
+     * @return 转换的行情数量
+     */
+    public static long convert(Path csvFile, Path tickFile) throws IOException {
+        TickFileConverter converter = new TickFileConverter();
+        try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
+            converter.parse(reader);
+        }
+        converter.write(tickFile);
+        logger.info("Converted {} ticks ({} symbols) from {} to {}",
+                converter.tickCount, converter.symbols.size(), csvFile, tickFile);
+        return converter.tickCount;
+    }
+
+    private void parse(BufferedReader reader) throws IOException {
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] fields = line.split(",");
+            if (fields.length < 4) {
+                throw new IOException("Malformed tick at line " + lineNumber + ": expected timestamp,symbol,bid,ask");
+            }
+
+            long timestamp;
+            try {
+                timestamp = Long.parseLong(fields[0].trim());
+            } catch (NumberFormatException e) {
+                if (lineNumber == 1) {
+                    continue; // 表头
+                }
+                throw new IOException("Malformed timestamp at line " + lineNumber + ": " + fields[0], e);
+            }
+
+            double bid;
+            double ask;
+            try {
+                bid = Double.parseDouble(fields[2].trim());
+                ask = Double.parseDouble(fields[3].trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed price at line " + lineNumber + ": " + line, e);
+            }
+
+            add(timestamp, symbolId(fields[1].trim()), bid, ask);
+        }
+    }
+
+    private int symbolId(String symbol) {
+        Integer id = symbolIndex.get(symbol);
+        if (id == null) {
+            if (symbol.getBytes(StandardCharsets.UTF_8).length > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Symbol too long: " + symbol);
+            }
+            id = symbols.size();
+            symbols.add(symbol);
+            symbolIndex.put(symbol, id);
+        }
+        return id;
+    }
+
+    private void add(long timestamp, int symbolId, double bid, double ask) {
+        if (tickCount == timestamps.length) {
+            int capacity = tickCount * 2;
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            symbolIds = Arrays.copyOf(symbolIds, capacity);
+            bidPrices = Arrays.copyOf(bidPrices, capacity);
+            askPrices = Arrays.copyOf(askPrices, capacity);
+        }
+        timestamps[tickCount] = timestamp;
+        symbolIds[tickCount] = symbolId;
+        bidPrices[tickCount] = bid;
+        askPrices[tickCount] = ask;
+        tickCount++;
+    }
+
+    private void write(Path tickFile) throws IOException {
+        long timestampsOffset = TickFileFormat.HEADER_SIZE;
+        long symbolIdsOffset = timestampsOffset + (long) tickCount * Long.BYTES;
+        long bidsOffset = TickFileFormat.align8(symbolIdsOffset + (long) tickCount * Integer.BYTES);
+        long asksOffset = bidsOffset + (long) tickCount * Double.BYTES;
+        long symbolTableOffset = asksOffset + (long) tickCount * Double.BYTES;
+
+        try (FileChannel channel = FileChannel.open(tickFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(TickFileFormat.BYTE_ORDER);
+
+            buffer.putInt(TickFileFormat.MAGIC)
+                    .putInt(TickFileFormat.VERSION)
+                    .putLong(tickCount)
+                    .putInt(symbols.size())
+                    .putInt(0)
+                    .putLong(timestampsOffset)
+                    .putLong(symbolIdsOffset)
+                    .putLong(bidsOffset)
+                    .putLong(asksOffset)
+                    .putLong(symbolTableOffset);
+
+            for (int i = 0; i < tickCount; i++) {
+                ensureRemaining(channel, buffer, Long.BYTES);
+                buffer.putLong(timestamps[i]);
+            }
+            for (int i = 0; i < tickCount; i++) {
+                ensureRemaining(channel, buffer, Integer.BYTES);
+                buffer.putInt(symbolIds[i]);
+            }
+            if ((tickCount & 1) != 0) {
+                ensureRemaining(channel, buffer, Integer.BYTES);
+                buffer.putInt(0); // 对齐到8字节
+            }
+            for (int i = 0; i < tickCount; i++) {
+                ensureRemaining(channel, buffer, Double.BYTES);
+                buffer.putDouble(bidPrices[i]);
+            }
+            for (int i = 0; i < tickCount; i++) {
+                ensureRemaining(channel, buffer, Double.BYTES);
+                buffer.putDouble(askPrices[i]);
+            }
+            for (String symbol : symbols) {
+                byte[] bytes = symbol.getBytes(StandardCharsets.UTF_8);
+                ensureRemaining(channel, buffer, Short.BYTES + bytes.length);
+                buffer.putShort((short) bytes.length).put(bytes);
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static void ensureRemaining(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: TickFileConverter <ticks.csv> <ticks.bin>");
+            System.exit(1);
+        }
+        long ticks = convert(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.printf("Converted %,d ticks to %s%n", ticks, args[1]);
+    }
+}
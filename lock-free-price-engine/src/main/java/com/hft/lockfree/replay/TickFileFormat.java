@@ -0,0 +1,47 @@
+package com.hft.lockfree.replay;
+
+import java.nio.ByteOrder;
+
+/**
+ * 二进制行情文件格式（列式存储，小端序）
+ *
+ * <pre>
+ * 头部（64字节）：
+ *   0  int   magic 'TICK'
+ *   4  int   version
+ *   8  long  tickCount
+ *  16  int   symbolCount
+ *  20  int   预留
+ *  24  long  timestamps列偏移   （long[tickCount]）
+ *  32  long  symbolIds列偏移    （int[tickCount]）
+ *  40  long  bidPrices列偏移    （double[tickCount]）
+ *  48  long  askPrices列偏移    （double[tickCount]）
+ *  56  long  品种字典偏移       （symbolCount × [short长度 + UTF-8字节]）
+ * </pre>
+ *
+ * 各列按8字节对齐，读取时直接映射为LongBuffer/IntBuffer/DoubleBuffer视图，无需解析。
+ */
+final class TickFileFormat {
+
+    static final int MAGIC = 0x5449434B; // "TICK"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int TICK_COUNT_OFFSET = 8;
+    static final int SYMBOL_COUNT_OFFSET = 16;
+    static final int TIMESTAMPS_OFFSET = 24;
+    static final int SYMBOL_IDS_OFFSET = 32;
+    static final int BIDS_OFFSET = 40;
+    static final int ASKS_OFFSET = 48;
+    static final int SYMBOL_TABLE_OFFSET = 56;
+
+    private TickFileFormat() {
+    }
+
+    static long align8(long offset) {
+        return (offset + 7) & ~7L;
+    }
+}
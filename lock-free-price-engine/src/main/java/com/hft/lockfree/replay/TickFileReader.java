@@ -0,0 +1,177 @@
+package com.hft.lockfree.replay;
+
+import com.hft.lockfree.engine.LockFreePriceEngine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 二进制行情文件读取器（内存映射）
+ *
+ * 每一列单独映射为只读视图，读取一个字段就是一次带偏移的内存访问，
+ * 回放时没有任何解析开销；页面由操作系统按需加载并缓存。
+ * 品种字典在打开时读入，行情中的品种编号直接索引到共享的String常量。
+ *
+ * 映射区域在close()之后仍由GC负责释放（JDK没有公开的unmap接口）。
+ * 非线程安全，多线程回放时每个线程打开自己的读取器。
+ */
+public class TickFileReader implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final int tickCount;
+    private final String[] symbols;
+
+    private final LongBuffer timestamps;
+    private final IntBuffer symbolIds;
+    private final DoubleBuffer bidPrices;
+    private final DoubleBuffer askPrices;
+
+    /**
+     * 打开并映射行情文件
+     * @param tickFile TickFileConverter生成的二进制文件
+     */
+    public TickFileReader(Path tickFile) throws IOException {
+        this.channel = FileChannel.open(tickFile, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            if (fileSize < TickFileFormat.HEADER_SIZE) {
+                throw new IOException("Not a tick file (too short): " + tickFile);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, TickFileFormat.HEADER_SIZE)
+                    .order(TickFileFormat.BYTE_ORDER);
+            if (header.getInt(TickFileFormat.MAGIC_OFFSET) != TickFileFormat.MAGIC) {
+                throw new IOException("Not a tick file (bad magic): " + tickFile);
+            }
+            int version = header.getInt(TickFileFormat.VERSION_OFFSET);
+            if (version != TickFileFormat.VERSION) {
+                throw new IOException("Unsupported tick file version " + version + ": " + tickFile);
+            }
+            long count = header.getLong(TickFileFormat.TICK_COUNT_OFFSET);
+            if (count < 0 || count > Integer.MAX_VALUE / Long.BYTES) {
+                throw new IOException("Unsupported tick count " + count + ": " + tickFile);
+            }
+            this.tickCount = (int) count;
+
+            this.timestamps = mapColumn(header.getLong(TickFileFormat.TIMESTAMPS_OFFSET), Long.BYTES).asLongBuffer();
+            this.symbolIds = mapColumn(header.getLong(TickFileFormat.SYMBOL_IDS_OFFSET), Integer.BYTES).asIntBuffer();
+            this.bidPrices = mapColumn(header.getLong(TickFileFormat.BIDS_OFFSET), Double.BYTES).asDoubleBuffer();
+            this.askPrices = mapColumn(header.getLong(TickFileFormat.ASKS_OFFSET), Double.BYTES).asDoubleBuffer();
+
+            long symbolTableOffset = header.getLong(TickFileFormat.SYMBOL_TABLE_OFFSET);
+            ByteBuffer symbolTable = channel.map(FileChannel.MapMode.READ_ONLY,
+                    symbolTableOffset, fileSize - symbolTableOffset).order(TickFileFormat.BYTE_ORDER);
+            this.symbols = new String[header.getInt(TickFileFormat.SYMBOL_COUNT_OFFSET)];
+            for (int i = 0; i < symbols.length; i++) {
+                byte[] bytes = new byte[symbolTable.getShort()];
+                symbolTable.get(bytes);
+                symbols[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private MappedByteBuffer mapColumn(long offset, int elementSize) throws IOException {
+        MappedByteBuffer column = channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) tickCount * elementSize);
+        column.order(TickFileFormat.BYTE_ORDER);
+        return column;
+    }
+
+    public int getTickCount() {
+        return tickCount;
+    }
+
+    public int getSymbolCount() {
+        return symbols.length;
+    }
+
+    public String getSymbol(int symbolId) {
+        return symbols[symbolId];
+    }
+
+    public long getTimestamp(int index) {
+        return timestamps.get(index);
+    }
+
+    public int getSymbolId(int index) {
+        return symbolIds.get(index);
+    }
+
+    public double getBidPrice(int index) {
+        return bidPrices.get(index);
+    }
+
+    public double getAskPrice(int index) {
+        return askPrices.get(index);
+    }
+
+    /**
+     * 批量复制行情到调用方数组
+     * @param from 起始行情下标
+     * @param symbolsOut 品种
+     * @param bidsOut 买入价
+     * @param asksOut 卖出价
+     * @param timestampsOut 原始时间戳，可为null
+     * @param length 最大数量
+     * @return 实际复制的数量
+     */
+    public int read(int from, String[] symbolsOut, double[] bidsOut, double[] asksOut, long[] timestampsOut,
+                    int length) {
+        int n = Math.max(0, Math.min(length, tickCount - from));
+        bidPrices.get(from, bidsOut, 0, n);
+        askPrices.get(from, asksOut, 0, n);
+        if (timestampsOut != null) {
+            timestamps.get(from, timestampsOut, 0, n);
+        }
+        for (int i = 0; i < n; i++) {
+            symbolsOut[i] = symbols[symbolIds.get(from + i)];
+        }
+        return n;
+    }
+
+    /**
+     * 尽快把整个文件回放到引擎
+     *
+     * 事件时间戳使用发布时的当前时间（历史时间戳与System.nanoTime()不在同一时间轴，
+     * 会被验证处理器当作无效数据），原始时间戳可通过getTimestamp读取。
+     *
+     * @param engine 已启动的价格引擎
+     * @param batchSize 每批事件数（1表示逐条publishPrice，否则使用publishPrices）
+     * @return 发布的事件数
+     */
+    public long replay(LockFreePriceEngine engine, int batchSize) {
+        if (batchSize <= 1) {
+            long published = 0;
+            for (int i = 0; i < tickCount; i++) {
+                if (engine.publishPrice(symbols[symbolIds.get(i)], bidPrices.get(i), askPrices.get(i))) {
+                    published++;
+                }
+            }
+            return published;
+        }
+
+        String[] batchSymbols = new String[batchSize];
+        double[] batchBids = new double[batchSize];
+        double[] batchAsks = new double[batchSize];
+        long published = 0;
+        for (int from = 0; from < tickCount; from += batchSize) {
+            int n = read(from, batchSymbols, batchBids, batchAsks, null, batchSize);
+            published += engine.publishPrices(batchSymbols, batchBids, batchAsks, null, 0, n);
+        }
+        return published;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
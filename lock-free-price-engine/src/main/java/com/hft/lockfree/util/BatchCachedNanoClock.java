@@ -0,0 +1,30 @@
+package com.hft.lockfree.util;
+
+/**
+ * 批次缓存时钟
+ *
+ * 处理器在批次开始时refresh()，批次内的nanoTime()返回同一个值。
+ * Disruptor在批次开始前已确认本批次的全部事件都已发布，生产者在发布前写入的时间戳
+ * 不会晚于批次开始时刷新的时间，用于"时间戳不能是未来时间"的检查不会误判。
+ *
+ * 非线程安全：只能由拥有它的处理器线程使用。
+ */
+public final class BatchCachedNanoClock implements NanoClock {
+
+    private long now = System.nanoTime();
+
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    @Override
+    public void refresh() {
+        now = System.nanoTime();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchCachedNanoClock";
+    }
+}
@@ -0,0 +1,275 @@
+package com.hft.lockfree.util;
+
+/**
+ * 有状态的行情模拟器
+ *
+ * 与PriceDataGenerator的静态方法（每次围绕固定基准价独立取噪声）不同：
+ * 1. 均值回归随机游走（离散Ornstein-Uhlenbeck）：中间价围绕基准价漂移并被拉回
+ * 2. 突发/平静两种市场状态（两状态马尔可夫链）：突发期波动更大、点差更宽、报价更密集
+ * 3. Zipf分布的品种热度：排名越靠前的品种报价越频繁
+ * 4. 固定种子（xorshift64*），同一种子产生完全相同的行情序列
+ *
+ * 生成过程不分配对象，结果写入调用方提供的基本类型数组，
+ * 基准测试可以预先生成缓冲区，测量的是引擎而不是生成器。
+ *
+ * 非线程安全，每个线程使用自己的实例。
+ */
+public class MarketSimulator {
+
+    // 默认参数
+    public static final double DEFAULT_ZIPF_EXPONENT = 1.1;
+    public static final double DEFAULT_MEAN_REVERSION = 0.01;
+    public static final double DEFAULT_BURST_ENTER_PROBABILITY = 0.001;
+    public static final double DEFAULT_BURST_EXIT_PROBABILITY = 0.01;
+
+    // 突发期相对平静期的倍数
+    private static final double BURST_VOLATILITY_MULTIPLIER = 4.0;
+    private static final double BURST_SPREAD_MULTIPLIER = 2.0;
+
+    // 报价间隔均值（纳秒）：平静期10μs，突发期1μs
+    private static final double QUIET_MEAN_INTERVAL_NANOS = 10_000;
+    private static final double BURST_MEAN_INTERVAL_NANOS = 1_000;
+
+    private final PriceDataGenerator.SymbolConfig[] configs;
+    private final double meanReversion;
+    private final double burstEnterProbability;
+    private final double burstExitProbability;
+
+    // 每个品种的状态
+    private final double[] midPrices;
+    private final double[] tickSigmas;
+
+    // Zipf累积分布，按二分查找采样
+    private final double[] zipfCdf;
+
+    private long rngState;
+    private boolean burst;
+
+    // 正态分布采样（Box-Muller一次产生两个值，缓存另一个）
+    private double spareGaussian;
+    private boolean hasSpareGaussian;
+
+    // 最近一次生成的报价
+    private int lastSymbolIndex;
+    private double lastBid;
+    private double lastAsk;
+    private long lastIntervalNanos;
+
+    /**
+     * 使用默认参数创建
+     * @param configs 交易品种（数组顺序即热度排名）
+     * @param seed 随机种子
+     */
+    public MarketSimulator(PriceDataGenerator.SymbolConfig[] configs, long seed) {
+        this(configs, seed, DEFAULT_ZIPF_EXPONENT, DEFAULT_MEAN_REVERSION,
+                DEFAULT_BURST_ENTER_PROBABILITY, DEFAULT_BURST_EXIT_PROBABILITY);
+    }
+
+    /**
+     * @param configs 交易品种（数组顺序即热度排名）
+     * @param seed 随机种子
+     * @param zipfExponent Zipf指数（0表示均匀分布）
+     * @param meanReversion 每个报价向基准价回归的比例 (0, 1]
+     * @param burstEnterProbability 每个报价由平静期进入突发期的概率
+     * @param burstExitProbability 每个报价由突发期回到平静期的概率
+     */
+    public MarketSimulator(PriceDataGenerator.SymbolConfig[] configs, long seed, double zipfExponent,
+                           double meanReversion, double burstEnterProbability, double burstExitProbability) {
+        if (configs.length == 0) {
+            throw new IllegalArgumentException("At least one symbol is required");
+        }
+        if (meanReversion <= 0 || meanReversion > 1) {
+            throw new IllegalArgumentException("Mean reversion must be in (0, 1]: " + meanReversion);
+        }
+        this.configs = configs.clone();
+        this.meanReversion = meanReversion;
+        this.burstEnterProbability = burstEnterProbability;
+        this.burstExitProbability = burstExitProbability;
+
+        this.midPrices = new double[configs.length];
+        this.tickSigmas = new double[configs.length];
+        for (int i = 0; i < configs.length; i++) {
+            midPrices[i] = configs[i].basePrice;
+            // 平稳分布的标准差约等于配置的波动率：sigma = volatility * sqrt(1 - (1 - theta)^2)
+            double decay = 1.0 - meanReversion;
+            tickSigmas[i] = configs[i].volatility * Math.sqrt(1.0 - decay * decay);
+        }
+
+        this.zipfCdf = new double[configs.length];
+        double total = 0;
+        for (int i = 0; i < configs.length; i++) {
+            total += 1.0 / Math.pow(i + 1, zipfExponent);
+            zipfCdf[i] = total;
+        }
+        for (int i = 0; i < configs.length; i++) {
+            zipfCdf[i] /= total;
+        }
+
+        // xorshift的状态不能为0
+        this.rngState = seed != 0 ? seed : 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * 生成下一个报价，结果通过lastXxx访问器读取
+     * @return 品种下标
+     */
+    public int nextTick() {
+        // 市场状态转移
+        double u = nextDouble();
+        if (burst) {
+            if (u < burstExitProbability) {
+                burst = false;
+            }
+        } else if (u < burstEnterProbability) {
+            burst = true;
+        }
+
+        int index = nextSymbolIndex();
+        PriceDataGenerator.SymbolConfig config = configs[index];
+
+        // 均值回归随机游走
+        double volatilityMultiplier = burst ? BURST_VOLATILITY_MULTIPLIER : 1.0;
+        double mid = midPrices[index];
+        mid += meanReversion * (config.basePrice - mid) + tickSigmas[index] * volatilityMultiplier * nextGaussian();
+        // 价格必须为正，偏离过远时截断
+        if (mid < config.minSpread * 2) {
+            mid = config.minSpread * 2;
+        }
+        midPrices[index] = mid;
+
+        double spread = config.minSpread * (1.0 + nextDouble()) * (burst ? BURST_SPREAD_MULTIPLIER : 1.0);
+        double meanInterval = burst ? BURST_MEAN_INTERVAL_NANOS : QUIET_MEAN_INTERVAL_NANOS;
+
+        lastSymbolIndex = index;
+        lastBid = mid - spread / 2;
+        lastAsk = mid + spread / 2;
+        // 指数分布的到达间隔
+        lastIntervalNanos = 1 + (long) (-Math.log(1.0 - nextDouble()) * meanInterval);
+        return index;
+    }
+
+    /**
+     * 批量生成报价，写入调用方提供的数组
+     * @param symbolIndices 品种下标（对应getSymbol）
+     * @param bidPrices 买入价
+     * @param askPrices 卖出价
+     * @param intervalNanos 与上一个报价的间隔（纳秒），可为null
+     * @param offset 起始下标
+     * @param length 数量
+     */
+    public void fill(int[] symbolIndices, double[] bidPrices, double[] askPrices, long[] intervalNanos,
+                     int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            symbolIndices[i] = nextTick();
+            bidPrices[i] = lastBid;
+            askPrices[i] = lastAsk;
+            if (intervalNanos != null) {
+                intervalNanos[i] = lastIntervalNanos;
+            }
+        }
+    }
+
+    /**
+     * 批量生成报价，品种直接写为字符串（引用共享的常量，不分配）
+     */
+    public void fill(String[] symbols, double[] bidPrices, double[] askPrices, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            symbols[i] = configs[nextTick()].symbol;
+            bidPrices[i] = lastBid;
+            askPrices[i] = lastAsk;
+        }
+    }
+
+    /**
+     * Zipf采样：在累积分布上二分查找
+     */
+    private int nextSymbolIndex() {
+        double u = nextDouble();
+        int low = 0;
+        int high = zipfCdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (zipfCdf[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * xorshift64*
+     */
+    private long nextLong() {
+        long x = rngState;
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        rngState = x;
+        return x * 0x2545F4914F6CDD1DL;
+    }
+
+    /**
+     * [0, 1) 均匀分布
+     */
+    private double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    private double nextGaussian() {
+        if (hasSpareGaussian) {
+            hasSpareGaussian = false;
+            return spareGaussian;
+        }
+        double u1 = 1.0 - nextDouble(); // (0, 1]，避免log(0)
+        double u2 = nextDouble();
+        double radius = Math.sqrt(-2.0 * Math.log(u1));
+        double angle = 2.0 * Math.PI * u2;
+        spareGaussian = radius * Math.sin(angle);
+        hasSpareGaussian = true;
+        return radius * Math.cos(angle);
+    }
+
+    public int getSymbolCount() {
+        return configs.length;
+    }
+
+    public String getSymbol(int index) {
+        return configs[index].symbol;
+    }
+
+    public int getLastSymbolIndex() {
+        return lastSymbolIndex;
+    }
+
+    public String getLastSymbol() {
+        return configs[lastSymbolIndex].symbol;
+    }
+
+    public double getLastBid() {
+        return lastBid;
+    }
+
+    public double getLastAsk() {
+        return lastAsk;
+    }
+
+    public long getLastIntervalNanos() {
+        return lastIntervalNanos;
+    }
+
+    /**
+     * 当前是否处于突发期
+     */
+    public boolean isBurst() {
+        return burst;
+    }
+
+    /**
+     * 品种当前中间价
+     */
+    public double getMidPrice(int index) {
+        return midPrices[index];
+    }
+}
@@ -0,0 +1,34 @@
+package com.hft.lockfree.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 内存预触碰
+ *
+ * direct内存和内存映射文件的页面在第一次写入时才由操作系统分配（缺页中断），
+ * 启动时逐页写一次，首批行情不再承担缺页和TLB未命中的开销。
+ *
+ * 每页读出一个字节再原样写回：内容不变，但触发的是写缺页（映射文件只读一次的话，
+ * 第一次写入仍然会再缺页一次）。只能在没有其他写者时调用（启动阶段）。
+ */
+public final class MemoryPreToucher {
+
+    // 按4KB步进，大页时多触碰几次，不影响正确性
+    public static final int PAGE_SIZE = 4096;
+
+    private MemoryPreToucher() {
+    }
+
+    /**
+     * 逐页写触碰整个缓冲区
+     * @return 触碰的页数
+     */
+    public static long touch(ByteBuffer buffer) {
+        long pages = 0;
+        for (int offset = 0; offset < buffer.capacity(); offset += PAGE_SIZE) {
+            buffer.put(offset, buffer.get(offset));
+            pages++;
+        }
+        return pages;
+    }
+}
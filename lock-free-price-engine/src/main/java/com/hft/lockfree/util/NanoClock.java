@@ -0,0 +1,46 @@
+package com.hft.lockfree.util;
+
+/**
+ * 处理器使用的纳秒时钟
+ *
+ * 与System.nanoTime()同一时间轴。三种实现：
+ * 1. system()：每次读取都调用System.nanoTime()
+ * 2. batchCached()：处理器在每个批次开始时refresh()一次，批次内的读取只是一次普通字段读；
+ *    每个处理器线程使用自己的实例
+ * 3. UpdatingNanoClock：专用线程持续刷新，所有线程共享，读取方从不调用System.nanoTime()
+ *
+ * 缓存型时钟读到的时间会落后于真实时间，落后量的上限见getResolutionNanos()。
+ */
+public interface NanoClock {
+
+    NanoClock SYSTEM = System::nanoTime;
+
+    /**
+     * 当前时间（纳秒，与System.nanoTime()可比较）
+     */
+    long nanoTime();
+
+    /**
+     * 批次开始时由处理器线程调用，批次缓存型时钟在此读取一次真实时间
+     */
+    default void refresh() {
+    }
+
+    /**
+     * 读到的时间最多落后真实时间多少纳秒（0表示实时读取；批次缓存时钟不计批次本身的处理时间）
+     */
+    default long getResolutionNanos() {
+        return 0L;
+    }
+
+    static NanoClock system() {
+        return SYSTEM;
+    }
+
+    /**
+     * 新的批次缓存时钟（非线程安全，每个处理器一个）
+     */
+    static NanoClock batchCached() {
+        return new BatchCachedNanoClock();
+    }
+}
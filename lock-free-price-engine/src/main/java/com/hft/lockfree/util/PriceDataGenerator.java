@@ -1,11 +1,15 @@
 package com.hft.lockfree.util;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 价格数据生成器工具类
  * 
- * 用于生成测试用的价格数据，模拟真实的市场价格行为
+ * 用于生成测试用的价格数据，模拟真实的市场价格行为。
+ * 静态方法每次独立取样并返回PricePair；需要连续、可复现且不分配对象的行情时，
+ * 使用createSimulator(seed)创建MarketSimulator。
  */
 public class PriceDataGenerator {
     
@@ -23,6 +27,15 @@ public class PriceDataGenerator {
         new SymbolConfig("USOIL", 70.00, 0.01, 2.0)
     };
     
+    // 品种名称 -> 配置，避免线性扫描
+    private static final Map<String, SymbolConfig> CONFIGS_BY_SYMBOL = new HashMap<>();
+    
+    static {
+        for (SymbolConfig config : SYMBOL_CONFIGS) {
+            CONFIGS_BY_SYMBOL.put(config.symbol, config);
+        }
+    }
+    
     /**
      * 获取所有可用的交易品种
      */
@@ -38,12 +51,26 @@ public class PriceDataGenerator {
      * 获取指定交易品种的配置
      */
     public static SymbolConfig getSymbolConfig(String symbol) {
-        for (SymbolConfig config : SYMBOL_CONFIGS) {
-            if (config.symbol.equals(symbol)) {
-                return config;
-            }
+        SymbolConfig config = CONFIGS_BY_SYMBOL.get(symbol);
+        if (config == null) {
+            throw new IllegalArgumentException("Unknown symbol: " + symbol);
         }
-        throw new IllegalArgumentException("Unknown symbol: " + symbol);
+        return config;
+    }
+    
+    /**
+     * 获取所有交易品种配置（数组顺序即模拟器中的热度排名）
+     */
+    public static SymbolConfig[] getAllSymbolConfigs() {
+        return SYMBOL_CONFIGS.clone();
+    }
+    
+    /**
+     * 创建基于预定义品种的行情模拟器
+     * @param seed 随机种子，相同种子产生相同的行情序列
+     */
+    public static MarketSimulator createSimulator(long seed) {
+        return new MarketSimulator(SYMBOL_CONFIGS, seed);
     }
     
     /**
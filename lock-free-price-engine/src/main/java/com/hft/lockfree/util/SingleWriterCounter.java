@@ -0,0 +1,94 @@
+package com.hft.lockfree.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 单写者计数器
+ *
+ * 设计要点：
+ * 1. 只允许一个线程写入（处理器线程），写入使用release语义（等同lazySet），
+ *    没有AtomicLong.incrementAndGet()的lock前缀指令开销
+ * 2. 其他线程（监控线程）使用acquire语义读取，能看到写者最近发布的值
+ * 3. 前后填充避免与相邻对象发生伪共享
+ *
+ * 注意：多个线程同时调用increment()/add()会丢失更新；
+ * 监控线程调用reset()与写者并发时，重置可能被写者覆盖。
+ */
+public final class SingleWriterCounter extends SingleWriterCounterFields {
+
+    protected long p9, p10, p11, p12, p13, p14, p15;
+
+    public SingleWriterCounter() {
+        this(0L);
+    }
+
+    public SingleWriterCounter(long initialValue) {
+        VALUE.setRelease(this, initialValue);
+    }
+
+    /**
+     * 加1（仅写者线程调用）
+     */
+    public void increment() {
+        VALUE.setRelease(this, value + 1);
+    }
+
+    /**
+     * 增加指定值（仅写者线程调用）
+     */
+    public void add(long delta) {
+        VALUE.setRelease(this, value + delta);
+    }
+
+    /**
+     * 设置为指定值
+     */
+    public void set(long newValue) {
+        VALUE.setRelease(this, newValue);
+    }
+
+    /**
+     * 重置为0
+     */
+    public void reset() {
+        VALUE.setVolatile(this, 0L);
+    }
+
+    /**
+     * 读取当前值（任意线程）
+     */
+    public long get() {
+        return (long) VALUE.getAcquire(this);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(get());
+    }
+}
+
+/**
+ * 左侧填充
+ */
+abstract class SingleWriterCounterPadding {
+    protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+/**
+ * 计数值字段
+ */
+abstract class SingleWriterCounterFields extends SingleWriterCounterPadding {
+
+    static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SingleWriterCounterFields.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    protected long value;
+}
@@ -0,0 +1,102 @@
+package com.hft.lockfree.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 专用线程刷新的共享时钟
+ *
+ * 更新线程循环读取System.nanoTime()并发布到一个volatile字段，任意线程读取时间
+ * 只是一次内存读（x86上volatile读就是普通load）。间隔为0时更新线程自旋，
+ * 独占一个CPU核心，读到的时间落后不超过一次System.nanoTime()的耗时；
+ * 间隔大于0时每次更新后parkNanos，落后量约为间隔加上线程唤醒延迟。
+ *
+ * 更新线程被抢占时时钟会停走，适合有独立核心的部署；核心紧张时使用批次缓存时钟。
+ */
+public final class UpdatingNanoClock implements NanoClock, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpdatingNanoClock.class);
+
+    private final long updateIntervalNanos;
+
+    private volatile long now = System.nanoTime();
+    private volatile boolean running;
+    private Thread updater;
+
+    /**
+     * @param updateIntervalNanos 更新间隔（纳秒），0表示自旋
+     */
+    public UpdatingNanoClock(long updateIntervalNanos) {
+        if (updateIntervalNanos < 0) {
+            throw new IllegalArgumentException("Update interval must not be negative: " + updateIntervalNanos);
+        }
+        this.updateIntervalNanos = updateIntervalNanos;
+    }
+
+    /**
+     * 启动更新线程
+     */
+    public synchronized UpdatingNanoClock start() {
+        if (running) {
+            return this;
+        }
+        running = true;
+        updater = new Thread(this::run, "PriceEngine-Clock");
+        updater.setDaemon(true);
+        updater.start();
+        logger.info("UpdatingNanoClock started: interval={}ns", updateIntervalNanos);
+        return this;
+    }
+
+    private void run() {
+        while (running) {
+            now = System.nanoTime();
+            if (updateIntervalNanos > 0) {
+                LockSupport.parkNanos(updateIntervalNanos);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    @Override
+    public long getResolutionNanos() {
+        // park的实际唤醒延迟通常在几十微秒量级，按间隔加上固定余量估计
+        return updateIntervalNanos + TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 停止更新线程（时钟停在最后一次更新的时间）
+     */
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(updater);
+        try {
+            updater.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("UpdatingNanoClock stopped");
+    }
+
+    @Override
+    public String toString() {
+        return "UpdatingNanoClock{interval=" + updateIntervalNanos + "ns}";
+    }
+}
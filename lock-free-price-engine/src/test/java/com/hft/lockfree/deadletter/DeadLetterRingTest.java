@@ -0,0 +1,104 @@
+package com.hft.lockfree.deadletter;
+
+import com.hft.lockfree.engine.LockFreePriceEngine;
+import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.handler.ValidationHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DeadLetterRing单元测试
+ */
+class DeadLetterRingTest {
+
+    private static PriceEvent event(String symbol, double bid, double ask) {
+        PriceEvent event = new PriceEvent();
+        event.setPriceData(symbol, bid, ask, System.nanoTime());
+        event.setSource(3, 42);
+        return event;
+    }
+
+    @Test
+    void testRejectedFieldsPreservedBeforeReset() throws Exception {
+        List<String> letters = new ArrayList<>();
+        DeadLetterRing ring = new DeadLetterRing("test", 8, letter -> letters.add(
+                letter.getReason() + ":" + letter.getSymbol() + ":" + letter.getBidPrice() + ":"
+                        + letter.getAskPrice() + ":" + letter.getSourceId() + "/" + letter.getSourceSequence()
+                        + "@" + letter.getSequence()));
+        ValidationHandler handler = new ValidationHandler(ring);
+
+        // 买卖价倒挂
+        PriceEvent crossed = event("EURUSD", 1.2, 1.1);
+        handler.onEvent(crossed, 7, true);
+        // 价差过大
+        PriceEvent wide = event("GBPUSD", 1.0, 2.0);
+        handler.onEvent(wide, 8, true);
+        // 有效事件不进入死信
+        handler.onEvent(event("USDJPY", 150.00, 150.01), 9, true);
+
+        assertNull(crossed.getSymbol(), "rejected event should be reset");
+        assertEquals(2, ring.getPendingCount());
+        assertEquals(2, ring.drain(Integer.MAX_VALUE));
+        assertEquals(List.of(
+                "INVALID_DATA:EURUSD:1.2:1.1:3/42@7",
+                "SPREAD_TOO_WIDE:GBPUSD:1.0:2.0:3/42@8"), letters);
+    }
+
+    @Test
+    void testOverflowIsCountedNotBlocking() {
+        DeadLetterRing ring = new DeadLetterRing("test", 4, letter -> { });
+        PriceEvent event = event("EURUSD", 1.2, 1.1);
+
+        for (int i = 0; i < 10; i++) {
+            ring.offer(event, i, RejectReason.INVALID_DATA);
+        }
+
+        assertEquals(4, ring.getOfferedCount());
+        assertEquals(6, ring.getOverflowCount());
+        assertEquals(4, ring.drain(2) + ring.drain(2));
+        assertTrue(ring.offer(event, 10, RejectReason.INVALID_DATA));
+        assertEquals(1, ring.getPendingCount());
+    }
+
+    @Test
+    void testSinkFailureDoesNotStopDraining() {
+        DeadLetterRing ring = new DeadLetterRing("test", 4, letter -> {
+            throw new IllegalStateException("disk full");
+        });
+        ring.offer(event("EURUSD", 1.2, 1.1), 1, RejectReason.INVALID_DATA);
+        ring.offer(event("EURUSD", 1.2, 1.1), 2, RejectReason.INVALID_DATA);
+
+        assertEquals(2, ring.drain(Integer.MAX_VALUE));
+        assertEquals(2, ring.getSinkErrorCount());
+        assertEquals(0, ring.getPendingCount());
+    }
+
+    @Test
+    void testEngineDrainsDeadLettersInBackground() {
+        List<RejectReason> reasons = new CopyOnWriteArrayList<>();
+        LockFreePriceEngine engine = LockFreePriceEngine.builder()
+                .deadLetterCapacity(64)
+                .deadLetterSink(letter -> reasons.add(letter.getReason()))
+                .build();
+        engine.start();
+        try {
+            for (int i = 0; i < 20; i++) {
+                engine.publishPrice("EURUSD", 1.2, 1.1);
+                engine.publishPrice("EURUSD", 1.0999, 1.1001);
+            }
+        } finally {
+            // 关闭时排空剩余死信
+            engine.shutdown();
+        }
+
+        assertEquals(20, reasons.size());
+        assertTrue(reasons.stream().allMatch(r -> r == RejectReason.INVALID_DATA));
+        assertEquals(0, engine.getDeadLetterRing().getPendingCount());
+        assertFalse(engine.getDeadLetterRing().isRunning());
+    }
+}
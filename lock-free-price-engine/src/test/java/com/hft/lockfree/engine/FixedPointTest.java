@@ -0,0 +1,117 @@
+package com.hft.lockfree.engine;
+
+import com.hft.lockfree.deadletter.RejectReason;
+import com.hft.lockfree.event.TickScale;
+import com.hft.lockfree.handler.AggregationHandler;
+import com.hft.lockfree.handler.ChangeSuppression;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 定点价格测试：发布时换算为价位数，验证和变化抑制按价位数比较，查询仍返回double
+ */
+class FixedPointTest {
+
+    private static void assertFixedPointPipeline(boolean offHeap) throws Exception {
+        List<RejectReason> rejected = new CopyOnWriteArrayList<>();
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(3);
+        LockFreePriceEngine engine = LockFreePriceEngine.builder()
+                .ringBufferSize(1024)
+                .offHeap(offHeap)
+                .fixedPoint(new TickScale(0.0001).tickSize("USDJPY", 0.01))
+                .changeSuppression(ChangeSuppression.duplicatesOnly())
+                .deadLetterSink(letter -> rejected.add(letter.getReason()))
+                .build();
+        engine.subscribe((event, sequence) -> {
+            assertTrue(event.isFixedPoint());
+            delivered.add(event.getSymbol() + "@" + event.getBidTicks() + "/" + event.getAskTicks());
+            latch.countDown();
+        });
+        engine.start();
+        try {
+            long now = System.nanoTime();
+            engine.publishPrice("EURUSD", 1.0999, 1.1001);
+            engine.publishPriceTicks("USDJPY", 15000, 15002, now, 0, 0L);
+            // 与上一次分发的价位数完全相同，被抑制
+            engine.publishPriceTicks("EURUSD", 10999, 11001, now, 0, 0L);
+            // 价差 2000 / 中间价 11000 > 10%
+            engine.publishPriceTicks("EURUSD", 10000, 12000, now, 0, 0L);
+            engine.publishPrice("EURUSD", 1.1000, 1.1002);
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+            assertEquals(List.of("EURUSD@10999/11001", "USDJPY@15000/15002", "EURUSD@11000/11002"), delivered);
+            assertEquals(1, engine.getAggregationHandler().getSuppressedEventCount());
+
+            AggregationHandler.PriceSnapshot usdjpy = engine.getAggregationHandler().getLatestPrice("USDJPY");
+            assertEquals(15002, usdjpy.getAskTicks());
+            assertEquals(0.01, usdjpy.getTickSize());
+            assertEquals(150.02, usdjpy.getAskPrice(), 1e-9);
+        } finally {
+            engine.shutdown();
+        }
+        assertEquals(List.of(RejectReason.SPREAD_TOO_WIDE), rejected);
+    }
+
+    @Test
+    void testFixedPointOnHeap() throws Exception {
+        assertFixedPointPipeline(false);
+    }
+
+    @Test
+    void testFixedPointOffHeap() throws Exception {
+        assertFixedPointPipeline(true);
+    }
+
+    @Test
+    void testOffGridPricesSnappedToTicks() throws Exception {
+        List<double[]> delivered = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        LockFreePriceEngine engine = LockFreePriceEngine.builder()
+                .ringBufferSize(1024)
+                .fixedPoint(new TickScale(0.0001))
+                .build();
+        engine.subscribe((event, sequence) -> {
+            delivered.add(new double[]{event.getBidPrice(), event.getAskPrice(),
+                    event.getBidTicks(), event.getAskTicks()});
+            latch.countDown();
+        });
+        engine.start();
+        try {
+            // 一个价位内交叉：两边都四舍五入到11000，double价格随价位数改写，不会以交叉报价分发
+            engine.publishPrice("EURUSD", 1.10004, 1.10001);
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+            double[] quote = delivered.get(0);
+            assertEquals(11000, quote[2]);
+            assertEquals(11000, quote[3]);
+            assertEquals(TickScale.toPrice(11000, 0.0001), quote[0]);
+            assertEquals(TickScale.toPrice(11000, 0.0001), quote[1]);
+            AggregationHandler.PriceSnapshot book = engine.getAggregationHandler().getLatestPrice("EURUSD");
+            assertTrue(book.getBidPrice() <= book.getAskPrice());
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void testPublishTicksRequiresTickScale() {
+        LockFreePriceEngine engine = new LockFreePriceEngine();
+        assertThrows(IllegalStateException.class,
+                () -> engine.publishPriceTicks("EURUSD", 10999, 11001, System.nanoTime(), 0, 0L));
+    }
+
+    @Test
+    void testTickConversionRoundsToNearestTick() {
+        // 0.1 + 0.2 在double中不等于0.3，换算后价位数一致
+        assertEquals(TickScale.toTicks(0.3, 0.0001), TickScale.toTicks(0.1 + 0.2, 0.0001));
+        assertEquals(0.01, new TickScale(0.0001).tickSize("USDJPY", 0.01).getTickSize("USDJPY"));
+        assertThrows(IllegalArgumentException.class, () -> new TickScale(0));
+    }
+}
@@ -5,6 +5,11 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -201,4 +206,35 @@ class LockFreePriceEngineTest {
         var engine3 = new LockFreePriceEngine(16384, new com.lmax.disruptor.SleepingWaitStrategy());
         assertNotNull(engine3);
     }
-}
\ No newline at end of file
+    
+    @Test
+    void testQuoteReusingTradeSlotHasNoVolume() throws InterruptedException {
+        assertQuoteReusingTradeSlotHasNoVolume(false);
+        assertQuoteReusingTradeSlotHasNoVolume(true);
+    }
+    
+    private static void assertQuoteReusingTradeSlotHasNoVolume(boolean offHeap) throws InterruptedException {
+        List<Double> volumes = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(5);
+        LockFreePriceEngine engine = LockFreePriceEngine.builder()
+                .ringBufferSize(4)
+                .offHeap(offHeap)
+                .build();
+        engine.subscribe((event, sequence) -> {
+            volumes.add(event.getVolume());
+            latch.countDown();
+        });
+        engine.start();
+        try {
+            assertTrue(engine.publishTrade("EURUSD", 1.1000, 5000));
+            // 第四个报价复用成交事件的槽位
+            for (int i = 1; i <= 4; i++) {
+                assertTrue(engine.publishPrice("EURUSD", 1.1000 + i * 0.0001, 1.1002 + i * 0.0001));
+            }
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of(5000.0, 0.0, 0.0, 0.0, 0.0), volumes);
+        } finally {
+            engine.shutdown();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.hft.lockfree.engine;
+
+import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.handler.PriceEventHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PipelineTopology单元测试
+ */
+class PipelineTopologyTest {
+
+    /**
+     * 记录最后处理序列号的测试处理器
+     */
+    private static class RecordingHandler implements PriceEventHandler {
+        private final String name;
+        final AtomicLong lastSequence = new AtomicLong(-1);
+        final AtomicLong validatedEvents = new AtomicLong();
+
+        RecordingHandler(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void onEvent(PriceEvent event, long sequence, boolean endOfBatch) {
+            if (event.isProcessed()) {
+                validatedEvents.incrementAndGet();
+            }
+            lastSequence.set(sequence);
+        }
+
+        @Override
+        public String getHandlerName() {
+            return name;
+        }
+    }
+
+    @Test
+    void testTopologicalOrder() {
+        PipelineTopology topology = PipelineTopology.builder()
+                .stage("c", new RecordingHandler("c"), "a", "b")
+                .stage("a", new RecordingHandler("a"))
+                .stage("b", new RecordingHandler("b"), "a")
+                .build();
+
+        List<String> names = topology.getStages().stream().map(PipelineTopology.Stage::name).toList();
+        assertEquals(List.of("a", "b", "c"), names);
+        assertEquals(2, topology.indexOf("c"));
+    }
+
+    @Test
+    void testInvalidTopologies() {
+        RecordingHandler handler = new RecordingHandler("a");
+
+        assertThrows(IllegalArgumentException.class, () -> PipelineTopology.builder()
+                .stage("a", handler)
+                .stage("a", new RecordingHandler("a2")));
+
+        assertThrows(IllegalArgumentException.class, () -> PipelineTopology.builder()
+                .stage("a", handler)
+                .stage("b", handler));
+
+        assertThrows(IllegalStateException.class, () -> PipelineTopology.builder()
+                .stage("a", handler, "missing")
+                .build());
+
+        assertThrows(IllegalStateException.class, () -> PipelineTopology.builder()
+                .stage("a", handler, "b")
+                .stage("b", new RecordingHandler("b"), "a")
+                .build());
+    }
+
+    @Test
+    void testParallelStagesAndJoin() throws InterruptedException {
+        RecordingHandler journal = new RecordingHandler("journal");
+        RecordingHandler analytics = new RecordingHandler("analytics");
+        AtomicBoolean orderViolated = new AtomicBoolean(false);
+
+        // 汇合点：必须在聚合和日志都完成后才能看到事件
+        RecordingHandler audit = new RecordingHandler("audit") {
+            @Override
+            public void onEvent(PriceEvent event, long sequence, boolean endOfBatch) {
+                if (journal.lastSequence.get() < sequence) {
+                    orderViolated.set(true);
+                }
+                super.onEvent(event, sequence, endOfBatch);
+            }
+        };
+
+        LockFreePriceEngine engine = LockFreePriceEngine.builder()
+                .ringBufferSize(1024)
+                .stage("journal", journal, PipelineTopology.VALIDATION)
+                .stage("analytics", analytics, PipelineTopology.VALIDATION)
+                .stage("audit", audit, PipelineTopology.AGGREGATION, "journal")
+                .dependsOn(PipelineTopology.DISTRIBUTION, "analytics")
+                .build();
+
+        assertEquals(List.of("validation"),
+                engine.getTopology().getStage("journal").dependencies());
+
+        engine.start();
+        try {
+            for (int i = 0; i < 500; i++) {
+                assertTrue(engine.publishPrice("EURUSD", 1.0999, 1.1001));
+            }
+            Thread.sleep(200);
+
+            assertEquals(500, journal.validatedEvents.get());
+            assertEquals(500, analytics.validatedEvents.get());
+            assertEquals(499, audit.lastSequence.get());
+            assertFalse(orderViolated.get());
+            assertTrue(engine.getStatistics().contains("No statistics available"));
+        } finally {
+            engine.shutdown();
+        }
+    }
+}
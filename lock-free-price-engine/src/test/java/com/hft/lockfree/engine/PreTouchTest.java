@@ -0,0 +1,82 @@
+package com.hft.lockfree.engine;
+
+import com.hft.lockfree.event.PriceQuote;
+import com.hft.lockfree.ipc.SharedPriceTableReader;
+import com.hft.lockfree.ipc.SharedPriceTableWriter;
+import com.hft.lockfree.util.MemoryPreToucher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 启动预触碰测试：预留的品种在首个报价前不可见，之后与普通品种一致
+ */
+class PreTouchTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static void assertReservedSymbols(boolean offHeap, Path file) throws Exception {
+        try (SharedPriceTableWriter writer = new SharedPriceTableWriter(file, 8);
+             SharedPriceTableReader reader = new SharedPriceTableReader(file)) {
+            LockFreePriceEngine engine = LockFreePriceEngine.builder()
+                    .ringBufferSize(1024)
+                    .offHeap(offHeap)
+                    .sharedPriceTable(writer)
+                    .preTouch("EURUSD", "GBPUSD")
+                    .build();
+            CountDownLatch latch = new CountDownLatch(2);
+            engine.subscribe((event, sequence) -> latch.countDown());
+            engine.start();
+            try {
+                PriceQuote quote = new PriceQuote();
+                // 共享内存槽位已登记，价格簿中还没有
+                assertEquals(2, reader.getSymbolCount());
+                assertFalse(reader.read(reader.findSlot("EURUSD"), quote));
+                assertEquals(0, engine.getAggregationHandler().getSymbolCount());
+
+                engine.publishPrice("EURUSD", 1.0999, 1.1001);
+                engine.publishPrice("USDJPY", 150.00, 150.02);
+                assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+                assertEquals(2, engine.getAggregationHandler().getSymbolCount());
+                // 预留品种的首个报价与未预留品种的处理结果一致
+                assertTrue(engine.getAggregationHandler().getLatestPrice("USDJPY", quote));
+                long firstUpdateCount = quote.getUpdateCount();
+                assertTrue(engine.getAggregationHandler().getLatestPrice("EURUSD", quote));
+                assertEquals(firstUpdateCount, quote.getUpdateCount());
+                assertEquals(1.1001, quote.getAskPrice());
+                assertFalse(engine.getAggregationHandler().getLatestPrice("GBPUSD", quote));
+                assertTrue(reader.read(reader.findSlot("EURUSD"), quote));
+                assertEquals(1.0999, quote.getBidPrice());
+                assertTrue(reader.read(reader.findSlot("USDJPY"), quote));
+            } finally {
+                engine.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void testReservedSymbolsOnHeap() throws Exception {
+        assertReservedSymbols(false, tempDir.resolve("heap.lvc"));
+    }
+
+    @Test
+    void testReservedSymbolsOffHeap() throws Exception {
+        assertReservedSymbols(true, tempDir.resolve("offheap.lvc"));
+    }
+
+    @Test
+    void testTouchPreservesContent() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(3 * MemoryPreToucher.PAGE_SIZE + 1);
+        buffer.put(MemoryPreToucher.PAGE_SIZE, (byte) 42);
+        assertEquals(4, MemoryPreToucher.touch(buffer));
+        assertEquals(42, buffer.get(MemoryPreToucher.PAGE_SIZE));
+    }
+}
@@ -0,0 +1,58 @@
+package com.hft.lockfree.engine;
+
+import com.hft.lockfree.event.PriceQuote;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JIT预热模式测试：预热事件不触及真实状态
+ */
+class WarmUpTest {
+
+    @Test
+    void testWarmUpLeavesLiveStateUntouched() throws InterruptedException {
+        LockFreePriceEngine engine = LockFreePriceEngine.builder().ringBufferSize(1024).build();
+        AtomicInteger delivered = new AtomicInteger();
+        CountDownLatch live = new CountDownLatch(1);
+        engine.subscribe((event, sequence) -> {
+            assertFalse(event.isWarmUp());
+            delivered.incrementAndGet();
+            live.countDown();
+        });
+        engine.start();
+        try {
+            WarmUpReport report = engine.warmUp(5_000, 3);
+            assertEquals(3, report.rounds());
+            assertEquals(15_000, report.events());
+
+            assertEquals(0, delivered.get());
+            assertEquals(0, engine.getAggregationHandler().getSymbolCount());
+            assertEquals(0, engine.getDistributionHandler().getDistributedEventCount());
+            assertEquals(0, engine.getSequenceGapHandler().getExpectedSequence(1));
+            assertEquals(0, engine.getDeadLetterRing().getOfferedCount());
+            assertTrue(engine.getStatistics().contains("published=0"));
+
+            // 预热之后正式数据正常处理，数据源1的序列检查从头开始
+            engine.publishPrice("EURUSD", 1.1000, 1.1002, System.nanoTime(), 1, 1L);
+            assertTrue(live.await(5, TimeUnit.SECONDS));
+            PriceQuote quote = new PriceQuote();
+            assertTrue(engine.getAggregationHandler().getLatestPrice("EURUSD", quote));
+            assertEquals(1, engine.getAggregationHandler().getSymbolCount());
+            assertEquals(2L, engine.getSequenceGapHandler().getExpectedSequence(1));
+            assertEquals(0, engine.getSequenceGapHandler().getGapEventCount());
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void testWarmUpRequiresRunningEngine() {
+        LockFreePriceEngine engine = new LockFreePriceEngine();
+        assertThrows(IllegalStateException.class, engine::warmUp);
+    }
+}
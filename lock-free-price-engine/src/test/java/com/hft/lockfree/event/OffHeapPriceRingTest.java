@@ -0,0 +1,80 @@
+package com.hft.lockfree.event;
+
+import com.hft.lockfree.engine.LockFreePriceEngine;
+import com.hft.lockfree.engine.PipelineTopology;
+import com.hft.lockfree.handler.AggregationHandler;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OffHeapPriceRing单元测试
+ */
+class OffHeapPriceRingTest {
+
+    @Test
+    void testFlyweightRoundTrip() {
+        OffHeapPriceRing ring = new OffHeapPriceRing(8, new YieldingWaitStrategy());
+        assertEquals(8L * OffHeapPriceEvent.RECORD_SIZE, ring.getCapacityBytes());
+
+        OffHeapPriceEvent writer = ring.newFlyweight();
+        writer.wrap(3).setPriceData("EURUSD", 1.0999, 1.1001, 123L);
+        writer.setSource(7, 42L);
+        writer.setSequence(3);
+        writer.addFlag(PriceEvent.FLAG_DROPPED);
+        writer.wrap(4).setPriceData("GBPUSD", 1.2499, 1.2501, 456L);
+
+        // 另一个享元读取同一块内存；序列号按缓冲区大小取模
+        OffHeapPriceEvent reader = ring.newFlyweight().wrap(11);
+        assertEquals("EURUSD", reader.getSymbol());
+        assertEquals(1.0999, reader.getBidPrice());
+        assertEquals(1.1001, reader.getAskPrice());
+        assertEquals(123L, reader.getTimestamp());
+        assertEquals(7, reader.getSourceId());
+        assertEquals(42L, reader.getSourceSequence());
+        assertEquals(3L, reader.getSequence());
+        assertTrue(reader.isDropped());
+        assertEquals(0.0002, reader.getSpread(), 1e-9);
+
+        assertEquals("GBPUSD", reader.wrap(4).getSymbol());
+        reader.reset();
+        assertNull(reader.getSymbol());
+        assertEquals(0, reader.getFlags());
+    }
+
+    @Test
+    void testInvalidBufferSize() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapPriceRing(1000, new YieldingWaitStrategy()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new OffHeapPriceRing(OffHeapPriceRing.MAX_BUFFER_SIZE * 2, new YieldingWaitStrategy()));
+    }
+
+    @Test
+    void testEngineOffHeapMode() throws InterruptedException {
+        LockFreePriceEngine engine = LockFreePriceEngine.builder()
+                .ringBufferSize(1024)
+                .offHeap(true)
+                .build();
+        assertTrue(engine.isOffHeap());
+
+        engine.start();
+        try {
+            // 超过缓冲区大小，验证环绕与门控
+            for (int i = 0; i < 5000; i++) {
+                assertTrue(engine.publishPrice(i % 2 == 0 ? "EURUSD" : "USDJPY",
+                        i % 2 == 0 ? 1.0999 : 149.99, i % 2 == 0 ? 1.1001 : 150.01));
+            }
+            Thread.sleep(200);
+
+            AggregationHandler.PriceSnapshot snapshot = engine.getAggregationHandler().getLatestPrice("USDJPY");
+            assertNotNull(snapshot);
+            assertEquals(150.01, snapshot.getAskPrice());
+            assertEquals(4999, engine.getHandlerSequence(
+                    engine.getTopology().getStage(PipelineTopology.DISTRIBUTION).handler()));
+        } finally {
+            engine.shutdown();
+        }
+        assertFalse(engine.isRunning());
+    }
+}
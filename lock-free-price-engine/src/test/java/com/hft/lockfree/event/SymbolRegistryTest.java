@@ -0,0 +1,99 @@
+package com.hft.lockfree.event;
+
+import com.hft.lockfree.deadletter.RejectReason;
+import com.hft.lockfree.engine.LockFreePriceEngine;
+import com.hft.lockfree.handler.AggregationHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 品种注册表测试
+ */
+class SymbolRegistryTest {
+
+    @Test
+    void testIdsAreStableAndNeverReused() {
+        SymbolRegistry registry = new SymbolRegistry("EURUSD", "USDJPY");
+        List<String> events = new ArrayList<>();
+        registry.addListener(new SymbolRegistry.Listener() {
+            @Override
+            public void onSymbolAdded(int symbolId, String symbol) {
+                events.add("+" + symbol + "#" + symbolId);
+            }
+
+            @Override
+            public void onSymbolRemoved(int symbolId, String symbol) {
+                events.add("-" + symbol + "#" + symbolId);
+            }
+        });
+
+        assertEquals(1, registry.idOf("EURUSD"));
+        assertEquals(1, registry.add("EURUSD"));
+        assertEquals(SymbolRegistry.NO_SYMBOL, registry.idOf("GBPUSD"));
+
+        assertTrue(registry.remove("EURUSD"));
+        assertFalse(registry.remove("EURUSD"));
+        assertFalse(registry.isActive(1));
+        assertEquals(SymbolRegistry.NO_SYMBOL, registry.idOf("EURUSD"));
+        // 重新加入分配新编号
+        assertEquals(3, registry.add("EURUSD"));
+        assertEquals(List.of("USDJPY", "EURUSD"), registry.getSymbols());
+
+        // 已有品种在登记监听者时回放
+        assertEquals(List.of("+EURUSD#1", "+USDJPY#2", "-EURUSD#1", "+EURUSD#3"), events);
+    }
+
+    @Test
+    void testEngineAddsAndRemovesSymbolsAtRuntime() throws Exception {
+        SymbolRegistry registry = new SymbolRegistry("EURUSD");
+        List<RejectReason> rejected = new CopyOnWriteArrayList<>();
+        LinkedBlockingQueue<String> delivered = new LinkedBlockingQueue<>();
+        LockFreePriceEngine engine = LockFreePriceEngine.builder()
+                .ringBufferSize(1024)
+                .symbolRegistry(registry)
+                .deadLetterSink(letter -> rejected.add(letter.getReason()))
+                .build();
+        engine.subscribe((event, sequence) -> delivered.add(event.getSymbol()));
+        AggregationHandler aggregation = engine.getAggregationHandler();
+        engine.start();
+        try {
+            // 注册的品种在首个报价前已在价格簿中
+            AggregationHandler.PriceSnapshot eurusd = aggregation.getLatestPrice("EURUSD");
+            assertNotNull(eurusd);
+            assertEquals(0, eurusd.getUpdateCount());
+
+            engine.publishPrice("GBPUSD", 1.2499, 1.2501);
+            engine.publishPrice("EURUSD", 1.0999, 1.1001);
+            assertEquals("EURUSD", delivered.poll(5, TimeUnit.SECONDS));
+            assertSame(eurusd, aggregation.getLatestPrice("EURUSD"));
+            assertEquals(1.0999, eurusd.getBidPrice());
+
+            // 运行中加入品种：快照在首个报价前就绪
+            registry.add("GBPUSD");
+            AggregationHandler.PriceSnapshot gbpusd = aggregation.getLatestPrice("GBPUSD");
+            assertNotNull(gbpusd);
+            engine.publishPrice("GBPUSD", 1.2499, 1.2501);
+            assertEquals("GBPUSD", delivered.poll(5, TimeUnit.SECONDS));
+            assertSame(gbpusd, aggregation.getLatestPrice("GBPUSD"));
+
+            // 移除后不再出现在价格簿中，之后的报价被拒绝
+            assertTrue(registry.remove("EURUSD"));
+            assertNull(aggregation.getLatestPrice("EURUSD"));
+            engine.publishPrice("EURUSD", 1.1000, 1.1002);
+            engine.publishPrice("GBPUSD", 1.2500, 1.2502);
+            assertEquals("GBPUSD", delivered.poll(5, TimeUnit.SECONDS));
+            assertEquals(1, aggregation.getSymbolCount());
+        } finally {
+            engine.shutdown();
+        }
+        assertTrue(delivered.isEmpty());
+        assertEquals(List.of(RejectReason.UNKNOWN_SYMBOL, RejectReason.UNKNOWN_SYMBOL), rejected);
+    }
+}
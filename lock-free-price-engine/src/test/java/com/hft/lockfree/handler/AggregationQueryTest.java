@@ -0,0 +1,105 @@
+package com.hft.lockfree.handler;
+
+import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.event.PriceQuote;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 价格簿查询接口测试
+ */
+class AggregationQueryTest {
+
+    private final AggregationHandler handler = new AggregationHandler();
+
+    private void send(String symbol, double bid, double ask, long timestamp) throws Exception {
+        PriceEvent event = new PriceEvent();
+        event.setPriceData(symbol, bid, ask, timestamp);
+        event.setProcessed(true);
+        handler.onEvent(event, 0, true);
+    }
+
+    @Test
+    void testCopyOneSymbol() throws Exception {
+        PriceQuote quote = new PriceQuote();
+        assertFalse(handler.getLatestPrice("EURUSD", quote));
+
+        send("EURUSD", 1.1000, 1.1002, 10);
+        send("EURUSD", 1.1001, 1.1003, 11);
+
+        assertTrue(handler.getLatestPrice("EURUSD", quote));
+        assertEquals("EURUSD", quote.getSymbol());
+        assertEquals(1.1001, quote.getBidPrice());
+        assertEquals(1.1003, quote.getAskPrice());
+        assertEquals(11, quote.getTimestamp());
+    }
+
+    @Test
+    void testCopyBookInFirstSeenOrder() throws Exception {
+        send("GBPUSD", 1.3000, 1.3002, 1);
+        send("EURUSD", 1.1000, 1.1002, 2);
+        send("USDJPY", 110.00, 110.02, 3);
+        send("EURUSD", 1.1001, 1.1003, 4);
+
+        assertEquals(3, handler.getSymbolCount());
+        String[] symbols = new String[3];
+        double[] bids = new double[3];
+        double[] asks = new double[3];
+        long[] timestamps = new long[3];
+        assertEquals(3, handler.copyBook(symbols, bids, asks, timestamps));
+        assertArrayEquals(new String[]{"GBPUSD", "EURUSD", "USDJPY"}, symbols);
+        assertArrayEquals(new double[]{1.3000, 1.1001, 110.00}, bids);
+        assertArrayEquals(new long[]{1, 4, 3}, timestamps);
+
+        // 数组不足时只复制能容纳的部分
+        PriceQuote[] quotes = {new PriceQuote(), new PriceQuote()};
+        assertEquals(2, handler.copyBook(quotes));
+        assertEquals(1.1003, quotes[1].getAskPrice());
+
+        handler.resetStatistics();
+        assertEquals(0, handler.getSymbolCount());
+        assertEquals(0, handler.copyBook(quotes));
+    }
+
+    @Test
+    void testCopyIsConsistentPerSymbolUnderConcurrentUpdates() throws Exception {
+        send("EURUSD", 1.0, 2.0, 1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            PriceEvent event = new PriceEvent();
+            for (long i = 2; running.get(); i++) {
+                // 买价、卖价、时间戳之间保持固定关系
+                event.setPriceData("EURUSD", i, 2.0 * i, i);
+                event.setProcessed(true);
+                try {
+                    handler.onEvent(event, i, true);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        writer.start();
+        try {
+            PriceQuote quote = new PriceQuote();
+            String[] symbols = new String[1];
+            double[] bids = new double[1];
+            double[] asks = new double[1];
+            long[] timestamps = new long[1];
+            for (int i = 0; i < 100_000; i++) {
+                handler.getLatestPrice("EURUSD", quote);
+                assertEquals(2.0 * quote.getBidPrice(), quote.getAskPrice());
+                assertEquals((long) quote.getBidPrice(), quote.getTimestamp());
+
+                handler.copyBook(symbols, bids, asks, timestamps);
+                assertEquals(2.0 * bids[0], asks[0]);
+                assertEquals((long) bids[0], timestamps[0]);
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+}
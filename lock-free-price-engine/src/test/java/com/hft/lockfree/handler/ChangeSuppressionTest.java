@@ -0,0 +1,93 @@
+package com.hft.lockfree.handler;
+
+import com.hft.lockfree.event.PriceEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 最优报价变化抑制测试（聚合 -> 分发）
+ */
+class ChangeSuppressionTest {
+
+    private AggregationHandler aggregation;
+    private DistributionHandler distribution;
+    private List<String> delivered;
+    private long sequence;
+
+    @BeforeEach
+    void setUp() {
+        aggregation = new AggregationHandler();
+        distribution = new DistributionHandler();
+        delivered = new ArrayList<>();
+        distribution.subscribe((event, seq) -> delivered.add(event.getSymbol() + "@" + event.getBidPrice()));
+    }
+
+    private PriceEvent send(String symbol, double bid, double ask) throws Exception {
+        PriceEvent event = new PriceEvent();
+        event.setPriceData(symbol, bid, ask, System.nanoTime());
+        event.setProcessed(true);
+        long seq = sequence++;
+        aggregation.onEvent(event, seq, true);
+        distribution.onEvent(event, seq, true);
+        return event;
+    }
+
+    @Test
+    void testDisabledByDefault() throws Exception {
+        send("EURUSD", 1.1000, 1.1002);
+        send("EURUSD", 1.1000, 1.1002);
+
+        assertEquals(2, delivered.size());
+        assertEquals(0, aggregation.getSuppressedEventCount());
+    }
+
+    @Test
+    void testDuplicatesOnly() throws Exception {
+        aggregation.setChangeSuppression(ChangeSuppression.duplicatesOnly());
+
+        send("EURUSD", 1.1000, 1.1002);
+        assertTrue(send("EURUSD", 1.1000, 1.1002).isSuppressed());
+        assertFalse(send("EURUSD", 1.1000, 1.1003).isSuppressed());
+        // 其他品种的首个报价总是分发
+        assertFalse(send("USDJPY", 110.00, 110.02).isSuppressed());
+
+        assertEquals(3, delivered.size());
+        assertEquals(1, aggregation.getSuppressedEventCount());
+        assertEquals(0.25, aggregation.getSuppressionRate(), 1e-9);
+    }
+
+    @Test
+    void testMinimumTicksComparedAgainstLastDistributed() throws Exception {
+        aggregation.setChangeSuppression(new ChangeSuppression(0.0001, 2).tickSize("USDJPY", 0.01));
+
+        send("EURUSD", 1.1000, 1.1002);
+        // 每次只变化一个价位：逐个都不足，但相对最近一次分发的价格累计到两个价位时分发
+        assertTrue(send("EURUSD", 1.1001, 1.1003).isSuppressed());
+        assertFalse(send("EURUSD", 1.1002, 1.1004).isSuppressed());
+
+        send("USDJPY", 110.00, 110.02);
+        assertTrue(send("USDJPY", 110.01, 110.03).isSuppressed());
+        assertFalse(send("USDJPY", 110.00, 110.05).isSuppressed());
+
+        assertEquals(List.of("EURUSD@1.1", "EURUSD@1.1002", "USDJPY@110.0", "USDJPY@110.0"), delivered);
+        // 价格簿始终反映最新报价
+        assertEquals(110.05, aggregation.getLatestPrice("USDJPY").getAskPrice());
+    }
+
+    @Test
+    void testFractionalTickMoveBelowMinimumSuppressed() throws Exception {
+        aggregation.setChangeSuppression(new ChangeSuppression(0.0001, 2));
+
+        send("EURUSD", 1.10000, 1.10020);
+        // 1.5个价位取整后是2，但仍不足两个价位，必须抑制
+        assertTrue(send("EURUSD", 1.10015, 1.10035).isSuppressed());
+        assertFalse(send("EURUSD", 1.10020, 1.10040).isSuppressed());
+
+        assertEquals(List.of("EURUSD@1.1", "EURUSD@1.1002"), delivered);
+    }
+}
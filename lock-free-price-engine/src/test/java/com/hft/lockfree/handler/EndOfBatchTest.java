@@ -0,0 +1,73 @@
+package com.hft.lockfree.handler;
+
+import com.hft.lockfree.event.PriceEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按批次摊销的计数提交与批次末尾通知测试
+ */
+class EndOfBatchTest {
+
+    private static PriceEvent event(double bid) {
+        PriceEvent event = new PriceEvent();
+        event.setPriceData("EURUSD", bid, bid + 0.0002, System.nanoTime());
+        return event;
+    }
+
+    @Test
+    void testCountersCommittedAtEndOfBatch() throws Exception {
+        ValidationHandler validation = new ValidationHandler();
+        AggregationHandler aggregation = new AggregationHandler();
+        DistributionHandler distribution = new DistributionHandler();
+
+        for (int i = 0; i < 4; i++) {
+            PriceEvent event = event(1.1000 + i * 0.0001);
+            boolean endOfBatch = i == 3;
+            validation.onEvent(event, i, endOfBatch);
+            aggregation.onEvent(event, i, endOfBatch);
+            distribution.onEvent(event, i, endOfBatch);
+            if (!endOfBatch) {
+                assertTrue(validation.getStatistics().contains("total=0"));
+                assertTrue(aggregation.getStatistics().contains("updates=0"));
+                assertEquals(0, distribution.getDistributedEventCount());
+            }
+        }
+
+        assertEquals(1.0, validation.getValidationRate());
+        assertTrue(validation.getStatistics().contains("total=4, valid=4"));
+        assertTrue(aggregation.getStatistics().contains("processed=4, updates=4"));
+        assertEquals(4, distribution.getDistributedEventCount());
+        assertTrue(distribution.getMaxLatency() >= distribution.getMinLatency());
+    }
+
+    @Test
+    void testSubscribersNotifiedOncePerBatch() throws Exception {
+        DistributionHandler distribution = new DistributionHandler();
+        List<String> calls = new ArrayList<>();
+        distribution.subscribe(new PriceSubscriber() {
+            @Override
+            public void onPrice(PriceEvent event, long sequence) {
+                calls.add("price-" + sequence);
+            }
+
+            @Override
+            public void onEndOfBatch() {
+                calls.add("end");
+            }
+        });
+
+        for (int i = 0; i < 6; i++) {
+            PriceEvent event = event(1.1000);
+            // 第二个批次（序列号3-5）全部未通过验证，不通知批次末尾
+            event.setProcessed(i < 3);
+            distribution.onEvent(event, i, i == 2 || i == 5);
+        }
+
+        assertEquals(List.of("price-0", "price-1", "price-2", "end"), calls);
+    }
+}
@@ -0,0 +1,99 @@
+package com.hft.lockfree.handler;
+
+import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.event.PriceQuote;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 处理链热路径分配测试
+ *
+ * 在当前线程串行执行全部处理器，用ThreadMXBean统计本线程分配字节数。
+ * 完整的JMH检查见AllocationCheck，这里作为单元测试快速捕获明显的回归。
+ */
+class HandlerAllocationTest {
+
+    private static final String[] SYMBOLS = {"EURUSD", "GBPUSD", "USDJPY", "AUDUSD"};
+    private static final int WARMUP_EVENTS = 200_000;
+    private static final int MEASURED_EVENTS = 200_000;
+
+    private final SequenceGapHandler sequenceGapHandler = new SequenceGapHandler();
+    private final ValidationHandler validationHandler = new ValidationHandler();
+    private final AggregationHandler aggregationHandler = new AggregationHandler();
+    private final DistributionHandler distributionHandler = new DistributionHandler();
+    private final PriceEvent event = new PriceEvent();
+    private long sequence;
+
+    @Test
+    void testSteadyStateHotPathDoesNotAllocate() throws Exception {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        distributionHandler.subscribe((e, seq) -> { });
+        long threadId = Thread.currentThread().threadId();
+
+        runEvents(WARMUP_EVENTS);
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        runEvents(MEASURED_EVENTS);
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+        // 回归（装箱、lambda、格式化）至少是每个事件十几个字节
+        assertTrue(allocated < MEASURED_EVENTS,
+                "Hot path allocated " + allocated + " bytes for " + MEASURED_EVENTS + " events");
+        assertNotNull(aggregationHandler.getLatestPrice("EURUSD"));
+    }
+
+    @Test
+    void testBookQueriesDoNotAllocate() throws Exception {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().threadId();
+        runEvents(1000);
+
+        PriceQuote quote = new PriceQuote();
+        PriceQuote[] quotes = {new PriceQuote(), new PriceQuote(), new PriceQuote(), new PriceQuote()};
+        String[] symbols = new String[SYMBOLS.length];
+        double[] bids = new double[SYMBOLS.length];
+        double[] asks = new double[SYMBOLS.length];
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        int copied = 0;
+        for (int i = 0; i < MEASURED_EVENTS; i++) {
+            aggregationHandler.getLatestPrice(SYMBOLS[i & 3], quote);
+            copied += aggregationHandler.copyBook(quotes);
+            copied += aggregationHandler.copyBook(symbols, bids, asks, null);
+        }
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(2 * SYMBOLS.length * MEASURED_EVENTS, copied);
+        assertTrue(allocated < MEASURED_EVENTS,
+                "Book queries allocated " + allocated + " bytes for " + MEASURED_EVENTS + " iterations");
+    }
+
+    private void runEvents(int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            long seq = sequence++;
+            String symbol = SYMBOLS[i & 3];
+            if (i % 100 == 0) {
+                // 1%无效事件（买卖价倒挂）
+                event.setPriceData(symbol, 1.1001, 1.0999, System.nanoTime());
+            } else {
+                event.setPriceData(symbol, 1.0999, 1.1001, System.nanoTime());
+            }
+            event.setSource(1, seq + 1);
+            event.setSequence(seq);
+            event.setFlags(0);
+            event.setProcessed(false);
+
+            sequenceGapHandler.onEvent(event, seq, true);
+            validationHandler.onEvent(event, seq, true);
+            aggregationHandler.onEvent(event, seq, true);
+            distributionHandler.onEvent(event, seq, true);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.hft.lockfree.handler;
+
+import com.hft.lockfree.engine.LockFreePriceEngine;
+import com.hft.lockfree.event.PriceEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 中途加入订阅者（快照 + 增量）测试
+ */
+class LateJoinerTest {
+
+    /**
+     * 记录快照和增量的订阅者
+     */
+    private static class RecordingSubscriber implements SnapshotSubscriber {
+        final List<BookSnapshot> snapshots = new CopyOnWriteArrayList<>();
+        final List<Long> sequences = new CopyOnWriteArrayList<>();
+        final Map<String, Double> book = new HashMap<>();
+
+        @Override
+        public void onSnapshot(BookSnapshot snapshot) {
+            assertTrue(sequences.isEmpty(), "snapshot must precede increments");
+            snapshots.add(snapshot);
+            for (int i = 0; i < snapshot.size(); i++) {
+                book.put(snapshot.getSymbol(i), snapshot.getBidPrice(i));
+            }
+        }
+
+        @Override
+        public void onPrice(PriceEvent event, long sequence) {
+            sequences.add(sequence);
+            book.put(event.getSymbol(), event.getBidPrice());
+        }
+    }
+
+    private static void send(AggregationHandler aggregation, DistributionHandler distribution,
+                             String symbol, double bid, long sequence, boolean endOfBatch) throws Exception {
+        PriceEvent event = new PriceEvent();
+        event.setPriceData(symbol, bid, bid + 0.0002, System.nanoTime());
+        event.setProcessed(true);
+        aggregation.onEvent(event, sequence, endOfBatch);
+        distribution.onEvent(event, sequence, endOfBatch);
+    }
+
+    @Test
+    void testSnapshotAlignedToSequence() throws Exception {
+        AggregationHandler aggregation = new AggregationHandler();
+        DistributionHandler distribution = new DistributionHandler();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        send(aggregation, distribution, "EURUSD", 1.1000, 0, true);
+        send(aggregation, distribution, "GBPUSD", 1.3000, 1, true);
+
+        aggregation.requestSnapshot(snapshot -> distribution.addLateJoiner(subscriber, snapshot));
+        // 批次中间不生成快照
+        send(aggregation, distribution, "EURUSD", 1.1001, 2, false);
+        assertTrue(subscriber.snapshots.isEmpty());
+        send(aggregation, distribution, "USDJPY", 110.00, 3, true);
+        send(aggregation, distribution, "EURUSD", 1.1002, 4, true);
+
+        assertEquals(1, subscriber.snapshots.size());
+        BookSnapshot snapshot = subscriber.snapshots.get(0);
+        assertEquals(3, snapshot.getSequence());
+        assertEquals(3, snapshot.size());
+        assertEquals(1.1001, snapshot.getBidPrice(snapshot.indexOf("EURUSD")));
+        // 增量从快照序列号之后开始
+        assertEquals(List.of(4L), subscriber.sequences);
+        assertEquals(1.1002, subscriber.book.get("EURUSD"));
+    }
+
+    @Test
+    void testEngineLateJoinerSeesCompleteBookWithoutGaps() throws Exception {
+        LockFreePriceEngine engine = new LockFreePriceEngine();
+        RecordingSubscriber early = new RecordingSubscriber() {
+            @Override
+            public void onSnapshot(BookSnapshot snapshot) {
+            }
+        };
+        engine.subscribe(early);
+        engine.start();
+        try {
+            String[] symbols = {"EURUSD", "GBPUSD", "USDJPY", "AUDUSD"};
+            for (int i = 0; i < 400; i++) {
+                engine.publishPrice(symbols[i % symbols.length], 1.0 + i * 0.0001, 1.0 + i * 0.0001 + 0.0002);
+            }
+
+            RecordingSubscriber late = new RecordingSubscriber();
+            CountDownLatch joined = new CountDownLatch(1);
+            engine.subscribeWithSnapshot(new SnapshotSubscriber() {
+                @Override
+                public void onSnapshot(BookSnapshot snapshot) {
+                    late.onSnapshot(snapshot);
+                    joined.countDown();
+                }
+
+                @Override
+                public void onPrice(PriceEvent event, long sequence) {
+                    late.onPrice(event, sequence);
+                }
+            });
+            for (int i = 400; i < 1000; i++) {
+                engine.publishPrice(symbols[i % symbols.length], 1.0 + i * 0.0001, 1.0 + i * 0.0001 + 0.0002);
+            }
+            assertTrue(joined.await(5, TimeUnit.SECONDS));
+
+            engine.shutdown();
+
+            long snapshotSequence = late.snapshots.get(0).getSequence();
+            assertEquals(4, late.snapshots.get(0).size());
+            // 增量连续、无重复，紧接在快照之后
+            List<Long> expected = new ArrayList<>();
+            for (long seq = snapshotSequence + 1; seq < 1000; seq++) {
+                expected.add(seq);
+            }
+            assertEquals(expected, late.sequences);
+            // 快照 + 增量重建的价格簿与一直在线的订阅者一致
+            assertEquals(early.book, late.book);
+        } finally {
+            engine.shutdown();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.hft.lockfree.handler;
+
+import com.hft.lockfree.event.PriceEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 邮箱订阅者（虚拟线程投递）测试
+ */
+class MailboxSubscriberTest {
+
+    private static void send(DistributionHandler distribution, String symbol, double bid, long sequence)
+            throws Exception {
+        PriceEvent event = new PriceEvent();
+        event.setPriceData(symbol, bid, bid + 0.0002, System.nanoTime());
+        event.setProcessed(true);
+        distribution.onEvent(event, sequence, true);
+    }
+
+    @Test
+    void testDeliversCopiesInOrder() throws Exception {
+        DistributionHandler distribution = new DistributionHandler();
+        List<Long> sequences = new CopyOnWriteArrayList<>();
+        List<Double> bids = new CopyOnWriteArrayList<>();
+        MailboxSubscriber mailbox = distribution.subscribeAsync((event, sequence) -> {
+            sequences.add(sequence);
+            bids.add(event.getBidPrice());
+        }, 64);
+
+        for (int i = 0; i < 50; i++) {
+            send(distribution, "EURUSD", 1.1000 + i * 0.0001, i);
+        }
+        distribution.shutdown();
+
+        assertFalse(mailbox.isRunning());
+        assertEquals(50, mailbox.getDeliveredCount());
+        assertEquals(0, mailbox.getOverflowCount());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, sequences.get(i));
+            assertEquals(1.1000 + i * 0.0001, bids.get(i), 1e-12);
+        }
+    }
+
+    @Test
+    void testSlowSubscriberDoesNotBlockDistribution() throws Exception {
+        DistributionHandler distribution = new DistributionHandler();
+        CountDownLatch release = new CountDownLatch(1);
+        MailboxSubscriber slow = distribution.subscribeAsync((event, sequence) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 4);
+        List<Long> fast = new CopyOnWriteArrayList<>();
+        distribution.subscribe((event, sequence) -> fast.add(sequence));
+
+        // 慢订阅者阻塞在第一个事件上，邮箱容量4，其余溢出
+        for (int i = 0; i < 20; i++) {
+            send(distribution, "EURUSD", 1.1000, i);
+        }
+        assertEquals(20, fast.size());
+        assertTrue(slow.getOverflowCount() >= 15, slow.getStatistics());
+
+        release.countDown();
+        assertTrue(distribution.unsubscribe(slow));
+        assertEquals(20, slow.getDeliveredCount() + slow.getOverflowCount());
+        assertEquals(0, slow.getPendingCount());
+    }
+
+    @Test
+    void testSubscriberExceptionIsCounted() throws Exception {
+        DistributionHandler distribution = new DistributionHandler();
+        CountDownLatch delivered = new CountDownLatch(3);
+        MailboxSubscriber mailbox = distribution.subscribeAsync((event, sequence) -> {
+            delivered.countDown();
+            if (sequence == 1) {
+                throw new IllegalStateException("boom");
+            }
+        }, 8);
+
+        for (int i = 0; i < 3; i++) {
+            send(distribution, "EURUSD", 1.1000, i);
+        }
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        mailbox.close();
+        assertEquals(3, mailbox.getDeliveredCount());
+        assertEquals(1, mailbox.getSubscriberErrorCount());
+    }
+
+    @Test
+    void testRejectsNonPowerOfTwoCapacity() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new MailboxSubscriber("bad", (event, sequence) -> { }, 100));
+    }
+}
@@ -0,0 +1,98 @@
+package com.hft.lockfree.handler;
+
+import com.hft.lockfree.event.PriceEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SequenceGapHandler单元测试
+ */
+class SequenceGapHandlerTest {
+
+    private SequenceGapHandler handler;
+    private List<long[]> gaps;
+
+    @BeforeEach
+    void setUp() {
+        handler = new SequenceGapHandler();
+        handler.initialize();
+        gaps = new ArrayList<>();
+        handler.setGapListener((sourceId, expected, received, totalGaps) ->
+                gaps.add(new long[]{sourceId, expected, received, totalGaps}));
+    }
+
+    private PriceEvent send(int sourceId, long sourceSequence) throws Exception {
+        PriceEvent event = new PriceEvent();
+        event.setPriceData("EURUSD", 1.0999, 1.1001, System.nanoTime());
+        event.setSource(sourceId, sourceSequence);
+        handler.onEvent(event, 0, true);
+        return event;
+    }
+
+    @Test
+    void testInOrderSequence() throws Exception {
+        for (long seq = 1; seq <= 10; seq++) {
+            assertFalse(send(1, seq).isDropped());
+        }
+
+        assertEquals(11, handler.getExpectedSequence(1));
+        assertEquals(0, handler.getGapEventCount());
+        assertTrue(gaps.isEmpty());
+    }
+
+    @Test
+    void testGapDetection() throws Exception {
+        send(1, 1);
+        send(1, 2);
+        PriceEvent afterGap = send(1, 6);
+
+        assertFalse(afterGap.isDropped());
+        assertEquals(1, handler.getGapEventCount());
+        assertEquals(3, handler.getMissingEventCount());
+        assertEquals(1, gaps.size());
+        assertArrayEquals(new long[]{1, 3, 6, 1}, gaps.get(0));
+        assertEquals(7, handler.getExpectedSequence(1));
+    }
+
+    @Test
+    void testDuplicateAndStaleDropped() throws Exception {
+        send(2, 1);
+        send(2, 2);
+        send(2, 5);
+
+        PriceEvent duplicate = send(2, 5);
+        PriceEvent stale = send(2, 3);
+
+        assertTrue(duplicate.isDropped());
+        assertFalse(duplicate.isProcessed());
+        assertTrue(stale.isDropped());
+        assertEquals(1, handler.getDuplicateEventCount());
+        assertEquals(1, handler.getStaleEventCount());
+        assertEquals(6, handler.getExpectedSequence(2));
+    }
+
+    @Test
+    void testSourcesTrackedIndependently() throws Exception {
+        send(1, 100);
+        send(2, 1);
+        send(1, 101);
+        send(2, 2);
+
+        assertEquals(102, handler.getExpectedSequence(1));
+        assertEquals(3, handler.getExpectedSequence(2));
+        assertEquals(0, handler.getGapEventCount());
+    }
+
+    @Test
+    void testUnsequencedEventsPassThrough() throws Exception {
+        assertFalse(send(1, 0).isDropped());
+        assertFalse(send(SequenceGapHandler.MAX_SOURCES, 5).isDropped());
+
+        assertTrue(handler.getStatistics().contains("checked=0"));
+    }
+}
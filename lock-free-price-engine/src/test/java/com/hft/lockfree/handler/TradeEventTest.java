@@ -0,0 +1,122 @@
+package com.hft.lockfree.handler;
+
+import com.hft.lockfree.deadletter.DeadLetterRing;
+import com.hft.lockfree.deadletter.RejectReason;
+import com.hft.lockfree.event.PriceEvent;
+import com.hft.lockfree.event.PriceQuote;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 成交事件测试（验证 -> 聚合 -> 分发）：按事件类型分支，更新成交统计而不改变买卖价
+ */
+class TradeEventTest {
+
+    private final List<RejectReason> rejected = new ArrayList<>();
+    private DeadLetterRing deadLetterRing;
+    private ValidationHandler validation;
+    private AggregationHandler aggregation;
+    private DistributionHandler distribution;
+    private List<String> delivered;
+    private long sequence;
+
+    @BeforeEach
+    void setUp() {
+        deadLetterRing = new DeadLetterRing("test", 8, letter -> rejected.add(letter.getReason()));
+        validation = new ValidationHandler(deadLetterRing);
+        aggregation = new AggregationHandler();
+        aggregation.setChangeSuppression(ChangeSuppression.duplicatesOnly());
+        distribution = new DistributionHandler();
+        delivered = new ArrayList<>();
+        distribution.subscribe((event, seq) -> delivered.add(
+                (event.isTrade() ? "T:" : "Q:") + event.getSymbol() + "@" + event.getBidPrice()));
+    }
+
+    private PriceEvent process(PriceEvent event) throws Exception {
+        long seq = sequence++;
+        validation.onEvent(event, seq, true);
+        aggregation.onEvent(event, seq, true);
+        distribution.onEvent(event, seq, true);
+        return event;
+    }
+
+    private PriceEvent quote(String symbol, double bid, double ask) throws Exception {
+        PriceEvent event = new PriceEvent();
+        event.setPriceData(symbol, bid, ask, System.nanoTime());
+        return process(event);
+    }
+
+    private PriceEvent trade(String symbol, double price, double volume) throws Exception {
+        PriceEvent event = new PriceEvent();
+        event.setTradeData(symbol, price, volume, System.nanoTime());
+        return process(event);
+    }
+
+    @Test
+    void testTradeUpdatesTradeStatisticsOnly() throws Exception {
+        quote("EURUSD", 1.1000, 1.1002);
+        trade("EURUSD", 1.1001, 100);
+        // 相同成交价的成交不参与变化抑制
+        assertFalse(trade("EURUSD", 1.1001, 300).isSuppressed());
+
+        AggregationHandler.PriceSnapshot snapshot = aggregation.getLatestPrice("EURUSD");
+        assertEquals(1.1000, snapshot.getBidPrice());
+        assertEquals(1.1002, snapshot.getAskPrice());
+        assertEquals(1.1001, snapshot.getLastTradePrice());
+        assertEquals(300, snapshot.getLastTradeVolume());
+        assertEquals(400, snapshot.getTotalVolume());
+        assertEquals(2, snapshot.getTradeCount());
+        assertEquals(1.1001, snapshot.getVwap(), 1e-12);
+
+        // 买卖价未变，重复报价仍被抑制
+        assertTrue(quote("EURUSD", 1.1000, 1.1002).isSuppressed());
+        assertEquals(List.of("Q:EURUSD@1.1", "T:EURUSD@1.1001", "T:EURUSD@1.1001"), delivered);
+        assertEquals(2, aggregation.getTradeEventCount());
+    }
+
+    @Test
+    void testTradeBeforeFirstQuote() throws Exception {
+        trade("GBPUSD", 1.2500, 50);
+
+        AggregationHandler.PriceSnapshot snapshot = aggregation.getLatestPrice("GBPUSD");
+        assertEquals(0, snapshot.getUpdateCount());
+        assertEquals(0.0, snapshot.getBidPrice());
+        assertEquals(1, snapshot.getTradeCount());
+        // 只有成交的品种不算作已有报价：查询、整本复制和快照都不包含它
+        assertFalse(snapshot.hasQuote());
+        assertFalse(aggregation.getLatestPrice("GBPUSD", new PriceQuote()));
+        assertEquals(0, aggregation.getSymbolCount());
+        assertEquals(0, aggregation.copyBook(new PriceQuote[]{new PriceQuote()}));
+        List<BookSnapshot> books = new ArrayList<>();
+        aggregation.requestSnapshot(books::add);
+        trade("GBPUSD", 1.2501, 10);
+        assertEquals(0, books.get(0).size());
+
+        // 首个报价总是分发，成交统计保留
+        assertFalse(quote("GBPUSD", 1.2499, 1.2501).isSuppressed());
+        assertSame(snapshot, aggregation.getLatestPrice("GBPUSD"));
+        assertEquals(1.2499, snapshot.getBidPrice());
+        assertEquals(60, snapshot.getTotalVolume());
+        assertEquals(1, aggregation.getSymbolCount());
+        assertTrue(aggregation.getLatestPrice("GBPUSD", new PriceQuote()));
+    }
+
+    @Test
+    void testInvalidTradesRejected() throws Exception {
+        assertFalse(trade("EURUSD", 1.1001, 0).isProcessed());
+        PriceEvent unknown = new PriceEvent();
+        unknown.setPriceData("EURUSD", 1.1000, 1.1002, System.nanoTime());
+        unknown.setEventType(7);
+        assertFalse(process(unknown).isProcessed());
+
+        deadLetterRing.drain(8);
+        assertEquals(List.of(RejectReason.INVALID_VOLUME, RejectReason.UNKNOWN_EVENT_TYPE), rejected);
+        assertTrue(delivered.isEmpty());
+        assertNull(aggregation.getLatestPrice("EURUSD"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.hft.lockfree.ipc;
+
+import com.hft.lockfree.engine.LockFreePriceEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 共享内存价格环形文件测试（发布者与读取器使用各自的映射，模拟两个进程）
+ */
+class IpcPriceRingTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPublishAndRead() throws Exception {
+        Path file = tempDir.resolve("prices.ipc");
+        try (IpcPricePublisher publisher = new IpcPricePublisher(file, 16, 4);
+             IpcPriceReader reader = new IpcPriceReader(file)) {
+            List<String> received = new ArrayList<>();
+            IpcPriceListener listener = (sequence, symbol, bid, ask, timestamp) ->
+                    received.add(sequence + ":" + symbol + ":" + bid + ":" + ask + ":" + timestamp);
+
+            assertEquals(0, reader.poll(listener, 100));
+
+            assertTrue(publisher.publish("EURUSD", 1.1, 1.2, 100));
+            assertTrue(publisher.publish("USDJPY", 110.0, 110.02, 101));
+            assertTrue(publisher.publish("EURUSD", 1.15, 1.25, 102));
+
+            assertEquals(2, reader.poll(listener, 2));
+            assertEquals(1, reader.poll(listener, 100));
+            assertEquals(List.of("0:EURUSD:1.1:1.2:100", "1:USDJPY:110.0:110.02:101", "2:EURUSD:1.15:1.25:102"),
+                    received);
+            assertEquals(0, reader.getLag());
+        }
+    }
+
+    @Test
+    void testSlowReaderSkipsOverwrittenMessages() throws Exception {
+        Path file = tempDir.resolve("prices.ipc");
+        try (IpcPricePublisher publisher = new IpcPricePublisher(file, 8, 4);
+             IpcPriceReader reader = new IpcPriceReader(file)) {
+            for (int i = 0; i < 20; i++) {
+                publisher.publish("EURUSD", 1.0 + i, 2.0 + i, i);
+            }
+
+            List<Long> sequences = new ArrayList<>();
+            reader.poll((sequence, symbol, bid, ask, timestamp) -> {
+                sequences.add(sequence);
+                assertEquals(1.0 + sequence, bid);
+            }, 100);
+
+            // 只有最近的capacity - 1条仍然保证可读
+            assertEquals(List.of(13L, 14L, 15L, 16L, 17L, 18L, 19L), sequences);
+            assertEquals(13, reader.getLostMessageCount());
+        }
+    }
+
+    @Test
+    void testReaderFollowsPublisherRestart() throws Exception {
+        Path file = tempDir.resolve("prices.ipc");
+        List<String> received = new ArrayList<>();
+        IpcPriceListener listener = (sequence, symbol, bid, ask, timestamp) ->
+                received.add(sequence + ":" + symbol + ":" + bid);
+        IpcPricePublisher first = new IpcPricePublisher(file, 8, 4);
+        try (IpcPriceReader reader = new IpcPriceReader(file)) {
+            for (int i = 0; i < 5; i++) {
+                first.publish("EURUSD", 1.0 + i, 2.0 + i, i);
+            }
+            assertEquals(5, reader.poll(listener, 100));
+            first.close();
+
+            // 重启后序列号和品种编号从0开始，已打开的读取方不用重新打开
+            try (IpcPricePublisher second = new IpcPricePublisher(file, 8, 4)) {
+                assertNotEquals(first.getSession(), second.getSession());
+                second.publish("GBPUSD", 1.3, 1.4, 10);
+                second.publish("EURUSD", 1.1, 1.2, 11);
+
+                received.clear();
+                assertEquals(2, reader.poll(listener, 100));
+                assertEquals(List.of("0:GBPUSD:1.3", "1:EURUSD:1.1"), received);
+                assertEquals(1, reader.getRestartCount());
+                assertEquals(0, reader.getLostMessageCount());
+            }
+        }
+    }
+
+    @Test
+    void testSymbolTableFullDropsMessages() throws Exception {
+        Path file = tempDir.resolve("prices.ipc");
+        try (IpcPricePublisher publisher = new IpcPricePublisher(file, 8, 1)) {
+            assertTrue(publisher.publish("EURUSD", 1.1, 1.2, 0));
+            assertFalse(publisher.publish("GBPUSD", 1.3, 1.4, 0));
+            assertFalse(publisher.publish("A_VERY_LONG_SYMBOL_NAME_THAT_DOES_NOT_FIT", 1.3, 1.4, 0));
+            assertEquals(1, publisher.getPublishedMessageCount());
+            assertEquals(2, publisher.getDroppedMessageCount());
+        }
+    }
+
+    @Test
+    void testEngineSubscriber() throws Exception {
+        Path file = tempDir.resolve("prices.ipc");
+        LockFreePriceEngine engine = new LockFreePriceEngine();
+        try (IpcPricePublisher publisher = new IpcPricePublisher(file);
+             IpcPriceReader reader = new IpcPriceReader(file)) {
+            engine.subscribe(publisher);
+            engine.start();
+            for (int i = 0; i < 100; i++) {
+                engine.publishPrice("EURUSD", 1.0999, 1.1001);
+            }
+
+            long[] received = new long[1];
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (received[0] < 100 && System.nanoTime() < deadline) {
+                reader.poll((sequence, symbol, bid, ask, timestamp) -> {
+                    assertEquals("EURUSD", symbol);
+                    received[0]++;
+                }, 256);
+                Thread.onSpinWait();
+            }
+            assertEquals(100, received[0]);
+        } finally {
+            engine.shutdown();
+        }
+    }
+}
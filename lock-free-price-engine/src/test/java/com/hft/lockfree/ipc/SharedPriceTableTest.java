@@ -0,0 +1,161 @@
+package com.hft.lockfree.ipc;
+
+import com.hft.lockfree.engine.LockFreePriceEngine;
+import com.hft.lockfree.event.PriceQuote;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 共享内存最新价格表测试
+ */
+class SharedPriceTableTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWriteAndRead() throws Exception {
+        Path file = tempDir.resolve("prices.lvc");
+        try (SharedPriceTableWriter writer = new SharedPriceTableWriter(file, 4);
+             SharedPriceTableReader reader = new SharedPriceTableReader(file)) {
+            PriceQuote quote = new PriceQuote();
+            assertEquals(-1, reader.findSlot("EURUSD"));
+
+            int eurusd = writer.slotOf("EURUSD");
+            int usdjpy = writer.slotOf("USDJPY");
+            assertEquals(eurusd, writer.slotOf("EURUSD"));
+            assertEquals(eurusd, reader.findSlot("EURUSD"));
+            // 槽位已分配但尚未写入报价
+            assertFalse(reader.read(eurusd, quote));
+
+            writer.update(eurusd, 1.1, 1.2, 100, 1);
+            writer.update(usdjpy, 110.0, 110.02, 101, 1);
+            writer.update(eurusd, 1.15, 1.25, 102, 2);
+
+            assertTrue(reader.read(eurusd, quote));
+            assertEquals("EURUSD", quote.getSymbol());
+            assertEquals(1.15, quote.getBidPrice());
+            assertEquals(1.25, quote.getAskPrice());
+            assertEquals(102, quote.getTimestamp());
+            assertEquals(2, quote.getUpdateCount());
+            assertTrue(reader.read(reader.findSlot("USDJPY"), quote));
+            assertEquals(110.02, quote.getAskPrice());
+            assertEquals(2, reader.getSymbolCount());
+        }
+    }
+
+    @Test
+    void testReaderFollowsWriterRestart() throws Exception {
+        Path file = tempDir.resolve("prices.lvc");
+        SharedPriceTableWriter first = new SharedPriceTableWriter(file, 4);
+        try (SharedPriceTableReader reader = new SharedPriceTableReader(file)) {
+            PriceQuote quote = new PriceQuote();
+            first.update(first.slotOf("EURUSD"), 1.1, 1.2, 100, 1);
+            int eurusd = reader.findSlot("EURUSD");
+            assertTrue(reader.read(eurusd, quote));
+            first.close();
+
+            // 重启后槽位重新分配：旧槽位读取失败，重新查找后读到新会话的报价
+            try (SharedPriceTableWriter second = new SharedPriceTableWriter(file, 4)) {
+                assertNotEquals(first.getSession(), second.getSession());
+                second.update(second.slotOf("GBPUSD"), 1.3, 1.4, 200, 1);
+                second.update(second.slotOf("EURUSD"), 1.15, 1.25, 201, 1);
+
+                assertFalse(reader.read(eurusd, quote));
+                assertEquals(1, reader.getRestartCount());
+                assertEquals(0, reader.findSlot("GBPUSD"));
+                assertTrue(reader.read(reader.findSlot("EURUSD"), quote));
+                assertEquals("EURUSD", quote.getSymbol());
+                assertEquals(1.15, quote.getBidPrice());
+            }
+        }
+    }
+
+    @Test
+    void testReadGivesUpWhileWriterStuckMidUpdate() throws Exception {
+        Path file = tempDir.resolve("prices.lvc");
+        try (SharedPriceTableWriter writer = new SharedPriceTableWriter(file, 4);
+             SharedPriceTableReader reader = new SharedPriceTableReader(file)) {
+            int slot = writer.slotOf("EURUSD");
+            writer.update(slot, 1.1, 1.2, 100, 1);
+
+            // 模拟写入方在更新中途崩溃：版本号停留在奇数
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer version = ByteBuffer.allocate(Long.BYTES).order(IpcRingFormat.BYTE_ORDER).putLong(0, 3);
+                channel.write(version, SharedPriceTableFormat.entriesOffset(4) + SharedPriceTableFormat.ENTRY_VERSION);
+            }
+
+            assertFalse(reader.read(slot, new PriceQuote()));
+        }
+    }
+
+    @Test
+    void testConcurrentReadsAreConsistent() throws Exception {
+        Path file = tempDir.resolve("prices.lvc");
+        try (SharedPriceTableWriter writer = new SharedPriceTableWriter(file, 1);
+             SharedPriceTableReader reader = new SharedPriceTableReader(file)) {
+            int slot = writer.slotOf("EURUSD");
+            writer.update(slot, 0, 1, 0, 0);
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            Thread writerThread = new Thread(() -> {
+                for (long i = 1; running.get(); i++) {
+                    writer.update(slot, i, i + 1, i, i);
+                }
+            });
+            writerThread.start();
+            try {
+                PriceQuote quote = new PriceQuote();
+                int consistentReads = 0;
+                for (int i = 0; i < 100_000; i++) {
+                    // 写入线程在更新中途被调度出去时read放弃重试，稍后再读
+                    if (!reader.read(slot, quote)) {
+                        continue;
+                    }
+                    consistentReads++;
+                    // 同一次更新写入的字段必须一起读到
+                    assertEquals(quote.getBidPrice() + 1, quote.getAskPrice());
+                    assertEquals((long) quote.getBidPrice(), quote.getUpdateCount());
+                }
+                assertTrue(consistentReads > 0);
+            } finally {
+                running.set(false);
+                writerThread.join();
+            }
+        }
+    }
+
+    @Test
+    void testEngineMirrorsPriceBook() throws Exception {
+        Path file = tempDir.resolve("prices.lvc");
+        try (SharedPriceTableWriter writer = new SharedPriceTableWriter(file);
+             SharedPriceTableReader reader = new SharedPriceTableReader(file)) {
+            LockFreePriceEngine engine = LockFreePriceEngine.builder()
+                    .sharedPriceTable(writer)
+                    .build();
+            engine.start();
+            try {
+                engine.publishPrice("EURUSD", 1.0999, 1.1001);
+                engine.publishPrice("GBPUSD", 1.2999, 1.3001);
+                engine.publishPrice("EURUSD", 1.1000, 1.1002);
+            } finally {
+                engine.shutdown();
+            }
+
+            PriceQuote quote = new PriceQuote();
+            assertTrue(reader.read(reader.findSlot("EURUSD"), quote));
+            assertEquals(1.1000, quote.getBidPrice());
+            assertEquals(1.1002, quote.getAskPrice());
+            assertTrue(reader.read(reader.findSlot("GBPUSD"), quote));
+            assertEquals(1.3001, quote.getAskPrice());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.hft.lockfree.loadtest;
+
+import com.hft.lockfree.engine.LockFreePriceEngine;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ConstantRateLoadGenerator单元测试
+ */
+class ConstantRateLoadGeneratorTest {
+
+    @Test
+    void testConstantRateRun() {
+        LockFreePriceEngine engine = new LockFreePriceEngine();
+        engine.start();
+        try {
+            ConstantRateLoadGenerator generator = new ConstantRateLoadGenerator(engine, 100, TimeUnit.MILLISECONDS);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+            List<ConstantRateLoadGenerator.RateResult> results = generator.sweep(
+                    new long[]{20_000, 50_000}, 50, 200, TimeUnit.MILLISECONDS, new PrintStream(output));
+
+            assertEquals(2, results.size());
+            ConstantRateLoadGenerator.RateResult result = results.get(1);
+            assertEquals(10_000, result.publishedEvents());
+            assertEquals(10_000, result.receivedEvents());
+            assertEquals(10_000, result.latency().getTotalCount());
+
+            // 订阅者在每轮结束后退订
+            assertEquals(0, engine.getDistributionHandler().getSubscriberCount());
+            // 是否饱和取决于机器负载，只检查汇总已输出
+            assertTrue(output.toString().contains("Constant-rate load summary"));
+        } finally {
+            engine.shutdown();
+        }
+    }
+}
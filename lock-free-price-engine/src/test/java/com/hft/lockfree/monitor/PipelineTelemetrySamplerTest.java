@@ -0,0 +1,90 @@
+package com.hft.lockfree.monitor;
+
+import com.hft.lockfree.engine.LockFreePriceEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PipelineTelemetrySampler单元测试
+ */
+class PipelineTelemetrySamplerTest {
+
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final AtomicLong first = new AtomicLong(-1);
+    private final AtomicLong second = new AtomicLong(-1);
+    private PipelineTelemetrySampler sampler;
+
+    @BeforeEach
+    void setUp() {
+        sampler = new PipelineTelemetrySampler("test", cursor::get, 1024,
+                List.of(new PipelineTelemetrySampler.Stage("first", first::get, new int[0]),
+                        new PipelineTelemetrySampler.Stage("second", second::get, new int[]{0})),
+                1, TimeUnit.MILLISECONDS, 8);
+    }
+
+    @Test
+    void testLagAndBacklog() {
+        cursor.set(100);
+        first.set(90);
+        second.set(40);
+
+        sampler.sample();
+
+        assertEquals(1, sampler.getSampleCount());
+        assertEquals(100, sampler.getCursor());
+        assertEquals(60, sampler.getOccupancy());
+        assertArrayEquals(new long[]{10, 60}, sampler.getStageLags());
+        assertArrayEquals(new long[]{10, 50}, sampler.getStageBacklogMax());
+        assertEquals("second", sampler.getBottleneckStage());
+    }
+
+    @Test
+    void testLagHistory() {
+        for (int i = 0; i < 10; i++) {
+            cursor.set(i * 10L);
+            first.set(i * 10L - i);
+            second.set(i * 10L - i);
+            sampler.sample();
+        }
+
+        long[] timestamps = new long[16];
+        long[] lags = new long[16];
+        int n = sampler.copyLagHistory(0, timestamps, lags);
+
+        // 时间序列长度为8，只保留最近8次采样
+        assertEquals(8, n);
+        assertEquals(2, lags[0]);
+        assertEquals(9, lags[7]);
+        assertTrue(timestamps[7] >= timestamps[0]);
+    }
+
+    @Test
+    void testEngineTelemetryRegistersMBean() throws Exception {
+        LockFreePriceEngine engine = new LockFreePriceEngine();
+        engine.start();
+        try {
+            PipelineTelemetrySampler engineSampler = engine.startTelemetry(1, TimeUnit.MILLISECONDS);
+            for (int i = 0; i < 100; i++) {
+                engine.publishPrice("EURUSD", 1.0999, 1.1001);
+            }
+            Thread.sleep(50);
+
+            assertTrue(engineSampler.getSampleCount() > 0);
+            assertEquals(4, engineSampler.getStageNames().length);
+            assertFalse(ManagementFactory.getPlatformMBeanServer()
+                    .queryNames(new ObjectName("com.hft.lockfree:type=PipelineTelemetry,*"), null)
+                    .isEmpty());
+        } finally {
+            engine.shutdown();
+        }
+        assertNull(engine.getTelemetrySampler());
+    }
+}
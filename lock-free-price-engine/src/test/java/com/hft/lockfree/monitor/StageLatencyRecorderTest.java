@@ -0,0 +1,94 @@
+package com.hft.lockfree.monitor;
+
+import com.hft.lockfree.engine.LockFreePriceEngine;
+import com.hft.lockfree.event.PriceEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 阶段时间戳抽样与分阶段延迟测试
+ */
+class StageLatencyRecorderTest {
+
+    private static void assertStageBreakdown(boolean offHeap) throws InterruptedException {
+        LockFreePriceEngine engine = LockFreePriceEngine.builder()
+                .ringBufferSize(1024)
+                .offHeap(offHeap)
+                .stageTimingInterval(4)
+                .build();
+        List<long[]> stamps = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(16);
+        engine.subscribe((event, sequence) -> {
+            if (event.isTimed()) {
+                stamps.add(new long[]{sequence, event.getIngressTime(), event.getValidatedTime(),
+                        event.getAggregatedTime(), event.getDistributedTime()});
+            }
+            latch.countDown();
+        });
+        engine.start();
+        try {
+            for (int i = 0; i < 16; i++) {
+                engine.publishPrice("EURUSD", 1.1000 + i * 0.0001, 1.1002 + i * 0.0001);
+            }
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+            // 序列号0, 4, 8, 12被抽样，订阅者看到的时间戳单调不减
+            assertEquals(4, stamps.size());
+            for (long[] s : stamps) {
+                assertEquals(0, s[0] % 4);
+                assertTrue(s[1] > 0);
+                assertTrue(s[1] <= s[2] && s[2] <= s[3] && s[3] <= s[4], "stages out of order");
+            }
+            StageLatencyRecorder recorder = engine.getDistributionHandler().getStageLatencies();
+            assertEquals(4, recorder.getRecordedCount());
+            assertTrue(recorder.getMaxValue(StageLatencyRecorder.Stage.TOTAL)
+                    >= recorder.getMaxValue(StageLatencyRecorder.Stage.AGGREGATION));
+            assertTrue(engine.getStatistics().contains("StageLatency[samples=4"));
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void testSampledEventsCarryStageTimestamps() throws InterruptedException {
+        assertStageBreakdown(false);
+    }
+
+    @Test
+    void testOffHeapEventsCarryStageTimestamps() throws InterruptedException {
+        assertStageBreakdown(true);
+    }
+
+    @Test
+    void testTimingDisabled() throws InterruptedException {
+        LockFreePriceEngine engine = LockFreePriceEngine.builder().stageTimingInterval(0).build();
+        CountDownLatch latch = new CountDownLatch(8);
+        List<PriceEvent> timed = new CopyOnWriteArrayList<>();
+        engine.subscribe((event, sequence) -> {
+            if (event.isTimed()) {
+                timed.add(event);
+            }
+            latch.countDown();
+        });
+        engine.start();
+        try {
+            for (int i = 0; i < 8; i++) {
+                engine.publishPrice("EURUSD", 1.1000, 1.1002);
+            }
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertTrue(timed.isEmpty());
+            assertEquals(0, engine.getDistributionHandler().getStageLatencies().getRecordedCount());
+        } finally {
+            engine.shutdown();
+        }
+
+        assertThrows(IllegalArgumentException.class,
+                () -> LockFreePriceEngine.builder().stageTimingInterval(100).build());
+    }
+}
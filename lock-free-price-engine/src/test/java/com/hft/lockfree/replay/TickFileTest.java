@@ -0,0 +1,93 @@
+package com.hft.lockfree.replay;
+
+import com.hft.lockfree.engine.LockFreePriceEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TickFileConverter / TickFileReader单元测试
+ */
+class TickFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testConvertAndRead() throws IOException {
+        Path csv = tempDir.resolve("ticks.csv");
+        Files.writeString(csv, """
+                timestamp,symbol,bid,ask,volume
+                1000,EURUSD,1.0999,1.1001,5
+
+                # 注释行
+                1005,USDJPY,149.99,150.01,1
+                1010, EURUSD ,1.1000,1.1002,2
+                """);
+        Path bin = tempDir.resolve("ticks.bin");
+
+        assertEquals(3, TickFileConverter.convert(csv, bin));
+
+        try (TickFileReader reader = new TickFileReader(bin)) {
+            assertEquals(3, reader.getTickCount());
+            assertEquals(2, reader.getSymbolCount());
+            assertEquals("USDJPY", reader.getSymbol(reader.getSymbolId(1)));
+            assertEquals(reader.getSymbolId(0), reader.getSymbolId(2));
+            assertEquals(1010, reader.getTimestamp(2));
+            assertEquals(150.01, reader.getAskPrice(1));
+
+            String[] symbols = new String[8];
+            double[] bids = new double[8];
+            double[] asks = new double[8];
+            long[] timestamps = new long[8];
+            assertEquals(2, reader.read(1, symbols, bids, asks, timestamps, 8));
+            assertEquals("EURUSD", symbols[1]);
+            assertEquals(1.1000, bids[1]);
+            assertEquals(1005, timestamps[0]);
+        }
+    }
+
+    @Test
+    void testMalformedInput() throws IOException {
+        Path csv = tempDir.resolve("bad.csv");
+        Files.writeString(csv, "1000,EURUSD,1.0999,1.1001\n1005,EURUSD,abc,1.1001\n");
+        IOException e = assertThrows(IOException.class, () -> TickFileConverter.convert(csv, tempDir.resolve("bad.bin")));
+        assertTrue(e.getMessage().contains("line 2"));
+
+        Path notTickFile = tempDir.resolve("random.bin");
+        Files.write(notTickFile, new byte[128]);
+        assertThrows(IOException.class, () -> new TickFileReader(notTickFile));
+    }
+
+    @Test
+    void testReplayIntoEngine() throws Exception {
+        Path csv = tempDir.resolve("replay.csv");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append(i).append(i % 2 == 0 ? ",EURUSD," : ",GBPUSD,")
+                    .append(1.1 + i * 1e-6).append(',').append(1.1002 + i * 1e-6).append('\n');
+        }
+        Files.writeString(csv, sb);
+        Path bin = tempDir.resolve("replay.bin");
+        TickFileConverter.convert(csv, bin);
+
+        LockFreePriceEngine engine = LockFreePriceEngine.builder().ringBufferSize(256).build();
+        engine.start();
+        try (TickFileReader reader = new TickFileReader(bin)) {
+            // 批次大于缓冲区时自动拆分
+            assertEquals(1000, reader.replay(engine, 300));
+            assertEquals(1000, reader.replay(engine, 1));
+            Thread.sleep(200);
+
+            assertEquals(2000, engine.getPublishedEventCount());
+            assertEquals(1.1002 + 999 * 1e-6, engine.getAggregationHandler().getLatestPrice("GBPUSD").getAskPrice(), 1e-12);
+        } finally {
+            engine.shutdown();
+        }
+    }
+}
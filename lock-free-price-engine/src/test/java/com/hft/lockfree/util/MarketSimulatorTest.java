@@ -0,0 +1,73 @@
+package com.hft.lockfree.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MarketSimulator单元测试
+ */
+class MarketSimulatorTest {
+
+    private static final int TICKS = 100_000;
+
+    @Test
+    void testSameSeedIsReproducible() {
+        int[] symbols1 = new int[1000];
+        int[] symbols2 = new int[1000];
+        double[] bids1 = new double[1000];
+        double[] bids2 = new double[1000];
+        double[] asks = new double[1000];
+        long[] intervals = new long[1000];
+
+        PriceDataGenerator.createSimulator(7L).fill(symbols1, bids1, asks, intervals, 0, 1000);
+        PriceDataGenerator.createSimulator(7L).fill(symbols2, bids2, asks, null, 0, 1000);
+
+        assertArrayEquals(symbols1, symbols2);
+        assertArrayEquals(bids1, bids2);
+
+        PriceDataGenerator.createSimulator(8L).fill(symbols2, bids2, asks, null, 0, 1000);
+        assertFalse(Arrays.equals(bids1, bids2));
+    }
+
+    @Test
+    void testZipfPopularityAndRegimes() {
+        MarketSimulator simulator = PriceDataGenerator.createSimulator(42L);
+        int[] counts = new int[simulator.getSymbolCount()];
+        int burstTicks = 0;
+
+        for (int i = 0; i < TICKS; i++) {
+            counts[simulator.nextTick()]++;
+            assertTrue(simulator.getLastBid() < simulator.getLastAsk());
+            assertTrue(simulator.getLastIntervalNanos() > 0);
+            if (simulator.isBurst()) {
+                burstTicks++;
+            }
+        }
+
+        // 排名第一的品种最热门，最后一名最冷门
+        assertTrue(counts[0] > counts[1]);
+        assertTrue(counts[1] > counts[counts.length - 1]);
+        // 突发期占比约为 enter / (enter + exit) ≈ 9%
+        assertTrue(burstTicks > TICKS / 50 && burstTicks < TICKS / 4, "burstTicks=" + burstTicks);
+    }
+
+    @Test
+    void testMeanReversion() {
+        MarketSimulator simulator = PriceDataGenerator.createSimulator(1L);
+        PriceDataGenerator.SymbolConfig config = PriceDataGenerator.getSymbolConfig("EURUSD");
+
+        double maxDeviation = 0;
+        for (int i = 0; i < TICKS; i++) {
+            if (simulator.nextTick() == 0) {
+                maxDeviation = Math.max(maxDeviation, Math.abs(simulator.getMidPrice(0) - config.basePrice));
+            }
+        }
+
+        // 不会像无回归的随机游走那样无限发散
+        assertTrue(maxDeviation > 0);
+        assertTrue(maxDeviation < config.volatility * 20, "maxDeviation=" + maxDeviation);
+    }
+}
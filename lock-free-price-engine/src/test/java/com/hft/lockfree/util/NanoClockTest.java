@@ -0,0 +1,93 @@
+package com.hft.lockfree.util;
+
+import com.hft.lockfree.engine.LockFreePriceEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 处理器时钟测试
+ */
+class NanoClockTest {
+
+    @Test
+    void testBatchCachedClockChangesOnlyOnRefresh() throws Exception {
+        NanoClock clock = NanoClock.batchCached();
+        long cached = clock.nanoTime();
+        Thread.sleep(2);
+        assertEquals(cached, clock.nanoTime());
+
+        clock.refresh();
+        assertTrue(clock.nanoTime() > cached);
+        assertTrue(clock.nanoTime() <= System.nanoTime());
+    }
+
+    @Test
+    void testUpdatingClockAdvancesUntilClosed() throws Exception {
+        UpdatingNanoClock clock = new UpdatingNanoClock(TimeUnit.MICROSECONDS.toNanos(100)).start();
+        try {
+            long start = clock.nanoTime();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (clock.nanoTime() == start && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertTrue(clock.nanoTime() > start);
+            assertTrue(clock.getResolutionNanos() >= TimeUnit.MICROSECONDS.toNanos(100));
+        } finally {
+            clock.close();
+        }
+        assertFalse(clock.isRunning());
+        long stopped = clock.nanoTime();
+        Thread.sleep(2);
+        assertEquals(stopped, clock.nanoTime());
+    }
+
+    @Test
+    void testEngineWithBatchCachedClockAcceptsCurrentEvents() throws Exception {
+        int events = 1000;
+        CountDownLatch latch = new CountDownLatch(events);
+        LockFreePriceEngine engine = LockFreePriceEngine.builder()
+                .ringBufferSize(1024)
+                .clock(NanoClock::batchCached)
+                .build();
+        engine.subscribe((event, sequence) -> latch.countDown());
+        engine.start();
+        try {
+            for (int i = 0; i < events; i++) {
+                engine.publishPrice("EURUSD", 1.0999, 1.1001 + i * 0.00001);
+            }
+            // 发布时间不会晚于批次开始时刷新的时间，没有事件被当作未来时间戳拒绝
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(0, engine.getDeadLetterRing().getOfferedCount());
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void testStoppedClockDoesNotRejectCurrentEvents() throws Exception {
+        // 更新线程从未启动，时钟停在创建时刻
+        UpdatingNanoClock clock = new UpdatingNanoClock(0L);
+        Thread.sleep(5);
+        CountDownLatch latch = new CountDownLatch(2);
+        LockFreePriceEngine engine = LockFreePriceEngine.builder()
+                .ringBufferSize(1024)
+                .clock(() -> clock)
+                .build();
+        engine.subscribe((event, sequence) -> latch.countDown());
+        engine.start();
+        try {
+            engine.publishPrice("EURUSD", 1.0999, 1.1001);
+            // 真正的未来时间戳仍被拒绝
+            engine.publishPrice("EURUSD", 1.0999, 1.1002, System.nanoTime() + TimeUnit.SECONDS.toNanos(1));
+            engine.publishPrice("EURUSD", 1.0999, 1.1003);
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(1, engine.getDeadLetterRing().getOfferedCount());
+        } finally {
+            engine.shutdown();
+        }
+    }
+}